@@ -0,0 +1,126 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An address parsed into its number, street, ZIP code and city, such as <code>
+ * 1 Rue Carnot, 93350 Le Bourget</code>, as encoded by an {@link ApartmentStringPool}. The pool
+ * gives the components that the addresses of a catalogue share one instance each, so that an
+ * address only holds references to its components instead of a copy of its whole string. An address
+ * that does not have this form is kept whole, as its street.
+ *
+ * <p>The string of an address is rebuilt, equal to the one it was parsed from, each time it is
+ * asked.
+ */
+final class Address {
+
+  private static final Pattern FORM = Pattern.compile("(\\d+\\w*) (.+), (\\d{5}) (.+)");
+
+  /** The number in the street, <code>null</code> if the address could not be parsed. */
+  private final String number;
+
+  /** The street, or the whole address if it could not be parsed. */
+  private final String street;
+
+  private final String zipCode;
+
+  private final String city;
+
+  private Address(String number, String street, String zipCode, String city) {
+    this.number = number;
+    this.street = street;
+    this.zipCode = zipCode;
+    this.city = city;
+  }
+
+  /**
+   * Parses an address
+   *
+   * @param address the address to parse
+   * @param canonical gives the instance of each component to keep
+   * @return the address parsed, whose string equals <code>address</code>
+   */
+  static Address parse(String address, UnaryOperator<String> canonical) {
+    Matcher matcher = FORM.matcher(address);
+    if (!matcher.matches()) {
+      return new Address(null, canonical.apply(address), null, null);
+    }
+    return new Address(
+        canonical.apply(matcher.group(1)),
+        canonical.apply(matcher.group(2)),
+        canonical.apply(matcher.group(3)),
+        canonical.apply(matcher.group(4)));
+  }
+
+  /**
+   * Gives the number in its street, such as <code>1</code> or <code>12bis</code>
+   *
+   * @return the number, empty if the address could not be parsed
+   */
+  String getNumber() {
+    return number == null ? "" : number;
+  }
+
+  /**
+   * Gives the street
+   *
+   * @return the street, or the whole address if it could not be parsed
+   */
+  String getStreet() {
+    return street;
+  }
+
+  /**
+   * Gives the ZIP code
+   *
+   * @return the five digits of the ZIP code, empty if the address could not be parsed
+   */
+  String getZipCode() {
+    return zipCode == null ? "" : zipCode;
+  }
+
+  /**
+   * Gives the city
+   *
+   * @return the city, empty if the address could not be parsed
+   */
+  String getCity() {
+    return city == null ? "" : city;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Address)) {
+      return false;
+    }
+    Address other = (Address) obj;
+    return street.equals(other.street)
+        && Objects.equals(number, other.number)
+        && Objects.equals(zipCode, other.zipCode)
+        && Objects.equals(city, other.city);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(number, street, zipCode, city);
+  }
+
+  /**
+   * Gives the string of the address
+   *
+   * @return a new string equal to the one parsed, unless the address could not be parsed
+   */
+  @Override
+  public String toString() {
+    if (number == null) {
+      return street;
+    }
+    return number + " " + street + ", " + zipCode + " " + city;
+  }
+}
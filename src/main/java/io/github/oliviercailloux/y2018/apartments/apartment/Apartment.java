@@ -1,9 +1,14 @@
 package io.github.oliviercailloux.y2018.apartments.apartment;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import javax.json.bind.annotation.JsonbTransient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,95 +16,153 @@ public class Apartment extends Object {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Apartment.class);
 
+  /** The flag set when the apartment has a television */
+  public static final byte TELE_FLAG = 1 << 0;
+
+  /** The flag set when the apartment has a terrace */
+  public static final byte TERRACE_FLAG = 1 << 1;
+
+  /** The flag set when the apartment has a wireless connection */
+  public static final byte WIFI_FLAG = 1 << 2;
+
   /**
    * A real number representing the floor area of the apartment in square meters. Has to be
    * initialized
    */
-  private double floorArea;
+  private final double floorArea;
 
   /**
    * A String giving the full location of the apartment (number, street name, ZIP code, city,
-   * country). Has to be initialized
+   * country), or its {@link Address} when an {@link ApartmentStringPool} encoded it, which {@link
+   * #getAddress()} decodes. Has to be initialized
    */
-  private String address;
+  private final Object address;
 
   /** An integer >= 0 representing the number of bedrooms available default : 0 */
-  private int nbBedrooms;
+  private final int nbBedrooms;
 
   /**
    * An integer >= 0 corresponding of the accommodation capacity of the apartment (nb of people that
    * can sleep in the apartment) default : 0
    */
-  private int nbSleeping;
+  private final int nbSleeping;
 
   /** An integer >= 0 corresponding to the number of bathrooms. default : 0 */
-  private int nbBathrooms;
+  private final int nbBathrooms;
 
-  /** A boolean which indicates if there's a terrace or not. default : false */
-  private boolean hasTerrace;
+  /**
+   * The boolean attributes of the apartment packed in a byte: a combination of {@link #TELE_FLAG},
+   * {@link #TERRACE_FLAG} and {@link #WIFI_FLAG} telling if there's a television, a terrace and a
+   * wireless connection to Internet. default : none of them
+   */
+  private final byte flags;
 
   /**
    * A real number >= 0 representing the floor area of the terrace of the apartment if there's any.
    * default : 0
    */
-  private double floorAreaTerrace;
+  private final double floorAreaTerrace;
 
   /** A String describing the apartment and the offer default : "" */
-  private String description;
+  private final String description;
 
   /** A String representing the title of the announcement. Has to be initialized */
-  private String title;
+  private final String title;
 
   /**
-   * A boolean which indicates if there is wireless connection to Internet or not default : false
+   * A real number >= 0 how much it costs (before any fees) to stay per night in euros. default : 0
    */
-  private boolean wifi;
+  private final double pricePerNight;
+
+  /** An integer >= 0, indicates how long in nights the customer have to stay. default : 0 */
+  private final int nbMinNight;
+
+  /** The hash code of the apartment, computed once as it never changes. */
+  private final int hash;
 
   /**
-   * A real number >= 0 how much it costs (before any fees) to stay per night in euros. default : 0
+   * The identifier of the apartment, derived from its content the first time it is asked, 0 until
+   * then. Its computation is idempotent, so that threads racing to compute it store the same value.
    */
-  private double pricePerNight;
+  private volatile long id;
+
+  /** Constructor which will be used by Apartment.Builder, copying the values it was given */
+  private Apartment(Builder builder) {
+    this.floorArea = builder.floorArea;
+    this.address = builder.encodedAddress == null ? builder.address : builder.encodedAddress;
+    this.title = builder.title;
+    this.nbBedrooms = builder.nbBedrooms;
+    this.nbSleeping = builder.nbSleeping;
+    this.nbBathrooms = builder.nbBathrooms;
+    this.flags = builder.flags;
+    this.floorAreaTerrace = builder.floorAreaTerrace;
+    this.description = builder.description;
+    this.pricePerNight = builder.pricePerNight;
+    this.nbMinNight = builder.nbMinNight;
+    this.hash = computeHash(builder.address);
+  }
+
+  /** Constructor copying an apartment already validated, with strings equal to its own */
+  private Apartment(Apartment apartment, Address address, String title, String description) {
+    this.floorArea = apartment.floorArea;
+    this.address = address;
+    this.title = title;
+    this.nbBedrooms = apartment.nbBedrooms;
+    this.nbSleeping = apartment.nbSleeping;
+    this.nbBathrooms = apartment.nbBathrooms;
+    this.flags = apartment.flags;
+    this.floorAreaTerrace = apartment.floorAreaTerrace;
+    this.description = description;
+    this.pricePerNight = apartment.pricePerNight;
+    this.nbMinNight = apartment.nbMinNight;
+    this.hash = apartment.hash;
+    this.id = apartment.id;
+  }
 
-  /** An integer >= 0, indicates how long in nights the customer have to stay. default : 0 */
-  private int nbMinNight;
-
-  /** A boolean which indicates if there's a television or not can default : false */
-  private boolean tele;
-
-  /** Constructor by default which will be used by Apartment.Builder */
-  private Apartment() {
-    this.floorArea = 0;
-    this.address = null;
-    this.title = null;
-    this.nbBedrooms = 0;
-    this.nbSleeping = 0;
-    this.nbBathrooms = 0;
-    this.hasTerrace = false;
-    this.floorAreaTerrace = 0;
-    this.description = "";
-    this.wifi = false;
-    this.pricePerNight = 0;
-    this.nbMinNight = 0;
-    this.tele = false;
+  /**
+   * Gives a copy of this apartment holding its address encoded and other instances of its strings,
+   * without validating its attributes again
+   *
+   * @param address the address of this apartment, encoded
+   * @param title a string equal to the title of this apartment
+   * @param description a string equal to the description of this apartment
+   * @return a new apartment, equal to this one
+   */
+  Apartment withStrings(Address address, String title, String description) {
+    checkArgument(getAddress().equals(address.toString()));
+    checkArgument(this.title.equals(title));
+    checkArgument(this.description.equals(description));
+    return new Apartment(this, address, title, description);
   }
 
   @Override
   public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
     if (!(obj instanceof Apartment)) return false;
     Apartment apart = (Apartment) obj;
-    return apart.floorArea == this.floorArea
-        && apart.address.equals(this.address)
+    /* The hash codes, already computed, tell most different apartments apart at once. */
+    return apart.hash == this.hash
+        && apart.floorArea == this.floorArea
         && apart.nbBedrooms == this.nbBedrooms
         && apart.nbSleeping == this.nbSleeping
         && apart.nbBathrooms == this.nbBathrooms
-        && apart.hasTerrace == this.hasTerrace
+        && apart.flags == this.flags
         && apart.floorAreaTerrace == this.floorAreaTerrace
-        && apart.description.equals(this.description)
-        && apart.title.equals(this.title)
-        && apart.wifi == this.wifi
         && apart.pricePerNight == this.pricePerNight
         && apart.nbMinNight == this.nbMinNight
-        && apart.tele == this.tele;
+        && addressEquals(apart.address, this.address)
+        && apart.title.equals(this.title)
+        && apart.description.equals(this.description);
+  }
+
+  /** Tells whether two addresses are equal, comparing their components when both are encoded */
+  private static boolean addressEquals(Object address1, Object address2) {
+    if (address1 instanceof Address && address2 instanceof Address) {
+      return address1.equals(address2);
+    }
+    return address1.toString().equals(address2.toString());
   }
 
   @Override
@@ -110,7 +173,7 @@ public class Apartment extends Object {
    */
   public String toString() {
     String floorAreaTS = String.format("%nFloor area : %f square meters", this.floorArea);
-    String addressTS = "\nAddress : " + this.address;
+    String addressTS = "\nAddress : " + getAddress();
     String titleTS = "\nTitle : " + this.title;
     return floorAreaTS + addressTS + titleTS;
   }
@@ -136,7 +199,7 @@ public class Apartment extends Object {
     String dispTele;
 
     dispTitle = "\nTitle : " + this.title;
-    dispAddress = "\nAddress : " + this.address;
+    dispAddress = "\nAddress : " + getAddress();
     dispFloorArea = "\nFloor area : " + Double.toString(this.floorArea) + " square meters";
     dispNbBedrooms =
         "\nNumber of bedrooms : "
@@ -149,10 +212,10 @@ public class Apartment extends Object {
             + ((this.nbBathrooms == 0)
                 ? "N/A"
                 : Integer.toString(this.nbBathrooms) + " bathroom(s)");
-    dispTerrace = "\nTerrace : " + (this.hasTerrace ? "Yes" : "No");
+    dispTerrace = "\nTerrace : " + (getTerrace() ? "Yes" : "No");
     dispFloorAreaTerrace =
         new StringBuilder()
-            .append(!this.hasTerrace ? "" : "\nTerrace floor area : ")
+            .append(!getTerrace() ? "" : "\nTerrace floor area : ")
             .append(
                 (floorAreaTerrace == 0)
                     ? "N/A"
@@ -160,8 +223,8 @@ public class Apartment extends Object {
             .toString();
     dispDescription =
         "\nDescription : " + (Objects.equals(this.description, "") ? "N/A" : this.description);
-    dispWifi = "\nWifi : " + (this.wifi ? "Yes" : "No");
-    dispTele = "\nTelevision : " + (this.tele ? "Yes" : "No");
+    dispWifi = "\nWifi : " + (getWifi() ? "Yes" : "No");
+    dispTele = "\nTelevision : " + (getTele() ? "Yes" : "No");
     dispPricePerNight =
         "\nPrice per night : "
             + ((this.pricePerNight == 0) ? "N/A" : Double.toString(this.pricePerNight) + "€");
@@ -196,10 +259,19 @@ public class Apartment extends Object {
   /**
    * Gets the address
    *
-   * @return a String
+   * @return a String, built anew at each call when the address is encoded
    */
   public String getAddress() {
-    return this.address;
+    return this.address.toString();
+  }
+
+  /**
+   * Gives the address as encoded by a pool
+   *
+   * @return the encoded address, or <code>null</code> if the apartment holds its address as given
+   */
+  Address getEncodedAddress() {
+    return address instanceof Address ? (Address) address : null;
   }
 
   /**
@@ -235,7 +307,7 @@ public class Apartment extends Object {
    * @return a boolean
    */
   public boolean getTerrace() {
-    return this.hasTerrace;
+    return (this.flags & TERRACE_FLAG) != 0;
   }
 
   /**
@@ -271,7 +343,7 @@ public class Apartment extends Object {
    * @return a boolean
    */
   public boolean getWifi() {
-    return this.wifi;
+    return (this.flags & WIFI_FLAG) != 0;
   }
 
   /**
@@ -298,114 +370,88 @@ public class Apartment extends Object {
    * @return a boolean
    */
   public boolean getTele() {
-    return this.tele;
-  }
-
-  /** @param floorArea a real number >= 0 */
-  private void setFloorArea(double floorArea) {
-    checkArgument(floorArea > 0, "The floor area should not be <= 0");
-    this.floorArea = floorArea;
-    LOGGER.info("The floor area has been set to {}", floorArea);
-  }
-
-  /** @param address a String */
-  private void setAddress(String address) {
-    checkArgument(!address.isEmpty(), "The address should not be empty");
-    this.address = checkNotNull(address, "The address should not be null");
-    LOGGER.info("The address has been set to {}", address);
-  }
-
-  /** @param nbBedrooms an integer >= 0 */
-  private void setNbBedrooms(int nbBedrooms) {
-    checkArgument(nbBedrooms >= 0, "The number of Bedrooms can not be negative");
-    this.nbBedrooms = nbBedrooms;
-    LOGGER.info("The number of bathrooms has been set to {}", nbBedrooms);
-  }
-
-  /** @param nbSleeping an integer >= 0 */
-  private void setNbSleeping(int nbSleeping) {
-    checkArgument(nbSleeping >= 0, "The accomodation capacity can not be negative");
-    this.nbSleeping = nbSleeping;
-    LOGGER.info("The number of sleepings has been set to {}", nbSleeping);
-  }
-
-  /** @param nbBathrooms an integer >= 0 */
-  private void setNbBathrooms(int nbBathrooms) {
-    checkArgument(nbBathrooms >= 0, "The number of bathrooms can not be negative");
-    this.nbBathrooms = nbBathrooms;
-    LOGGER.info("The number of bathrooms has been set to {}", nbBathrooms);
-  }
-
-  /** @param terrace a boolean */
-  private void setTerrace(boolean terrace) {
-    this.hasTerrace = terrace;
-    LOGGER.info("terrace has been set to {}", terrace);
+    return (this.flags & TELE_FLAG) != 0;
   }
 
   /**
-   * @param floorAreaTerrace a real number >= 0, it only works if terrace = true (use setTerrace)
+   * Gets the presence (or absence) of a TV, a terrace and WiFi, packed in a byte
+   *
+   * @return a combination of {@link #TELE_FLAG}, {@link #TERRACE_FLAG} and {@link #WIFI_FLAG}
    */
-  private void setFloorAreaTerrace(double floorAreaTerrace) {
-    checkArgument(floorAreaTerrace >= 0, "The floor area of the terrace cannot be negative");
-    this.floorAreaTerrace = floorAreaTerrace;
-    LOGGER.info("The floor area of the terrace has been set to {}", floorAreaTerrace);
-  }
-
-  /** @param description a String */
-  private void setDescription(String description) {
-    this.description = checkNotNull(description, "The description should not be null");
-    LOGGER.info("The description has been set to {}", description);
-  }
-
-  /** @param title a String */
-  private void setTitle(String title) {
-    checkArgument(!title.isEmpty(), "The title should not be empty");
-    this.title = checkNotNull(title, "The title should not be null");
-    LOGGER.info("The title has been set to {}", floorArea);
-  }
-
-  /** @param wifi a boolean */
-  private void setWifi(boolean wifi) {
-    this.wifi = wifi;
-    LOGGER.info("The wifi has been set to {}", wifi);
-  }
-
-  /** @param pricePerNight a real number >= 0 */
-  private void setPricePerNight(double pricePerNight) {
-    checkArgument(pricePerNight >= 0, "The price per night cannot be negative");
-    this.pricePerNight = pricePerNight;
-    LOGGER.info("The price per night has been set to {}", pricePerNight);
+  @JsonbTransient
+  public byte getFlags() {
+    return this.flags;
   }
 
-  /** @param nbMinNight an integer >= 0 */
-  private void setNbMinNight(int nbMinNight) {
-    checkArgument(nbMinNight >= 0, "The minimum number of nights cannot be negative");
-    this.nbMinNight = nbMinNight;
-    LOGGER.info("The number minimum of night has been set to {}", nbMinNight);
-  }
-
-  /** @param tele a boolean */
-  private void setTele(boolean tele) {
-    this.tele = tele;
-    LOGGER.info("The tele has been set to {}", tele);
+  /**
+   * Gives an identifier of the apartment derived from all its attributes, so that two equal
+   * apartments have the same identifier, in any run of the application. Caches and indexes can key
+   * on it instead of the whole apartment.
+   *
+   * @return a 64 bits fingerprint of the apartment, not 0
+   */
+  @JsonbTransient
+  public long getId() {
+    long result = id;
+    if (result == 0) {
+      result = computeId();
+      id = result;
+    }
+    return result;
+  }
+
+  private long computeId() {
+    long fingerprint =
+        Hashing.murmur3_128()
+            .newHasher()
+            .putDouble(floorArea)
+            .putInt(nbBedrooms)
+            .putInt(nbSleeping)
+            .putInt(nbBathrooms)
+            .putByte(flags)
+            .putDouble(floorAreaTerrace)
+            .putDouble(pricePerNight)
+            .putInt(nbMinNight)
+            .putString(getAddress(), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(title, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(description, StandardCharsets.UTF_8)
+            .hash()
+            .asLong();
+    return fingerprint == 0 ? 1 : fingerprint;
+  }
+
+  private int computeHash(String address) {
+    int result = address.hashCode();
+    result = 31 * result + Double.hashCode(floorArea);
+    result = 31 * result + nbBedrooms;
+    result = 31 * result + nbSleeping;
+    result = 31 * result + nbBathrooms;
+    result = 31 * result + flags;
+    result = 31 * result + Double.hashCode(floorAreaTerrace);
+    result = 31 * result + description.hashCode();
+    result = 31 * result + title.hashCode();
+    result = 31 * result + Double.hashCode(pricePerNight);
+    result = 31 * result + nbMinNight;
+    return result;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(
-        address,
-        floorArea,
-        nbBedrooms,
-        nbSleeping,
-        nbBathrooms,
-        hasTerrace,
-        floorAreaTerrace,
-        description,
-        title,
-        wifi,
-        pricePerNight,
-        nbMinNight,
-        tele);
+    return hash;
+  }
+
+  /**
+   * Gives a builder for bulk imports, which does not log the attributes it sets and which reports
+   * all the problems of an apartment at once instead of failing on the first one: the setters
+   * ignore invalid values, and {@link Builder#validate()} then lists what is wrong with the
+   * apartment.
+   *
+   * @return a new builder in bulk mode
+   */
+  public static Builder bulkBuilder() {
+    return new Builder(true);
   }
 
   /**
@@ -414,106 +460,294 @@ public class Apartment extends Object {
    */
   public static class Builder {
 
-    private Apartment apartmentToBuild;
+    private double floorArea;
+    private String address;
+    private Address encodedAddress;
+    private String title;
+    private int nbBedrooms;
+    private int nbSleeping;
+    private int nbBathrooms;
+    private byte flags;
+    private double floorAreaTerrace;
+    private String description;
+    private double pricePerNight;
+    private int nbMinNight;
     private boolean wifiKnown;
     private boolean teleKnown;
     private boolean hasTerraceKnown;
 
+    /**
+     * Whether the attributes are set without logging, their problems being collected rather than
+     * thrown by the setters.
+     */
+    private final boolean bulk;
+
+    /** The problems found by the setters in bulk mode, in the order they were found. */
+    private final List<String> problems;
+
     public Builder() {
-      apartmentToBuild = new Apartment();
+      this(false);
+    }
+
+    private Builder(boolean bulk) {
+      this.floorArea = 0;
+      this.address = null;
+      this.encodedAddress = null;
+      this.title = null;
+      this.nbBedrooms = 0;
+      this.nbSleeping = 0;
+      this.nbBathrooms = 0;
+      this.flags = 0;
+      this.floorAreaTerrace = 0;
+      this.description = "";
+      this.pricePerNight = 0;
+      this.nbMinNight = 0;
       this.hasTerraceKnown = false;
       this.teleKnown = false;
       this.wifiKnown = false;
+      this.bulk = bulk;
+      this.problems = new ArrayList<>();
+    }
+
+    /**
+     * Lists the problems that prevent building the apartment: in bulk mode, the invalid values
+     * given to the setters, then in any mode the attributes missing or not consistent.
+     *
+     * @return the problems found, empty if the apartment can be built
+     */
+    public ImmutableList<String> validate() {
+      ImmutableList.Builder<String> found = ImmutableList.builder();
+      found.addAll(problems);
+      if (floorArea < 0) {
+        found.add("The floor area of the apartment cannot be negative");
+      }
+      if (address == null) {
+        found.add("The address of the apartment must be specified");
+      }
+      if (title == null) {
+        found.add("The title of the apartment must be specified");
+      }
+      if (!this.hasTerraceKnown) {
+        found.add("The terrace must be specified");
+      }
+      if (!this.teleKnown) {
+        found.add("The presence of TV must be specified");
+      }
+      if (!this.wifiKnown) {
+        found.add("The presence of wifi must be specified");
+      }
+      if ((flags & TERRACE_FLAG) == 0 && floorAreaTerrace > 0) {
+        found.add("The terrace can not have a floor area if it doesn't exists");
+      } else if ((flags & TERRACE_FLAG) != 0 && floorAreaTerrace <= 0) {
+        found.add("The existing terrace can not have a floor area  <= 0");
+      }
+      return found.build();
     }
 
+    /**
+     * Builds the apartment
+     *
+     * @return the apartment built
+     * @throws IllegalStateException if the apartment is not valid, telling the first problem found
+     *     or, in bulk mode, all of them
+     */
     public Apartment build() {
-      if (apartmentToBuild.getFloorArea() < 0) {
-        throw new IllegalStateException("The floor area of the apartment cannot be negative");
-      } else if (apartmentToBuild.getAddress() == null) {
-        throw new IllegalStateException("The address of the apartment must be specified");
-      } else if (apartmentToBuild.getTitle() == null) {
-        throw new IllegalStateException("The title of the apartment must be specified");
-      } else if (!this.hasTerraceKnown) {
-        throw new IllegalStateException("The terrace must be specified");
-      } else if (!this.teleKnown) {
-        throw new IllegalStateException("The presence of TV must be specified");
-      } else if (!this.wifiKnown) {
-        throw new IllegalStateException("The presence of wifi must be specified");
-      } else if (!(apartmentToBuild.getTerrace()) && apartmentToBuild.getFloorAreaTerrace() > 0) {
-        throw new IllegalStateException(
-            "The terrace can not have a floor area if it doesn't exists");
-      } else if (apartmentToBuild.getTerrace() && apartmentToBuild.getFloorAreaTerrace() <= 0) {
-        throw new IllegalStateException("The existing terrace can not have a floor area  <= 0");
+      ImmutableList<String> found = validate();
+      if (!found.isEmpty()) {
+        throw new IllegalStateException(bulk ? String.join("; ", found) : found.get(0));
       }
-      return this.apartmentToBuild;
+      return new Apartment(this);
     }
 
+    /**
+     * Checks a value given to a setter
+     *
+     * @param valid whether the value is valid
+     * @param problem the problem to report otherwise
+     * @return <code>valid</code>
+     * @throws IllegalArgumentException if the value is not valid, unless in bulk mode
+     */
+    private boolean check(boolean valid, String problem) {
+      if (!valid) {
+        if (!bulk) {
+          throw new IllegalArgumentException(problem);
+        }
+        problems.add(problem);
+      }
+      return valid;
+    }
+
+    /**
+     * Checks that a value given to a setter is present
+     *
+     * @param value the value
+     * @param problem the problem to report otherwise
+     * @return whether the value is present
+     * @throws NullPointerException if the value is <code>null</code>, unless in bulk mode
+     */
+    private boolean checkPresent(Object value, String problem) {
+      if (value == null) {
+        if (!bulk) {
+          throw new NullPointerException(problem);
+        }
+        problems.add(problem);
+      }
+      return value != null;
+    }
+
+    /** @param floorArea a real number > 0 */
     public Builder setFloorArea(double floorArea) {
-      this.apartmentToBuild.setFloorArea(floorArea);
+      if (check(floorArea > 0, "The floor area should not be <= 0")) {
+        this.floorArea = floorArea;
+        if (!bulk) {
+          LOGGER.info("The floor area has been set to {}", floorArea);
+        }
+      }
       return this;
     }
 
+    /** @param address a non-empty String */
     public Builder setAddress(String address) {
-      this.apartmentToBuild.setAddress(address);
+      return setAddress(address, null);
+    }
+
+    /**
+     * Sets the address, encoded by the pool of a catalogue into its components, which the
+     * apartments of the catalogue share
+     *
+     * @param address a non-empty String
+     * @param pool the pool encoding the address, or <code>null</code> to keep the address as given
+     */
+    public Builder setAddress(String address, ApartmentStringPool pool) {
+      if (checkPresent(address, "The address should not be null")
+          && check(!address.isEmpty(), "The address should not be empty")) {
+        this.address = address;
+        this.encodedAddress = pool == null ? null : pool.encodeAddress(address);
+        if (!bulk) {
+          LOGGER.info("The address has been set to {}", address);
+        }
+      }
       return this;
     }
 
+    /** @param title a non-empty String */
     public Builder setTitle(String title) {
-      this.apartmentToBuild.setTitle(title);
+      if (checkPresent(title, "The title should not be null")
+          && check(!title.isEmpty(), "The title should not be empty")) {
+        this.title = title;
+        if (!bulk) {
+          LOGGER.info("The title has been set to {}", title);
+        }
+      }
       return this;
     }
 
+    /** @param nbBedrooms an integer >= 0 */
     public Builder setNbBedrooms(int nbBedrooms) {
-      this.apartmentToBuild.setNbBedrooms(nbBedrooms);
+      if (check(nbBedrooms >= 0, "The number of Bedrooms can not be negative")) {
+        this.nbBedrooms = nbBedrooms;
+        if (!bulk) {
+          LOGGER.info("The number of bedrooms has been set to {}", nbBedrooms);
+        }
+      }
       return this;
     }
 
+    /** @param nbSleeping an integer >= 0 */
     public Builder setNbSleeping(int nbSleeping) {
-      this.apartmentToBuild.setNbSleeping(nbSleeping);
+      if (check(nbSleeping >= 0, "The accomodation capacity can not be negative")) {
+        this.nbSleeping = nbSleeping;
+        if (!bulk) {
+          LOGGER.info("The number of sleepings has been set to {}", nbSleeping);
+        }
+      }
       return this;
     }
 
+    /** @param nbBathrooms an integer >= 0 */
     public Builder setNbBathrooms(int nbBathrooms) {
-      this.apartmentToBuild.setNbBathrooms(nbBathrooms);
+      if (check(nbBathrooms >= 0, "The number of bathrooms can not be negative")) {
+        this.nbBathrooms = nbBathrooms;
+        if (!bulk) {
+          LOGGER.info("The number of bathrooms has been set to {}", nbBathrooms);
+        }
+      }
       return this;
     }
 
+    /** @param floorAreaTerrace a real number >= 0, it only works if terrace = true (use setTerrace) */
     public Builder setFloorAreaTerrace(double floorAreaTerrace) {
-      this.apartmentToBuild.setFloorAreaTerrace(floorAreaTerrace);
+      if (check(floorAreaTerrace >= 0, "The floor area of the terrace cannot be negative")) {
+        this.floorAreaTerrace = floorAreaTerrace;
+        if (!bulk) {
+          LOGGER.info("The floor area of the terrace has been set to {}", floorAreaTerrace);
+        }
+      }
       return this;
     }
 
+    /** @param pricePerNight a real number >= 0 */
     public Builder setPricePerNight(double pricePerNight) {
-      this.apartmentToBuild.setPricePerNight(pricePerNight);
+      if (check(pricePerNight >= 0, "The price per night cannot be negative")) {
+        this.pricePerNight = pricePerNight;
+        if (!bulk) {
+          LOGGER.info("The price per night has been set to {}", pricePerNight);
+        }
+      }
       return this;
     }
 
+    /** @param nbMinNight an integer >= 0 */
     public Builder setNbMinNight(int nbMinNight) {
-      this.apartmentToBuild.setNbMinNight(nbMinNight);
+      if (check(nbMinNight >= 0, "The minimum number of nights cannot be negative")) {
+        this.nbMinNight = nbMinNight;
+        if (!bulk) {
+          LOGGER.info("The number minimum of night has been set to {}", nbMinNight);
+        }
+      }
       return this;
     }
 
     public Builder setTerrace(boolean terrace) {
       this.hasTerraceKnown = true;
-      this.apartmentToBuild.setTerrace(terrace);
+      setFlag(TERRACE_FLAG, terrace);
+      if (!bulk) {
+        LOGGER.info("terrace has been set to {}", terrace);
+      }
       return this;
     }
 
+    /** @param description a String */
     public Builder setDescription(String description) {
-      this.apartmentToBuild.setDescription(description);
+      if (checkPresent(description, "The description should not be null")) {
+        this.description = description;
+        if (!bulk) {
+          LOGGER.info("The description has been set to {}", description);
+        }
+      }
       return this;
     }
 
     public Builder setWifi(boolean wifi) {
       this.wifiKnown = true;
-      this.apartmentToBuild.setWifi(wifi);
+      setFlag(WIFI_FLAG, wifi);
+      if (!bulk) {
+        LOGGER.info("The wifi has been set to {}", wifi);
+      }
       return this;
     }
 
     public Builder setTele(boolean tele) {
       this.teleKnown = true;
-      this.apartmentToBuild.setTele(tele);
+      setFlag(TELE_FLAG, tele);
+      if (!bulk) {
+        LOGGER.info("The tele has been set to {}", tele);
+      }
       return this;
     }
+
+    private void setFlag(byte flag, boolean value) {
+      this.flags = (byte) (value ? this.flags | flag : this.flags & ~flag);
+    }
   }
 }
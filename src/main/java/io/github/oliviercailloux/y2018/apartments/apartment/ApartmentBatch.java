@@ -0,0 +1,446 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static io.github.oliviercailloux.y2018.apartments.apartment.Apartment.TELE_FLAG;
+import static io.github.oliviercailloux.y2018.apartments.apartment.Apartment.TERRACE_FLAG;
+import static io.github.oliviercailloux.y2018.apartments.apartment.Apartment.WIFI_FLAG;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable catalogue of apartments stored by columns: one primitive array per numeric attribute
+ * and one byte of flags per apartment for the boolean attributes. Only the attributes that can be
+ * valued by a {@link Criterion} are kept, the rows are in the order in which the apartments were
+ * added.
+ *
+ * <p>A batch may hold only the columns of some criteria, for example when it is read from a file
+ * for ranking with a known value function: the columns of the other criteria are then not stored at
+ * all, and asking for their values fails.
+ */
+public final class ApartmentBatch implements ApartmentColumns {
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  private final int size;
+  private final ImmutableSet<Criterion> criteria;
+
+  /** Whether the column of each criterion is held, by ordinal. */
+  private final boolean[] held;
+
+  /** The flags of the boolean criteria held. */
+  private final byte heldFlags;
+
+  private final double[] floorArea;
+  private final double[] floorAreaTerrace;
+  private final double[] pricePerNight;
+  private final int[] nbBedrooms;
+  private final int[] nbSleeping;
+  private final int[] nbBathrooms;
+  private final int[] nbMinNight;
+  private final byte[] flags;
+
+  private ApartmentBatch(Builder builder) {
+    this.size = builder.size;
+    this.criteria = builder.criteria;
+    this.held = builder.held;
+    this.heldFlags = builder.heldFlags;
+    /* The columns not held are empty. */
+    this.floorArea = Arrays.copyOf(builder.floorArea, Math.min(size, builder.floorArea.length));
+    this.floorAreaTerrace =
+        Arrays.copyOf(builder.floorAreaTerrace, Math.min(size, builder.floorAreaTerrace.length));
+    this.pricePerNight =
+        Arrays.copyOf(builder.pricePerNight, Math.min(size, builder.pricePerNight.length));
+    this.nbBedrooms = Arrays.copyOf(builder.nbBedrooms, Math.min(size, builder.nbBedrooms.length));
+    this.nbSleeping = Arrays.copyOf(builder.nbSleeping, Math.min(size, builder.nbSleeping.length));
+    this.nbBathrooms =
+        Arrays.copyOf(builder.nbBathrooms, Math.min(size, builder.nbBathrooms.length));
+    this.nbMinNight = Arrays.copyOf(builder.nbMinNight, Math.min(size, builder.nbMinNight.length));
+    this.flags = Arrays.copyOf(builder.flags, Math.min(size, builder.flags.length));
+  }
+
+  /**
+   * Creates a batch holding the given apartments, in the same order
+   *
+   * @param apartments the apartments to store by columns
+   * @return the batch of the apartments
+   */
+  public static ApartmentBatch copyOf(List<Apartment> apartments) {
+    checkNotNull(apartments);
+    Builder builder = new Builder(apartments.size());
+    apartments.forEach(builder::add);
+    return builder.build();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gives the criteria whose columns this batch holds
+   *
+   * @return all the criteria, unless the batch was built for some of them only
+   */
+  public ImmutableSet<Criterion> getCriteria() {
+    return criteria;
+  }
+
+  @Override
+  public boolean holds(Criterion criterion) {
+    return held[criterion.ordinal()];
+  }
+
+  @Override
+  public byte getFlags(int row) {
+    return heldFlags == 0 ? 0 : flags[row];
+  }
+
+  @Override
+  public void copyFlags(int from, int length, byte[] dest) {
+    checkPositionIndexes(from, from + length, size);
+    checkArgument(dest.length >= length, "The destination is too small");
+    if (heldFlags == 0) {
+      Arrays.fill(dest, 0, length, (byte) 0);
+    } else {
+      System.arraycopy(flags, from, dest, 0, length);
+    }
+  }
+
+  /**
+   * Counts the apartments whose flags selected by <code>mask</code> are exactly those of <code>
+   * expected</code>. For example, <code>countMatching(TELE_FLAG | WIFI_FLAG, WIFI_FLAG)</code>
+   * counts the apartments having WiFi and no television, whatever their terrace.
+   *
+   * @param mask a combination of the flags of {@link Apartment} to test, whose columns are held
+   * @param expected the value these flags must have, included in <code>mask</code>
+   * @return the number of matching apartments
+   */
+  public int countMatching(int mask, int expected) {
+    checkMask(mask, expected);
+    if (mask == 0) {
+      return size;
+    }
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      if ((flags[row] & mask) == expected) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gives the apartments whose flags selected by <code>mask</code> are exactly those of <code>
+   * expected</code>, as {@link #countMatching(int, int)} counts them.
+   *
+   * @param mask a combination of the flags of {@link Apartment} to test, whose columns are held
+   * @param expected the value these flags must have, included in <code>mask</code>
+   * @return the indexes of the matching apartments, in increasing order
+   */
+  public int[] rowsMatching(int mask, int expected) {
+    checkMask(mask, expected);
+    if (mask == 0) {
+      return IntStream.range(0, size).toArray();
+    }
+    int[] rows = new int[size];
+    int count = 0;
+    for (int row = 0; row < size; row++) {
+      if ((flags[row] & mask) == expected) {
+        rows[count++] = row;
+      }
+    }
+    return Arrays.copyOf(rows, count);
+  }
+
+  private void checkMask(int mask, int expected) {
+    checkArgument((expected & ~mask) == 0, "The expected flags must be in the mask");
+    checkArgument((mask & ~heldFlags) == 0, "The batch does not hold all the flags of the mask");
+  }
+
+  private void checkHeld(Criterion criterion) {
+    checkArgument(held[criterion.ordinal()], "The batch does not hold the column of %s", criterion);
+  }
+
+  @Override
+  public double getValue(Criterion criterion, int row) {
+    checkHeld(criterion);
+    switch (criterion) {
+      case TELE:
+        return (flags[row] & TELE_FLAG) == 0 ? 0d : 1d;
+      case TERRACE:
+        return (flags[row] & TERRACE_FLAG) == 0 ? 0d : 1d;
+      case WIFI:
+        return (flags[row] & WIFI_FLAG) == 0 ? 0d : 1d;
+      case FLOOR_AREA:
+        return floorArea[row];
+      case FLOOR_AREA_TERRACE:
+        return floorAreaTerrace[row];
+      case NB_BATHROOMS:
+        return nbBathrooms[row];
+      case NB_BEDROOMS:
+        return nbBedrooms[row];
+      case NB_SLEEPING:
+        return nbSleeping[row];
+      case NB_MIN_NIGHT:
+        return nbMinNight[row];
+      case PRICE_PER_NIGHT:
+        return pricePerNight[row];
+      default:
+        throw new IllegalArgumentException("Unknown criterion " + criterion);
+    }
+  }
+
+  @Override
+  public void copyValues(Criterion criterion, int from, int length, double[] dest) {
+    checkHeld(criterion);
+    checkPositionIndexes(from, from + length, size);
+    checkArgument(dest.length >= length, "The destination is too small");
+    switch (criterion) {
+      case TELE:
+        copyFlag(TELE_FLAG, from, length, dest);
+        break;
+      case TERRACE:
+        copyFlag(TERRACE_FLAG, from, length, dest);
+        break;
+      case WIFI:
+        copyFlag(WIFI_FLAG, from, length, dest);
+        break;
+      case FLOOR_AREA:
+        System.arraycopy(floorArea, from, dest, 0, length);
+        break;
+      case FLOOR_AREA_TERRACE:
+        System.arraycopy(floorAreaTerrace, from, dest, 0, length);
+        break;
+      case PRICE_PER_NIGHT:
+        System.arraycopy(pricePerNight, from, dest, 0, length);
+        break;
+      case NB_BATHROOMS:
+        copyInts(nbBathrooms, from, length, dest);
+        break;
+      case NB_BEDROOMS:
+        copyInts(nbBedrooms, from, length, dest);
+        break;
+      case NB_SLEEPING:
+        copyInts(nbSleeping, from, length, dest);
+        break;
+      case NB_MIN_NIGHT:
+        copyInts(nbMinNight, from, length, dest);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown criterion " + criterion);
+    }
+  }
+
+  private void copyFlag(byte flag, int from, int length, double[] dest) {
+    for (int i = 0; i < length; i++) {
+      dest[i] = (flags[from + i] & flag) == 0 ? 0d : 1d;
+    }
+  }
+
+  private static void copyInts(int[] column, int from, int length, double[] dest) {
+    for (int i = 0; i < length; i++) {
+      dest[i] = column[from + i];
+    }
+  }
+
+  /**
+   * Builds a batch by appending apartments one after the other, holding the columns of all the
+   * criteria or of some of them.
+   */
+  public static class Builder {
+
+    private final ImmutableSet<Criterion> criteria;
+    private final boolean[] held;
+    private final byte heldFlags;
+
+    /** The values of the apartment being added, by ordinal of the criteria. */
+    private final double[] row;
+
+    private int size;
+    private int capacity;
+    private double[] floorArea;
+    private double[] floorAreaTerrace;
+    private double[] pricePerNight;
+    private int[] nbBedrooms;
+    private int[] nbSleeping;
+    private int[] nbBathrooms;
+    private int[] nbMinNight;
+    private byte[] flags;
+
+    public Builder() {
+      this(16);
+    }
+
+    /**
+     * Creates a builder that can receive <code>expectedSize</code> apartments before growing
+     *
+     * @param expectedSize an integer >= 0
+     */
+    public Builder(int expectedSize) {
+      this(expectedSize, EnumSet.allOf(Criterion.class));
+    }
+
+    /**
+     * Creates a builder of a batch holding only the columns of some criteria, that can receive
+     * <code>expectedSize</code> apartments before growing
+     *
+     * @param expectedSize an integer >= 0
+     * @param criteria the criteria whose columns to hold
+     */
+    public Builder(int expectedSize, Set<Criterion> criteria) {
+      checkArgument(expectedSize >= 0, "The expected size cannot be negative");
+      this.criteria = Sets.immutableEnumSet(criteria);
+      this.held = new boolean[CRITERIA.length];
+      this.criteria.forEach(criterion -> held[criterion.ordinal()] = true);
+      this.heldFlags =
+          (byte)
+              ((held[Criterion.TELE.ordinal()] ? TELE_FLAG : 0)
+                  | (held[Criterion.TERRACE.ordinal()] ? TERRACE_FLAG : 0)
+                  | (held[Criterion.WIFI.ordinal()] ? WIFI_FLAG : 0));
+      this.row = new double[CRITERIA.length];
+      this.size = 0;
+      this.capacity = expectedSize;
+      this.floorArea = new double[columnLength(Criterion.FLOOR_AREA)];
+      this.floorAreaTerrace = new double[columnLength(Criterion.FLOOR_AREA_TERRACE)];
+      this.pricePerNight = new double[columnLength(Criterion.PRICE_PER_NIGHT)];
+      this.nbBedrooms = new int[columnLength(Criterion.NB_BEDROOMS)];
+      this.nbSleeping = new int[columnLength(Criterion.NB_SLEEPING)];
+      this.nbBathrooms = new int[columnLength(Criterion.NB_BATHROOMS)];
+      this.nbMinNight = new int[columnLength(Criterion.NB_MIN_NIGHT)];
+      this.flags = new byte[heldFlags == 0 ? 0 : capacity];
+    }
+
+    public ApartmentBatch build() {
+      return new ApartmentBatch(this);
+    }
+
+    /**
+     * Appends an apartment as the last row of the batch
+     *
+     * @param apartment the apartment to append
+     * @return the current instance of Builder
+     */
+    public Builder add(Apartment apartment) {
+      checkNotNull(apartment);
+      row[Criterion.TELE.ordinal()] = apartment.getTele() ? 1d : 0d;
+      row[Criterion.TERRACE.ordinal()] = apartment.getTerrace() ? 1d : 0d;
+      row[Criterion.WIFI.ordinal()] = apartment.getWifi() ? 1d : 0d;
+      row[Criterion.FLOOR_AREA.ordinal()] = apartment.getFloorArea();
+      row[Criterion.FLOOR_AREA_TERRACE.ordinal()] = apartment.getFloorAreaTerrace();
+      row[Criterion.NB_BATHROOMS.ordinal()] = apartment.getNbBathrooms();
+      row[Criterion.NB_BEDROOMS.ordinal()] = apartment.getNbBedrooms();
+      row[Criterion.NB_SLEEPING.ordinal()] = apartment.getNbSleeping();
+      row[Criterion.NB_MIN_NIGHT.ordinal()] = apartment.getNbMinNight();
+      row[Criterion.PRICE_PER_NIGHT.ordinal()] = apartment.getPricePerNight();
+      return addRow(row);
+    }
+
+    /**
+     * Appends an apartment given by its objective values as the last row of the batch, keeping only
+     * the values of the criteria whose columns are held
+     *
+     * @param values the objective value of each criterion, by ordinal, as {@link
+     *     ApartmentBatch#getValue(Criterion, int)} gives it
+     * @return the current instance of Builder
+     */
+    public Builder addRow(double[] values) {
+      checkArgument(values.length == CRITERIA.length, "A value is needed for each criterion");
+      if (size == capacity) {
+        grow(Math.max(16, capacity * 2));
+      }
+      if (held[Criterion.FLOOR_AREA.ordinal()]) {
+        floorArea[size] = values[Criterion.FLOOR_AREA.ordinal()];
+      }
+      if (held[Criterion.FLOOR_AREA_TERRACE.ordinal()]) {
+        floorAreaTerrace[size] = values[Criterion.FLOOR_AREA_TERRACE.ordinal()];
+      }
+      if (held[Criterion.PRICE_PER_NIGHT.ordinal()]) {
+        pricePerNight[size] = values[Criterion.PRICE_PER_NIGHT.ordinal()];
+      }
+      if (held[Criterion.NB_BEDROOMS.ordinal()]) {
+        nbBedrooms[size] = (int) values[Criterion.NB_BEDROOMS.ordinal()];
+      }
+      if (held[Criterion.NB_SLEEPING.ordinal()]) {
+        nbSleeping[size] = (int) values[Criterion.NB_SLEEPING.ordinal()];
+      }
+      if (held[Criterion.NB_BATHROOMS.ordinal()]) {
+        nbBathrooms[size] = (int) values[Criterion.NB_BATHROOMS.ordinal()];
+      }
+      if (held[Criterion.NB_MIN_NIGHT.ordinal()]) {
+        nbMinNight[size] = (int) values[Criterion.NB_MIN_NIGHT.ordinal()];
+      }
+      if (heldFlags != 0) {
+        int allFlags =
+            (values[Criterion.TELE.ordinal()] != 0d ? TELE_FLAG : 0)
+                | (values[Criterion.TERRACE.ordinal()] != 0d ? TERRACE_FLAG : 0)
+                | (values[Criterion.WIFI.ordinal()] != 0d ? WIFI_FLAG : 0);
+        flags[size] = (byte) (allFlags & heldFlags);
+      }
+      size++;
+      return this;
+    }
+
+    /**
+     * Appends all the apartments of a batch after the last row of the batch being built, in the
+     * same order
+     *
+     * @param batch the batch whose rows to append, holding at least the columns of this builder
+     * @return the current instance of Builder
+     */
+    public Builder addAll(ApartmentBatch batch) {
+      checkNotNull(batch);
+      checkArgument(
+          batch.criteria.containsAll(criteria), "The batch does not hold all the columns needed");
+      if (capacity - size < batch.size) {
+        grow(Math.max(size + batch.size, capacity * 2));
+      }
+      copyColumn(batch.floorArea, floorArea, Criterion.FLOOR_AREA, batch.size);
+      copyColumn(
+          batch.floorAreaTerrace, floorAreaTerrace, Criterion.FLOOR_AREA_TERRACE, batch.size);
+      copyColumn(batch.pricePerNight, pricePerNight, Criterion.PRICE_PER_NIGHT, batch.size);
+      copyColumn(batch.nbBedrooms, nbBedrooms, Criterion.NB_BEDROOMS, batch.size);
+      copyColumn(batch.nbSleeping, nbSleeping, Criterion.NB_SLEEPING, batch.size);
+      copyColumn(batch.nbBathrooms, nbBathrooms, Criterion.NB_BATHROOMS, batch.size);
+      copyColumn(batch.nbMinNight, nbMinNight, Criterion.NB_MIN_NIGHT, batch.size);
+      if (heldFlags != 0) {
+        for (int i = 0; i < batch.size; i++) {
+          flags[size + i] = (byte) (batch.flags[i] & heldFlags);
+        }
+      }
+      size += batch.size;
+      return this;
+    }
+
+    private void copyColumn(Object source, Object dest, Criterion criterion, int length) {
+      if (held[criterion.ordinal()]) {
+        System.arraycopy(source, 0, dest, size, length);
+      }
+    }
+
+    private int columnLength(Criterion criterion) {
+      return held[criterion.ordinal()] ? capacity : 0;
+    }
+
+    private void grow(int newCapacity) {
+      capacity = newCapacity;
+      floorArea = Arrays.copyOf(floorArea, columnLength(Criterion.FLOOR_AREA));
+      floorAreaTerrace =
+          Arrays.copyOf(floorAreaTerrace, columnLength(Criterion.FLOOR_AREA_TERRACE));
+      pricePerNight = Arrays.copyOf(pricePerNight, columnLength(Criterion.PRICE_PER_NIGHT));
+      nbBedrooms = Arrays.copyOf(nbBedrooms, columnLength(Criterion.NB_BEDROOMS));
+      nbSleeping = Arrays.copyOf(nbSleeping, columnLength(Criterion.NB_SLEEPING));
+      nbBathrooms = Arrays.copyOf(nbBathrooms, columnLength(Criterion.NB_BATHROOMS));
+      nbMinNight = Arrays.copyOf(nbMinNight, columnLength(Criterion.NB_MIN_NIGHT));
+      flags = Arrays.copyOf(flags, heldFlags == 0 ? 0 : capacity);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+
+/**
+ * A catalogue of apartments stored by columns, as the scorers read it: the objective values of each
+ * criterion, and one byte of flags per apartment for the boolean attributes, by row. The columns
+ * may be held in memory, as by {@link ApartmentBatch}, or elsewhere.
+ */
+public interface ApartmentColumns {
+
+  /**
+   * Gives the number of apartments in this catalogue
+   *
+   * @return an integer >= 0
+   */
+  int size();
+
+  /**
+   * Tells whether this catalogue holds the column of a criterion
+   *
+   * @param criterion the criterion
+   * @return <code>true</code> if the values of the criterion can be read
+   */
+  boolean holds(Criterion criterion);
+
+  /**
+   * Gives the boolean attributes of an apartment, as {@link Apartment#getFlags()} does. The flags
+   * of the boolean criteria whose columns are not held are never set.
+   *
+   * @param row the index of the apartment
+   * @return the flags of the apartment
+   */
+  byte getFlags(int row);
+
+  /**
+   * Copies the boolean attributes of consecutive apartments into <code>dest</code>, as {@link
+   * #getFlags(int)} would give them one by one.
+   *
+   * @param from the index of the first apartment
+   * @param length the number of apartments
+   * @param dest the array to fill from its first element
+   */
+  void copyFlags(int from, int length, byte[] dest);
+
+  /**
+   * Gives the objective value of a criterion for an apartment. A boolean attribute is given as 1
+   * when true and 0 when false.
+   *
+   * @param criterion the criterion we want to know the objective value, whose column is held
+   * @param row the index of the apartment
+   * @return the objective value
+   */
+  double getValue(Criterion criterion, int row);
+
+  /**
+   * Copies the objective values of a criterion for consecutive apartments into <code>dest</code>,
+   * as {@link #getValue(Criterion, int)} would give them one by one.
+   *
+   * @param criterion the criterion we want to know the objective values, whose column is held
+   * @param from the index of the first apartment
+   * @param length the number of apartments
+   * @param dest the array to fill from its first element
+   */
+  void copyValues(Criterion criterion, int from, int length, double[] dest);
+}
@@ -0,0 +1,125 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The canonical instances of the strings of the apartments of a catalogue, so that the apartments
+ * sharing a title or a description share one string instead of each holding its own copy, as they
+ * do when they are read from a file. The addresses are dictionary-encoded: each one is parsed into
+ * its number, street, ZIP code and city, each distinct component is held once, and the apartments
+ * at one address share one {@link Address} referencing its components, so that the streets and
+ * cities that distinct addresses share are not repeated either. The whole string of an encoded
+ * address is only built when {@link Apartment#getAddress()} is called.
+ *
+ * <p>A pool lives as long as its catalogue and grows with its distinct strings: it is meant to be
+ * given to the readers that load a catalogue held in memory, not to those that stream apartments
+ * through. Unlike {@link String#intern()}, it does not share the strings of other catalogues. A
+ * pool is thread-safe, so that the threads loading the parts of one catalogue can share it, and
+ * finding a string that it already holds takes no lock.
+ */
+public final class ApartmentStringPool {
+
+  private final ConcurrentMap<Address, Address> addresses;
+
+  /** The numbers, streets, ZIP codes and cities of the addresses. */
+  private final ConcurrentMap<String, String> components;
+
+  private final ConcurrentMap<String, String> texts;
+
+  private ApartmentStringPool() {
+    this.addresses = new ConcurrentHashMap<>();
+    this.components = new ConcurrentHashMap<>();
+    this.texts = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates an empty pool
+   *
+   * @return a pool holding no string yet
+   */
+  public static ApartmentStringPool create() {
+    return new ApartmentStringPool();
+  }
+
+  /**
+   * Encodes an address into its canonical components
+   *
+   * @param address the address to encode
+   * @return the instance of the encoded address that the pool holds
+   */
+  Address encodeAddress(String address) {
+    checkNotNull(address);
+    return canonical(addresses, Address.parse(address, c -> canonical(components, c)));
+  }
+
+  /**
+   * Gives the canonical instance of a title or a description
+   *
+   * @param text the text to canonicalize
+   * @return the instance equal to <code>text</code> that the pool holds
+   */
+  public String canonicalText(String text) {
+    return canonical(texts, text);
+  }
+
+  private static <T> T canonical(ConcurrentMap<T, T> instances, T instance) {
+    checkNotNull(instance);
+    /* A lookup, which takes no lock, finds the instances already held, most of those of a catalogue. */
+    T canonical = instances.get(instance);
+    if (canonical != null) {
+      return canonical;
+    }
+    canonical = instances.putIfAbsent(instance, instance);
+    return canonical == null ? instance : canonical;
+  }
+
+  /**
+   * Gives an apartment equal to the one given, whose address is encoded by this pool and whose
+   * strings are the canonical instances
+   *
+   * @param apartment the apartment to canonicalize
+   * @return <code>apartment</code> if it already is canonical, otherwise a copy of it holding the
+   *     canonical address and strings
+   */
+  public Apartment canonicalize(Apartment apartment) {
+    Address address = encodeAddress(apartment.getAddress());
+    String title = canonicalText(apartment.getTitle());
+    String description = canonicalText(apartment.getDescription());
+    if (address == apartment.getEncodedAddress()
+        && title == apartment.getTitle()
+        && description == apartment.getDescription()) {
+      return apartment;
+    }
+    return apartment.withStrings(address, title, description);
+  }
+
+  /**
+   * Gives the number of distinct addresses of the pool
+   *
+   * @return the number of addresses held
+   */
+  public int getAddressCount() {
+    return addresses.size();
+  }
+
+  /**
+   * Gives the number of distinct components of the addresses of the pool, each held once
+   *
+   * @return the number of distinct numbers, streets, ZIP codes and cities
+   */
+  public int getComponentCount() {
+    return components.size();
+  }
+
+  /**
+   * Gives the number of distinct titles and descriptions of the pool
+   *
+   * @return the number of texts held
+   */
+  public int getTextCount() {
+    return texts.size();
+  }
+}
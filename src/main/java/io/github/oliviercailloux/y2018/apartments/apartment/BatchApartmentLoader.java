@@ -0,0 +1,120 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the apartments of a bulk import record by record, such as the lines of a file, keeping
+ * the valid ones and setting the others aside in a quarantine with the reasons of their rejection,
+ * so that a few bad records do not stop the import. The records are best given through {@link
+ * Apartment#bulkBuilder()}, which does not log and tells all the problems of a record at once.
+ *
+ * <p>A loader is not thread-safe.
+ */
+public final class BatchApartmentLoader {
+
+  private final List<Apartment> accepted;
+
+  private final ImmutableListMultimap.Builder<String, String> quarantine;
+
+  private int rejectedCount;
+
+  private BatchApartmentLoader() {
+    this.accepted = new ArrayList<>();
+    this.quarantine = ImmutableListMultimap.builder();
+    this.rejectedCount = 0;
+  }
+
+  /**
+   * Creates an empty loader
+   *
+   * @return a loader that has accepted and rejected no record yet
+   */
+  public static BatchApartmentLoader create() {
+    return new BatchApartmentLoader();
+  }
+
+  /**
+   * Validates a record, then accepts it or puts it in quarantine
+   *
+   * @param record the name of the record, telling where it comes from, such as its line number
+   * @param builder the builder the record was given to
+   * @return <code>true</code> if the apartment was accepted
+   */
+  public boolean add(String record, Apartment.Builder builder) {
+    checkNotNull(record);
+    ImmutableList<String> problems = builder.validate();
+    if (!problems.isEmpty()) {
+      quarantine.putAll(record, problems);
+      rejectedCount++;
+      return false;
+    }
+    accepted.add(builder.build());
+    return true;
+  }
+
+  /**
+   * Puts in quarantine a record that could not even be given to a builder, such as a malformed line
+   *
+   * @param record the name of the record, telling where it comes from, such as its line number
+   * @param reason why the record is rejected
+   */
+  public void reject(String record, String reason) {
+    checkNotNull(record);
+    checkArgument(!reason.isEmpty(), "A reason is needed");
+    quarantine.put(record, reason);
+    rejectedCount++;
+  }
+
+  /**
+   * Gives the apartments accepted so far
+   *
+   * @return the apartments, in the order of their records
+   */
+  public ImmutableList<Apartment> getApartments() {
+    return ImmutableList.copyOf(accepted);
+  }
+
+  public int getAcceptedCount() {
+    return accepted.size();
+  }
+
+  public int getRejectedCount() {
+    return rejectedCount;
+  }
+
+  /**
+   * Gives the records rejected so far
+   *
+   * @return the reasons of the rejection of each record, in the order of the records
+   */
+  public ImmutableListMultimap<String, String> getQuarantine() {
+    return quarantine.build();
+  }
+
+  /**
+   * Reports the import so far, for an operator
+   *
+   * @return the counts of accepted and rejected records, then one line per rejected record with the
+   *     reasons of its rejection
+   */
+  public String getReport() {
+    StringBuilder report =
+        new StringBuilder()
+            .append(getAcceptedCount())
+            .append(" records accepted, ")
+            .append(rejectedCount)
+            .append(" rejected");
+    getQuarantine()
+        .asMap()
+        .forEach(
+            (record, reasons) ->
+                report.append('\n').append(record).append(": ").append(String.join("; ", reasons)));
+    return report.toString();
+  }
+}
@@ -0,0 +1,285 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.binary;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a binary file of apartments, as described by {@link BinaryFormat}, either entirely or one
+ * row at a time. The index of the file is read when the reader is created; the dictionary is then
+ * read the first time a string is needed, and kept.
+ *
+ * <p>A file that is not in this format makes the reading throw an {@link IllegalArgumentException}.
+ * A reader must not be used by several threads at once.
+ */
+public class ApartmentBinaryReader implements Closeable {
+
+  private final FileChannel channel;
+
+  private final int rowCount;
+
+  private final int stringCount;
+
+  /** The offset of the dictionary from the start of the file. */
+  private final long dictionaryOffset;
+
+  /** The length of the dictionary in the file, compressed. */
+  private final int compressedLength;
+
+  /** The length of the dictionary once decompressed. */
+  private final int dictionaryLength;
+
+  /** The strings of the dictionary, <code>null</code> until a string is needed. */
+  private String[] strings;
+
+  private ApartmentBinaryReader(FileChannel channel) throws IOException {
+    this.channel = channel;
+    long fileSize = channel.size();
+    checkArgument(
+        fileSize
+            >= BinaryFormat.HEADER_BYTES + BinaryFormat.TRAILER_BYTES + BinaryFormat.FOOTER_BYTES,
+        "Not a binary file of apartments");
+    ByteBuffer header = read(0, BinaryFormat.HEADER_BYTES);
+    checkArgument(header.getInt() == BinaryFormat.MAGIC, "Not a binary file of apartments");
+    short version = header.getShort();
+    checkArgument(version == BinaryFormat.VERSION, "Unsupported version %s", version);
+    ByteBuffer footer = read(fileSize - BinaryFormat.FOOTER_BYTES, BinaryFormat.FOOTER_BYTES);
+    long trailerOffset = footer.getLong();
+    checkArgument(footer.getInt() == BinaryFormat.MAGIC, "Truncated binary file of apartments");
+    checkArgument(
+        trailerOffset == fileSize - BinaryFormat.FOOTER_BYTES - BinaryFormat.TRAILER_BYTES,
+        "Corrupted index of the binary file of apartments");
+    ByteBuffer trailer = read(trailerOffset, BinaryFormat.TRAILER_BYTES);
+    this.rowCount = trailer.getInt();
+    this.stringCount = trailer.getInt();
+    this.dictionaryLength = trailer.getInt();
+    this.dictionaryOffset = rowOffset(rowCount);
+    checkArgument(
+        rowCount >= 0
+            && stringCount >= 0
+            && dictionaryLength >= 0
+            && dictionaryOffset <= trailerOffset
+            && trailerOffset - dictionaryOffset <= Integer.MAX_VALUE,
+        "Corrupted index of the binary file of apartments");
+    this.compressedLength = (int) (trailerOffset - dictionaryOffset);
+    this.strings = null;
+  }
+
+  /**
+   * Opens a binary file of apartments and reads its index
+   *
+   * @param path the file to read, closed when this reader is closed
+   * @return a reader of the file
+   * @throws IOException if the file cannot be read
+   */
+  public static ApartmentBinaryReader of(Path path) throws IOException {
+    checkNotNull(path);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new ApartmentBinaryReader(channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Gives the number of apartments of the file
+   *
+   * @return an integer >= 0
+   */
+  public int size() {
+    return rowCount;
+  }
+
+  /**
+   * Reads the apartment of one row, without reading the other rows
+   *
+   * @param row the index of the apartment in the file
+   * @return the apartment of the row
+   * @throws IOException if the file cannot be read
+   */
+  public Apartment get(int row) throws IOException {
+    checkElementIndex(row, rowCount);
+    return readRow(read(rowOffset(row), BinaryFormat.ROW_BYTES), null);
+  }
+
+  /**
+   * Reads all the apartments of the file, with the rows and the dictionary read at once
+   *
+   * @return the apartments, in the order of the file
+   * @throws IOException if the file cannot be read
+   */
+  public ImmutableList<Apartment> readAll() throws IOException {
+    if (rowCount == 0) {
+      return ImmutableList.of();
+    }
+    ByteBuffer buffer =
+        read(BinaryFormat.HEADER_BYTES, Math.multiplyExact(rowCount, BinaryFormat.ROW_BYTES));
+    ImmutableList.Builder<Apartment> apartments = ImmutableList.builderWithExpectedSize(rowCount);
+    for (int row = 0; row < rowCount; row++) {
+      apartments.add(readRow(buffer, null));
+    }
+    return apartments.build();
+  }
+
+  /**
+   * Reads the objective values of all the apartments of the file, without reading their strings
+   *
+   * @return the batch of the apartments, in the order of the file
+   * @throws IOException if the file cannot be read
+   */
+  public ApartmentBatch readBatch() throws IOException {
+    ApartmentBatch.Builder builder = new ApartmentBatch.Builder(rowCount);
+    if (rowCount == 0) {
+      return builder.build();
+    }
+    ByteBuffer buffer =
+        read(BinaryFormat.HEADER_BYTES, Math.multiplyExact(rowCount, BinaryFormat.ROW_BYTES));
+    double[] values = new double[Criterion.values().length];
+    for (int row = 0; row < rowCount; row++) {
+      readRow(buffer, values);
+      builder.addRow(values);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads a row at the position of a buffer, and moves the position to the next row
+   *
+   * @param buffer the buffer holding the row
+   * @param values <code>null</code> to read the apartment, or an array to fill with the objective
+   *     values of its criteria, by ordinal, without reading its strings
+   * @return the apartment, or <code>null</code> if the values have been read
+   */
+  private Apartment readRow(ByteBuffer buffer, double[] values) throws IOException {
+    double floorArea = buffer.getDouble();
+    double floorAreaTerrace = buffer.getDouble();
+    double pricePerNight = buffer.getDouble();
+    int nbBedrooms = buffer.getInt();
+    int nbSleeping = buffer.getInt();
+    int nbBathrooms = buffer.getInt();
+    int nbMinNight = buffer.getInt();
+    byte flags = buffer.get();
+    int address = buffer.getInt();
+    int title = buffer.getInt();
+    int description = buffer.getInt();
+    if (values != null) {
+      values[Criterion.TELE.ordinal()] = (flags & Apartment.TELE_FLAG) != 0 ? 1d : 0d;
+      values[Criterion.TERRACE.ordinal()] = (flags & Apartment.TERRACE_FLAG) != 0 ? 1d : 0d;
+      values[Criterion.WIFI.ordinal()] = (flags & Apartment.WIFI_FLAG) != 0 ? 1d : 0d;
+      values[Criterion.FLOOR_AREA.ordinal()] = floorArea;
+      values[Criterion.FLOOR_AREA_TERRACE.ordinal()] = floorAreaTerrace;
+      values[Criterion.NB_BATHROOMS.ordinal()] = nbBathrooms;
+      values[Criterion.NB_BEDROOMS.ordinal()] = nbBedrooms;
+      values[Criterion.NB_SLEEPING.ordinal()] = nbSleeping;
+      values[Criterion.NB_MIN_NIGHT.ordinal()] = nbMinNight;
+      values[Criterion.PRICE_PER_NIGHT.ordinal()] = pricePerNight;
+      return null;
+    }
+    Apartment.Builder builder = Apartment.bulkBuilder();
+    /* An apartment built without a floor area has 0, which the setter rejects but build accepts. */
+    if (floorArea != 0d) {
+      builder.setFloorArea(floorArea);
+    }
+    try {
+      return builder
+          .setFloorAreaTerrace(floorAreaTerrace)
+          .setPricePerNight(pricePerNight)
+          .setNbBedrooms(nbBedrooms)
+          .setNbSleeping(nbSleeping)
+          .setNbBathrooms(nbBathrooms)
+          .setNbMinNight(nbMinNight)
+          .setTele((flags & Apartment.TELE_FLAG) != 0)
+          .setTerrace((flags & Apartment.TERRACE_FLAG) != 0)
+          .setWifi((flags & Apartment.WIFI_FLAG) != 0)
+          .setAddress(getString(address))
+          .setTitle(getString(title))
+          .setDescription(getString(description))
+          .build();
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid apartment in the binary file", e);
+    }
+  }
+
+  private String getString(int index) throws IOException {
+    if (strings == null) {
+      strings = readDictionary();
+    }
+    checkArgument(index >= 0 && index < stringCount, "Corrupted string index in the binary file");
+    return strings[index];
+  }
+
+  private String[] readDictionary() throws IOException {
+    ByteBuffer dictionary = ByteBuffer.allocate(dictionaryLength);
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(read(dictionaryOffset, compressedLength).array());
+      while (dictionary.hasRemaining() && !inflater.finished()) {
+        int inflated =
+            inflater.inflate(dictionary.array(), dictionary.position(), dictionary.remaining());
+        checkArgument(
+            inflated > 0 || !inflater.needsInput(), "Truncated dictionary in the binary file");
+        dictionary.position(dictionary.position() + inflated);
+      }
+      checkArgument(
+          !dictionary.hasRemaining() && inflater.finished(),
+          "Corrupted dictionary in the binary file");
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupted dictionary in the binary file", e);
+    } finally {
+      inflater.end();
+    }
+    dictionary.flip();
+    String[] decoded = new String[stringCount];
+    for (int i = 0; i < stringCount; i++) {
+      checkArgument(dictionary.remaining() >= Integer.BYTES, "Truncated dictionary");
+      int length = dictionary.getInt();
+      checkArgument(
+          length >= 0 && length <= dictionary.remaining(), "Corrupted string in the binary file");
+      decoded[i] =
+          new String(dictionary.array(), dictionary.position(), length, StandardCharsets.UTF_8);
+      dictionary.position(dictionary.position() + length);
+    }
+    return decoded;
+  }
+
+  private static long rowOffset(int row) {
+    return BinaryFormat.HEADER_BYTES + (long) row * BinaryFormat.ROW_BYTES;
+  }
+
+  /**
+   * Reads some bytes of the file
+   *
+   * @return a buffer holding the bytes read, positioned at its start
+   */
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Truncated binary file of apartments");
+      }
+    }
+    return buffer.flip();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,166 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.binary;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes apartments in the binary format described by {@link BinaryFormat}, one after the other.
+ * The rows are written as they come, while the strings are kept in memory, each one once, until the
+ * writer is closed, which writes the dictionary and the index of the file, then closes the output.
+ *
+ * <p>Once a write has failed, or the writing has been {@link #abort() aborted}, closing the writer
+ * only closes the output: the file then misses its index, hence is rejected by {@link
+ * ApartmentBinaryReader}, rather than looking complete with some rows missing.
+ */
+public class ApartmentBinaryWriter implements Closeable {
+
+  private final DataOutputStream output;
+
+  /** The index of each string of the dictionary. */
+  private final Map<String, Integer> indices;
+
+  private final List<String> strings;
+
+  private int rowCount;
+
+  private boolean closed;
+
+  /** Whether the rows written may be incomplete, in which case the file must not be completed. */
+  private boolean failed;
+
+  private ApartmentBinaryWriter(OutputStream output) throws IOException {
+    this.output = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+    this.indices = new HashMap<>();
+    this.strings = new ArrayList<>();
+    this.rowCount = 0;
+    this.closed = false;
+    this.failed = false;
+    this.output.writeInt(BinaryFormat.MAGIC);
+    this.output.writeShort(BinaryFormat.VERSION);
+  }
+
+  /**
+   * Creates a writer of apartments to an output stream
+   *
+   * @param output the stream to write, buffered by the writer, closed when the writer is closed
+   * @return a writer that has written the header of the file
+   * @throws IOException if the output cannot be written
+   */
+  public static ApartmentBinaryWriter of(OutputStream output) throws IOException {
+    checkNotNull(output);
+    return new ApartmentBinaryWriter(output);
+  }
+
+  /**
+   * Appends an apartment as the last row of the file
+   *
+   * @param apartment the apartment to write
+   * @return the current instance of ApartmentBinaryWriter
+   * @throws IOException if the output cannot be written
+   */
+  public ApartmentBinaryWriter write(Apartment apartment) throws IOException {
+    checkNotNull(apartment);
+    checkState(!closed, "The writer is closed");
+    checkState(!failed, "A previous write failed");
+    failed = true;
+    output.writeDouble(apartment.getFloorArea());
+    output.writeDouble(apartment.getFloorAreaTerrace());
+    output.writeDouble(apartment.getPricePerNight());
+    output.writeInt(apartment.getNbBedrooms());
+    output.writeInt(apartment.getNbSleeping());
+    output.writeInt(apartment.getNbBathrooms());
+    output.writeInt(apartment.getNbMinNight());
+    output.writeByte(apartment.getFlags());
+    output.writeInt(indexOf(apartment.getAddress()));
+    output.writeInt(indexOf(apartment.getTitle()));
+    output.writeInt(indexOf(apartment.getDescription()));
+    rowCount++;
+    failed = false;
+    return this;
+  }
+
+  /**
+   * Appends apartments, in the order of iteration. If the iteration fails, the writing is aborted.
+   *
+   * @param apartments the apartments to write, iterated once
+   * @return the current instance of ApartmentBinaryWriter
+   * @throws IOException if the output cannot be written
+   */
+  public ApartmentBinaryWriter writeAll(Iterable<Apartment> apartments) throws IOException {
+    try {
+      for (Apartment apartment : apartments) {
+        write(apartment);
+      }
+    } catch (RuntimeException e) {
+      failed = true;
+      throw e;
+    }
+    return this;
+  }
+
+  /**
+   * Abandons the writing, when the apartments to write cannot all be obtained: closing the writer
+   * will then leave the file without index, so that it cannot be read.
+   */
+  public void abort() {
+    failed = true;
+  }
+
+  private int indexOf(String string) {
+    return indices.computeIfAbsent(
+        string,
+        s -> {
+          strings.add(s);
+          return strings.size() - 1;
+        });
+  }
+
+  /**
+   * Writes the dictionary and the index of the file, then closes the output. If a write failed or
+   * the writing was aborted, only closes the output.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (DataOutputStream closing = output) {
+      if (failed) {
+        return;
+      }
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      int length = 0;
+      try (DataOutputStream dictionary =
+          new DataOutputStream(new DeflaterOutputStream(compressed))) {
+        for (String string : strings) {
+          byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+          dictionary.writeInt(encoded.length);
+          dictionary.write(encoded);
+          length = Math.addExact(length, Integer.BYTES + encoded.length);
+        }
+      }
+      compressed.writeTo(output);
+      output.writeInt(rowCount);
+      output.writeInt(strings.size());
+      output.writeInt(length);
+      output.writeLong(
+          BinaryFormat.HEADER_BYTES + (long) rowCount * BinaryFormat.ROW_BYTES + compressed.size());
+      output.writeInt(BinaryFormat.MAGIC);
+    }
+  }
+}
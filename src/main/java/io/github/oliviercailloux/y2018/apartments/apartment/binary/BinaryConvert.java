@@ -0,0 +1,101 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.binary;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.ApartmentJsonReader;
+import io.github.oliviercailloux.y2018.apartments.utils.AtomicFiles;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The Class BinaryConvert transforms Apartment objects to binary files and vice-versa, in the
+ * format described by {@link BinaryFormat}: several times smaller and faster to read than JSON.
+ */
+public abstract class BinaryConvert {
+
+  private BinaryConvert() {}
+
+  /**
+   * Writes Apartments to a binary file. The file is first written next to <code>binaryPath</code>,
+   * then moved to it atomically when the file system supports it, as {@link
+   * io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert} does: if the writing
+   * fails, <code>binaryPath</code> keeps its previous content.
+   *
+   * @param apartments the Apartments to write, iterated once
+   * @param binaryPath {@link Path} the file to write, replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public static void apartmentsToBinary(Iterable<Apartment> apartments, Path binaryPath)
+      throws IOException {
+    checkNotNull(apartments);
+    Path temporary = AtomicFiles.createTemporaryFile(binaryPath);
+    try {
+      try (OutputStream output = Files.newOutputStream(temporary);
+          ApartmentBinaryWriter writer = ApartmentBinaryWriter.of(output)) {
+        writer.writeAll(apartments);
+      }
+      AtomicFiles.moveAtomically(temporary, binaryPath);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Reads the Apartments of a binary file.
+   *
+   * @param binaryPath {@link Path} the file to read
+   * @return the Apartments read, in the order of the file
+   * @throws IOException if the file doesn't exists
+   */
+  public static List<Apartment> binaryToApartments(Path binaryPath) throws IOException {
+    try (ApartmentBinaryReader reader = ApartmentBinaryReader.of(binaryPath)) {
+      return reader.readAll();
+    }
+  }
+
+  /**
+   * Reads the Apartments of a binary file as a batch stored by columns, without reading their
+   * strings.
+   *
+   * @param binaryPath {@link Path} the file to read
+   * @return the batch of the Apartments read, in the order of the file
+   * @throws IOException if the file doesn't exists
+   */
+  public static ApartmentBatch binaryToApartmentBatch(Path binaryPath) throws IOException {
+    try (ApartmentBinaryReader reader = ApartmentBinaryReader.of(binaryPath)) {
+      return reader.readBatch();
+    }
+  }
+
+  /**
+   * Converts a JSON file of Apartments to a binary file, one Apartment at a time. As {@link
+   * #apartmentsToBinary(Iterable, Path)} does, the binary file is replaced atomically, once all the
+   * Apartments have been read.
+   *
+   * @param jsonPath {@link Path} the JSON file to convert, as written by {@link
+   *     io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert}
+   * @param binaryPath {@link Path} the binary file to write, replaced if it exists
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void jsonToBinary(Path jsonPath, Path binaryPath) throws IOException {
+    Path temporary = AtomicFiles.createTemporaryFile(binaryPath);
+    try {
+      try (ApartmentJsonReader reader = ApartmentJsonReader.of(Files.newInputStream(jsonPath));
+          OutputStream output = Files.newOutputStream(temporary);
+          ApartmentBinaryWriter writer = ApartmentBinaryWriter.of(output)) {
+        writer.writeAll(() -> reader);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      AtomicFiles.moveAtomically(temporary, binaryPath);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
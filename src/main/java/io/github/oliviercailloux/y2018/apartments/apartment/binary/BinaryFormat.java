@@ -0,0 +1,38 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.binary;
+
+/**
+ * The layout of a binary file of apartments, version 1. All the numbers are big-endian.
+ *
+ * <ul>
+ *   <li>The header: the magic number, then the version, as a short.
+ *   <li>The rows, one per apartment, each of {@link #ROW_BYTES} bytes: the floor area, the floor
+ *       area of the terrace and the price per night as doubles; the numbers of bedrooms, of
+ *       sleeping places, of bathrooms and of minimum nights as ints; the flags of the tele, the
+ *       terrace and the wifi as a byte, as {@link
+ *       io.github.oliviercailloux.y2018.apartments.apartment.Apartment#getFlags()} gives them; then
+ *       the indices in the dictionary of the address, the title and the description, as ints.
+ *   <li>The dictionary: each distinct string once, in the order of their first use, as the length
+ *       of its UTF-8 encoding, an int, followed by that encoding, the whole compressed with deflate
+ *       in the zlib format.
+ *   <li>The trailer: the number of rows, the number of strings, and the length of the dictionary
+ *       once decompressed, as ints.
+ *   <li>The footer: the offset of the trailer, as a long, then the magic number again.
+ * </ul>
+ */
+final class BinaryFormat {
+
+  /** The bytes <code>APTB</code>. */
+  static final int MAGIC = 0x41505442;
+
+  static final short VERSION = 1;
+
+  static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+
+  static final int ROW_BYTES = 3 * Double.BYTES + 4 * Integer.BYTES + 1 + 3 * Integer.BYTES;
+
+  static final int TRAILER_BYTES = 3 * Integer.BYTES;
+
+  static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+
+  private BinaryFormat() {}
+}
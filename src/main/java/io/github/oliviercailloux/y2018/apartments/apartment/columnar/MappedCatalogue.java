@@ -0,0 +1,410 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.columnar;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static io.github.oliviercailloux.y2018.apartments.apartment.Apartment.TELE_FLAG;
+import static io.github.oliviercailloux.y2018.apartments.apartment.Apartment.TERRACE_FLAG;
+import static io.github.oliviercailloux.y2018.apartments.apartment.Apartment.WIFI_FLAG;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.LittleEndianDataOutputStream;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A catalogue of apartments stored by columns on disk, one file per attribute, and read through
+ * memory mappings: opening it reads no value, and scoring it reads the columns of the weighted
+ * criteria directly from the mapped files, without creating any apartment. Catalogues larger than
+ * the heap can thus be scored, each column being limited to 2 GiB. The apartments themselves are
+ * only created on demand, typically for the best rows of a ranking, from a heap of strings.
+ *
+ * <p>A catalogue is a directory holding, in little-endian order:
+ *
+ * <ul>
+ *   <li><code>floorArea</code>, <code>floorAreaTerrace</code> and <code>pricePerNight</code>, one
+ *       double per apartment;
+ *   <li><code>nbBedrooms</code>, <code>nbSleeping</code>, <code>nbBathrooms</code> and <code>
+ *       nbMinNight</code>, one int per apartment;
+ *   <li><code>flags</code>, one byte per apartment, as {@link Apartment#getFlags()} gives them;
+ *   <li><code>strings</code>, the address, title and description of each apartment in turn, encoded
+ *       in UTF-8, and <code>stringOffsets</code>, the offset of each of these strings in <code>
+ *       strings</code> then the length of <code>strings</code>, as longs;
+ *   <li><code>header</code>, written last, holding the magic number, the version and the number of
+ *       apartments, in big-endian order.
+ * </ul>
+ *
+ * <p>The files must not change while the catalogue is used. Instances are immutable and can be used
+ * by several threads at once.
+ */
+public final class MappedCatalogue implements ApartmentColumns {
+
+  /** The bytes <code>APTC</code>. */
+  private static final int MAGIC = 0x41505443;
+
+  private static final short VERSION = 1;
+
+  private static final String HEADER = "header";
+
+  private static final String FLAGS = "flags";
+
+  private static final String STRINGS = "strings";
+
+  private static final String STRING_OFFSETS = "stringOffsets";
+
+  /** The number of strings of each apartment: its address, its title and its description. */
+  private static final int STRINGS_PER_ROW = 3;
+
+  private final int size;
+  private final DoubleBuffer floorArea;
+  private final DoubleBuffer floorAreaTerrace;
+  private final DoubleBuffer pricePerNight;
+  private final IntBuffer nbBedrooms;
+  private final IntBuffer nbSleeping;
+  private final IntBuffer nbBathrooms;
+  private final IntBuffer nbMinNight;
+  private final ByteBuffer flags;
+  private final ByteBuffer strings;
+  private final LongBuffer stringOffsets;
+
+  private MappedCatalogue(Path directory, int size) throws IOException {
+    this.size = size;
+    this.floorArea = map(directory, Criterion.FLOOR_AREA, Double.BYTES).asDoubleBuffer();
+    this.floorAreaTerrace =
+        map(directory, Criterion.FLOOR_AREA_TERRACE, Double.BYTES).asDoubleBuffer();
+    this.pricePerNight = map(directory, Criterion.PRICE_PER_NIGHT, Double.BYTES).asDoubleBuffer();
+    this.nbBedrooms = map(directory, Criterion.NB_BEDROOMS, Integer.BYTES).asIntBuffer();
+    this.nbSleeping = map(directory, Criterion.NB_SLEEPING, Integer.BYTES).asIntBuffer();
+    this.nbBathrooms = map(directory, Criterion.NB_BATHROOMS, Integer.BYTES).asIntBuffer();
+    this.nbMinNight = map(directory, Criterion.NB_MIN_NIGHT, Integer.BYTES).asIntBuffer();
+    this.flags = map(directory.resolve(FLAGS), size);
+    this.stringOffsets =
+        map(directory.resolve(STRING_OFFSETS), ((long) STRINGS_PER_ROW * size + 1) * Long.BYTES)
+            .asLongBuffer();
+    this.strings = map(directory.resolve(STRINGS), stringOffsets.get(STRINGS_PER_ROW * size));
+  }
+
+  /**
+   * Writes apartments as a catalogue stored by columns, replacing the catalogue that the directory
+   * may hold. The header is written last, once the other files have been forced to the storage
+   * device, so that a catalogue whose writing failed, even by a crash of the system, cannot be
+   * opened.
+   *
+   * @param apartments the apartments to write, iterated once
+   * @param directory the directory of the catalogue, created if it does not exist
+   * @throws IOException if the files cannot be written
+   */
+  public static void write(Iterable<Apartment> apartments, Path directory) throws IOException {
+    checkNotNull(apartments);
+    Files.createDirectories(directory);
+    Files.deleteIfExists(directory.resolve(HEADER));
+    int size = 0;
+    long stringsLength = 0;
+    try (LittleEndianDataOutputStream floorArea = create(directory, Criterion.FLOOR_AREA);
+        LittleEndianDataOutputStream floorAreaTerrace =
+            create(directory, Criterion.FLOOR_AREA_TERRACE);
+        LittleEndianDataOutputStream pricePerNight = create(directory, Criterion.PRICE_PER_NIGHT);
+        LittleEndianDataOutputStream nbBedrooms = create(directory, Criterion.NB_BEDROOMS);
+        LittleEndianDataOutputStream nbSleeping = create(directory, Criterion.NB_SLEEPING);
+        LittleEndianDataOutputStream nbBathrooms = create(directory, Criterion.NB_BATHROOMS);
+        LittleEndianDataOutputStream nbMinNight = create(directory, Criterion.NB_MIN_NIGHT);
+        LittleEndianDataOutputStream flags = create(directory.resolve(FLAGS));
+        LittleEndianDataOutputStream strings = create(directory.resolve(STRINGS));
+        LittleEndianDataOutputStream stringOffsets = create(directory.resolve(STRING_OFFSETS))) {
+      for (Apartment apartment : apartments) {
+        floorArea.writeDouble(apartment.getFloorArea());
+        floorAreaTerrace.writeDouble(apartment.getFloorAreaTerrace());
+        pricePerNight.writeDouble(apartment.getPricePerNight());
+        nbBedrooms.writeInt(apartment.getNbBedrooms());
+        nbSleeping.writeInt(apartment.getNbSleeping());
+        nbBathrooms.writeInt(apartment.getNbBathrooms());
+        nbMinNight.writeInt(apartment.getNbMinNight());
+        flags.writeByte(apartment.getFlags());
+        for (String string :
+            new String[] {
+              apartment.getAddress(), apartment.getTitle(), apartment.getDescription()
+            }) {
+          byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+          stringOffsets.writeLong(stringsLength);
+          strings.write(encoded);
+          stringsLength += encoded.length;
+        }
+        size = Math.addExact(size, 1);
+      }
+      stringOffsets.writeLong(stringsLength);
+    }
+    /* The header must not reach the disk before the columns it describes. */
+    for (Criterion criterion : Criterion.values()) {
+      if (criterion.hasDoubleDomain()) {
+        force(directory.resolve(getFileName(criterion)));
+      }
+    }
+    for (String file : new String[] {FLAGS, STRINGS, STRING_OFFSETS}) {
+      force(directory.resolve(file));
+    }
+    try (DataOutputStream header =
+        new DataOutputStream(Files.newOutputStream(directory.resolve(HEADER)))) {
+      header.writeInt(MAGIC);
+      header.writeShort(VERSION);
+      header.writeInt(size);
+    }
+    force(directory.resolve(HEADER));
+  }
+
+  /**
+   * Opens a catalogue stored by columns by mapping its files in memory, without reading them
+   *
+   * @param directory the directory of the catalogue
+   * @return the catalogue
+   * @throws IOException if the files cannot be mapped
+   */
+  public static MappedCatalogue open(Path directory) throws IOException {
+    int size;
+    try (DataInputStream header =
+        new DataInputStream(Files.newInputStream(directory.resolve(HEADER)))) {
+      checkArgument(header.readInt() == MAGIC, "Not a catalogue stored by columns");
+      short version = header.readShort();
+      checkArgument(version == VERSION, "Unsupported version %s", version);
+      size = header.readInt();
+      checkArgument(size >= 0, "Corrupted header of the catalogue");
+    }
+    return new MappedCatalogue(directory, size);
+  }
+
+  /** Writes the content of a file to the storage device, as well as its metadata. */
+  private static void force(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+  }
+
+  private static LittleEndianDataOutputStream create(Path directory, Criterion criterion)
+      throws IOException {
+    return create(directory.resolve(getFileName(criterion)));
+  }
+
+  private static LittleEndianDataOutputStream create(Path path) throws IOException {
+    OutputStream output = Files.newOutputStream(path);
+    return new LittleEndianDataOutputStream(new BufferedOutputStream(output, 1 << 16));
+  }
+
+  private ByteBuffer map(Path directory, Criterion criterion, int bytes) throws IOException {
+    return map(directory.resolve(getFileName(criterion)), (long) size * bytes);
+  }
+
+  /**
+   * Maps a file of the catalogue in memory
+   *
+   * @param path the file to map
+   * @param length the expected length of the file
+   * @return the whole file, in little-endian order
+   */
+  private static ByteBuffer map(Path path, long length) throws IOException {
+    checkArgument(length <= Integer.MAX_VALUE, "The file %s is too large to be mapped", path);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      checkArgument(channel.size() == length, "The file %s does not match the header", path);
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  private static String getFileName(Criterion criterion) {
+    switch (criterion) {
+      case FLOOR_AREA:
+        return "floorArea";
+      case FLOOR_AREA_TERRACE:
+        return "floorAreaTerrace";
+      case PRICE_PER_NIGHT:
+        return "pricePerNight";
+      case NB_BEDROOMS:
+        return "nbBedrooms";
+      case NB_SLEEPING:
+        return "nbSleeping";
+      case NB_BATHROOMS:
+        return "nbBathrooms";
+      case NB_MIN_NIGHT:
+        return "nbMinNight";
+      default:
+        throw new IllegalArgumentException("No file for the criterion " + criterion);
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** A catalogue stored by columns holds the columns of all the criteria. */
+  @Override
+  public boolean holds(Criterion criterion) {
+    checkNotNull(criterion);
+    return true;
+  }
+
+  @Override
+  public byte getFlags(int row) {
+    return flags.get(row);
+  }
+
+  @Override
+  public void copyFlags(int from, int length, byte[] dest) {
+    checkPositionIndexes(from, from + length, size);
+    checkArgument(dest.length >= length, "The destination is too small");
+    flags.duplicate().position(from).get(dest, 0, length);
+  }
+
+  @Override
+  public double getValue(Criterion criterion, int row) {
+    switch (criterion) {
+      case TELE:
+        return (flags.get(row) & TELE_FLAG) == 0 ? 0d : 1d;
+      case TERRACE:
+        return (flags.get(row) & TERRACE_FLAG) == 0 ? 0d : 1d;
+      case WIFI:
+        return (flags.get(row) & WIFI_FLAG) == 0 ? 0d : 1d;
+      case FLOOR_AREA:
+        return floorArea.get(row);
+      case FLOOR_AREA_TERRACE:
+        return floorAreaTerrace.get(row);
+      case NB_BATHROOMS:
+        return nbBathrooms.get(row);
+      case NB_BEDROOMS:
+        return nbBedrooms.get(row);
+      case NB_SLEEPING:
+        return nbSleeping.get(row);
+      case NB_MIN_NIGHT:
+        return nbMinNight.get(row);
+      case PRICE_PER_NIGHT:
+        return pricePerNight.get(row);
+      default:
+        throw new IllegalArgumentException("Unknown criterion " + criterion);
+    }
+  }
+
+  @Override
+  public void copyValues(Criterion criterion, int from, int length, double[] dest) {
+    checkPositionIndexes(from, from + length, size);
+    checkArgument(dest.length >= length, "The destination is too small");
+    switch (criterion) {
+      case TELE:
+        copyFlag(TELE_FLAG, from, length, dest);
+        break;
+      case TERRACE:
+        copyFlag(TERRACE_FLAG, from, length, dest);
+        break;
+      case WIFI:
+        copyFlag(WIFI_FLAG, from, length, dest);
+        break;
+      case FLOOR_AREA:
+        floorArea.duplicate().position(from).get(dest, 0, length);
+        break;
+      case FLOOR_AREA_TERRACE:
+        floorAreaTerrace.duplicate().position(from).get(dest, 0, length);
+        break;
+      case PRICE_PER_NIGHT:
+        pricePerNight.duplicate().position(from).get(dest, 0, length);
+        break;
+      case NB_BATHROOMS:
+        copyInts(nbBathrooms, from, length, dest);
+        break;
+      case NB_BEDROOMS:
+        copyInts(nbBedrooms, from, length, dest);
+        break;
+      case NB_SLEEPING:
+        copyInts(nbSleeping, from, length, dest);
+        break;
+      case NB_MIN_NIGHT:
+        copyInts(nbMinNight, from, length, dest);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown criterion " + criterion);
+    }
+  }
+
+  private void copyFlag(byte flag, int from, int length, double[] dest) {
+    for (int i = 0; i < length; i++) {
+      dest[i] = (flags.get(from + i) & flag) == 0 ? 0d : 1d;
+    }
+  }
+
+  private static void copyInts(IntBuffer column, int from, int length, double[] dest) {
+    for (int i = 0; i < length; i++) {
+      dest[i] = column.get(from + i);
+    }
+  }
+
+  /**
+   * Creates the apartment of a row, reading its strings
+   *
+   * @param row the index of the apartment
+   * @return the apartment, as it was written
+   */
+  public Apartment getApartment(int row) {
+    checkElementIndex(row, size);
+    Apartment.Builder builder = Apartment.bulkBuilder();
+    /* An apartment built without a floor area has 0, which the setter rejects but build accepts. */
+    if (floorArea.get(row) != 0d) {
+      builder.setFloorArea(floorArea.get(row));
+    }
+    try {
+      return builder
+          .setFloorAreaTerrace(floorAreaTerrace.get(row))
+          .setPricePerNight(pricePerNight.get(row))
+          .setNbBedrooms(nbBedrooms.get(row))
+          .setNbSleeping(nbSleeping.get(row))
+          .setNbBathrooms(nbBathrooms.get(row))
+          .setNbMinNight(nbMinNight.get(row))
+          .setTele((flags.get(row) & TELE_FLAG) != 0)
+          .setTerrace((flags.get(row) & TERRACE_FLAG) != 0)
+          .setWifi((flags.get(row) & WIFI_FLAG) != 0)
+          .setAddress(getString(STRINGS_PER_ROW * row))
+          .setTitle(getString(STRINGS_PER_ROW * row + 1))
+          .setDescription(getString(STRINGS_PER_ROW * row + 2))
+          .build();
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid apartment in the catalogue at row " + row, e);
+    }
+  }
+
+  /**
+   * Creates the apartments of some rows, such as those of a ranking
+   *
+   * @param rows the indices of the apartments
+   * @return the apartments, in the order of <code>rows</code>
+   */
+  public ImmutableList<Apartment> getApartments(int... rows) {
+    ImmutableList.Builder<Apartment> apartments =
+        ImmutableList.builderWithExpectedSize(rows.length);
+    for (int row : rows) {
+      apartments.add(getApartment(row));
+    }
+    return apartments.build();
+  }
+
+  private String getString(int index) {
+    long start = stringOffsets.get(index);
+    long end = stringOffsets.get(index + 1);
+    checkArgument(
+        0 <= start && start <= end && end <= strings.capacity(),
+        "Corrupted offsets of the strings of the catalogue");
+    byte[] encoded = new byte[(int) (end - start)];
+    strings.duplicate().position((int) start).get(encoded);
+    return new String(encoded, StandardCharsets.UTF_8);
+  }
+}
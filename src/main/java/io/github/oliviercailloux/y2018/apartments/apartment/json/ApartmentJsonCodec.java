@@ -0,0 +1,103 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes JSON arrays of apartments directly with the streaming API of JSON-P, without the
+ * reflection of JSON-B nor the creation of a <code>Jsonb</code> instance. The thirteen members of
+ * an apartment are read and written by name, unknown members are skipped, and the JSON written is
+ * exactly the one JSON-B writes.
+ *
+ * @see ApartmentJsonReader
+ * @see ApartmentJsonWriter
+ */
+public final class ApartmentJsonCodec {
+
+  private ApartmentJsonCodec() {}
+
+  /**
+   * Reads all the apartments of a JSON array
+   *
+   * @param input the JSON array, in UTF-8, UTF-16 or UTF-32, read until its end but not closed
+   * @return the apartments read, in the order of the array
+   * @throws IllegalArgumentException if the input is malformed or an apartment is not valid
+   * @throws java.io.UncheckedIOException if the input can't be read
+   */
+  public static List<Apartment> read(InputStream input) {
+    checkNotNull(input);
+    List<Apartment> apartments = new ArrayList<>();
+    /* The reader is not closed, as it would close the input of the caller. */
+    ApartmentJsonReader reader = ApartmentJsonReader.of(input);
+    reader.forEachRemaining(apartments::add);
+    return apartments;
+  }
+
+  /**
+   * Reads all the apartments of a JSON array into a catalogue, canonicalizing their strings
+   *
+   * @param input the JSON array, in UTF-8, UTF-16 or UTF-32, read until its end but not closed
+   * @param pool the pool of the catalogue
+   * @return the apartments read, in the order of the array, holding the strings of the pool
+   * @throws IllegalArgumentException if the input is malformed or an apartment is not valid
+   * @throws java.io.UncheckedIOException if the input can't be read
+   */
+  public static List<Apartment> read(InputStream input, ApartmentStringPool pool) {
+    checkNotNull(input);
+    List<Apartment> apartments = new ArrayList<>();
+    /* The reader is not closed, as it would close the input of the caller. */
+    ApartmentJsonReader reader = ApartmentJsonReader.of(input, pool);
+    reader.forEachRemaining(apartments::add);
+    return apartments;
+  }
+
+  /**
+   * Reads all the apartments of a JSON array
+   *
+   * @param json the JSON array
+   * @return the apartments read, in the order of the array
+   * @throws IllegalArgumentException if the JSON array is malformed or an apartment is not valid
+   */
+  public static List<Apartment> read(String json) {
+    checkNotNull(json);
+    return read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Writes apartments as a JSON array in UTF-8
+   *
+   * @param apartments the apartments to write, iterated once
+   * @param output receives the JSON array, closed once written
+   * @throws java.io.UncheckedIOException if the output fails
+   */
+  public static void write(Iterable<Apartment> apartments, OutputStream output) {
+    checkNotNull(apartments);
+    try (ApartmentJsonWriter writer = ApartmentJsonWriter.of(output)) {
+      writer.writeAll(apartments);
+    }
+  }
+
+  /**
+   * Writes apartments as a JSON array
+   *
+   * @param apartments the apartments to write, iterated once
+   * @return the JSON array
+   */
+  public static String toJson(Iterable<Apartment> apartments) {
+    checkNotNull(apartments);
+    StringWriter json = new StringWriter();
+    try (ApartmentJsonWriter writer = ApartmentJsonWriter.of(json)) {
+      writer.writeAll(apartments);
+    }
+    return json.toString();
+  }
+}
@@ -0,0 +1,354 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Streams;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+
+/**
+ * Reads the apartments of a JSON array one after the other, as they come in the input, so that
+ * arbitrarily large arrays can be read with constant memory. The array is the one written by {@link
+ * JsonConvert#apartmentsToJson(java.util.List, java.nio.file.Path)}: each object is read through a
+ * {@link Apartment#bulkBuilder()}, which does not log and validates it as when the whole array is
+ * bound at once. Unknown members are skipped, and a member whose value is <code>null</code> is
+ * considered absent.
+ *
+ * <p>A malformed input, or an object that is not a valid apartment, makes the reading throw an
+ * {@link IllegalArgumentException}; a failure of the input makes it throw an {@link
+ * UncheckedIOException}. Closing the reader closes the input.
+ */
+public class ApartmentJsonReader implements Iterator<Apartment>, Closeable {
+
+  private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+
+  private final JsonParser parser;
+
+  /** The pool of the strings read, <code>null</code> if they are not canonicalized. */
+  private final ApartmentStringPool pool;
+
+  /** The apartment read in advance by {@link #hasNext()}, <code>null</code> if none. */
+  private Apartment next;
+
+  /** Whether the end of the array has been read. */
+  private boolean ended;
+
+  private ApartmentJsonReader(JsonParser parser, ApartmentStringPool pool) {
+    this.parser = parser;
+    this.pool = pool;
+    this.next = null;
+    this.ended = false;
+  }
+
+  private static ApartmentJsonReader startingArray(JsonParser parser, ApartmentStringPool pool) {
+    ApartmentJsonReader reader = new ApartmentJsonReader(parser, pool);
+    if (reader.nextEvent() != Event.START_ARRAY) {
+      reader.close();
+      throw new IllegalArgumentException(
+          "A JSON array of apartments was expected at " + parser.getLocation());
+    }
+    return reader;
+  }
+
+  /**
+   * Creates a reader of the JSON array of apartments given by an input stream, in UTF-8, UTF-16 or
+   * UTF-32
+   *
+   * @param input the stream to read, closed when this reader is closed
+   * @return a reader positioned before the first apartment of the array
+   */
+  public static ApartmentJsonReader of(InputStream input) {
+    checkNotNull(input);
+    return startingArray(createParser(input), null);
+  }
+
+  /**
+   * Creates a reader of the JSON array of apartments given by an input stream, whose apartments
+   * hold the canonical instances of their strings
+   *
+   * @param input the stream to read, closed when this reader is closed
+   * @param pool the pool of the catalogue the apartments are read into
+   * @return a reader positioned before the first apartment of the array
+   * @see #of(InputStream)
+   */
+  public static ApartmentJsonReader of(InputStream input, ApartmentStringPool pool) {
+    checkNotNull(input);
+    checkNotNull(pool);
+    return startingArray(createParser(input), pool);
+  }
+
+  /**
+   * Creates a reader of the JSON array of apartments given by a channel
+   *
+   * @param channel the channel to read, closed when this reader is closed
+   * @return a reader positioned before the first apartment of the array
+   * @see #of(InputStream)
+   */
+  public static ApartmentJsonReader of(ReadableByteChannel channel) {
+    checkNotNull(channel);
+    return of(Channels.newInputStream(channel));
+  }
+
+  /**
+   * Reads a single apartment given as a JSON object, as one line of a JSON Lines file
+   *
+   * @param json the JSON object of the apartment
+   * @return the apartment read
+   */
+  static Apartment readObject(String json) {
+    try {
+      return readObjectMembers(json).build();
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid apartment", e);
+    }
+  }
+
+  /**
+   * Reads the members of a single apartment given as a JSON object, without validating them
+   *
+   * @param json the JSON object of the apartment
+   * @return a bulk builder holding the members read, to validate
+   */
+  static Apartment.Builder readObjectMembers(String json) {
+    try (ApartmentJsonReader reader =
+        new ApartmentJsonReader(PARSER_FACTORY.createParser(new StringReader(json)), null)) {
+      if (reader.nextEvent() != Event.START_OBJECT) {
+        throw new IllegalArgumentException("A JSON object of an apartment was expected");
+      }
+      Apartment.Builder builder = reader.readMembers();
+      if (reader.parser.hasNext()) {
+        throw new IllegalArgumentException("A single JSON object of an apartment was expected");
+      }
+      return builder;
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  private static JsonParser createParser(InputStream input) {
+    try {
+      return PARSER_FACTORY.createParser(input);
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  /**
+   * Gives the apartments not read yet, lazily: each one is read when the stream needs it. Closing
+   * the stream closes this reader.
+   *
+   * @return a sequential and ordered stream of the remaining apartments
+   */
+  public Stream<Apartment> stream() {
+    return Streams.stream(this).onClose(this::close);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !ended) {
+      next = readNext();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Apartment next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Apartment apartment = next;
+    next = null;
+    return apartment;
+  }
+
+  @Override
+  public void close() {
+    try {
+      parser.close();
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  /**
+   * Reads the next apartment of the array
+   *
+   * @return the apartment read, or <code>null</code> at the end of the array
+   */
+  private Apartment readNext() {
+    Event event = nextEvent();
+    if (event == Event.END_ARRAY) {
+      ended = true;
+      return null;
+    }
+    if (event != Event.START_OBJECT) {
+      throw new IllegalArgumentException(
+          "A JSON object of an apartment was expected at " + parser.getLocation());
+    }
+    Apartment.Builder builder = readMembers();
+    try {
+      return builder.build();
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid apartment ending at " + parser.getLocation(), e);
+    }
+  }
+
+  /**
+   * Reads the members of the object just started, up to its end
+   *
+   * @return a bulk builder holding the members read
+   */
+  private Apartment.Builder readMembers() {
+    Apartment.Builder builder = Apartment.bulkBuilder();
+    for (Event event = nextEvent(); event == Event.KEY_NAME; event = nextEvent()) {
+      String key = parser.getString();
+      readMember(key, nextEvent(), builder);
+    }
+    return builder;
+  }
+
+  /**
+   * Sets the attribute of the apartment given by one member of its JSON object
+   *
+   * @param key the name of the member
+   * @param event the first event of its value
+   * @param builder the builder of the apartment
+   */
+  private void readMember(String key, Event event, Apartment.Builder builder) {
+    if (event == Event.VALUE_NULL) {
+      return;
+    }
+    switch (key) {
+      case "address":
+        String address = stringValue(key, event);
+        builder.setAddress(address, pool);
+        break;
+      case "description":
+        builder.setDescription(textValue(key, event));
+        break;
+      case "title":
+        builder.setTitle(textValue(key, event));
+        break;
+      case "floorArea":
+        builder.setFloorArea(doubleValue(key, event));
+        break;
+      case "floorAreaTerrace":
+        builder.setFloorAreaTerrace(doubleValue(key, event));
+        break;
+      case "pricePerNight":
+        builder.setPricePerNight(doubleValue(key, event));
+        break;
+      case "nbBathrooms":
+        builder.setNbBathrooms(intValue(key, event));
+        break;
+      case "nbBedrooms":
+        builder.setNbBedrooms(intValue(key, event));
+        break;
+      case "nbMinNight":
+        builder.setNbMinNight(intValue(key, event));
+        break;
+      case "nbSleeping":
+        builder.setNbSleeping(intValue(key, event));
+        break;
+      case "tele":
+        builder.setTele(booleanValue(key, event));
+        break;
+      case "terrace":
+        builder.setTerrace(booleanValue(key, event));
+        break;
+      case "wifi":
+        builder.setWifi(booleanValue(key, event));
+        break;
+      default:
+        skipValue(event);
+    }
+  }
+
+  private String stringValue(String key, Event event) {
+    checkType(event == Event.VALUE_STRING, key);
+    return parser.getString();
+  }
+
+  private String textValue(String key, Event event) {
+    String text = stringValue(key, event);
+    return pool == null ? text : pool.canonicalText(text);
+  }
+
+  private double doubleValue(String key, Event event) {
+    checkType(event == Event.VALUE_NUMBER, key);
+    return Double.parseDouble(parser.getString());
+  }
+
+  private int intValue(String key, Event event) {
+    checkType(event == Event.VALUE_NUMBER && parser.isIntegralNumber(), key);
+    try {
+      return parser.getBigDecimal().intValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("The value of " + key + " is not an int", e);
+    }
+  }
+
+  private boolean booleanValue(String key, Event event) {
+    checkType(event == Event.VALUE_TRUE || event == Event.VALUE_FALSE, key);
+    return event == Event.VALUE_TRUE;
+  }
+
+  private void checkType(boolean expression, String key) {
+    if (!expression) {
+      throw new UnexpectedTypeException(
+          "Unexpected type for the value of " + key + " at " + parser.getLocation());
+    }
+  }
+
+  private void skipValue(Event event) {
+    if (event == Event.START_OBJECT) {
+      parser.skipObject();
+    } else if (event == Event.START_ARRAY) {
+      parser.skipArray();
+    }
+  }
+
+  private Event nextEvent() {
+    try {
+      if (!parser.hasNext()) {
+        throw new IllegalArgumentException("Unexpected end of the JSON input");
+      }
+      return parser.next();
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  private static RuntimeException asUnchecked(JsonException e) {
+    if (e.getCause() instanceof IOException) {
+      return new UncheckedIOException((IOException) e.getCause());
+    }
+    return new IllegalArgumentException(e);
+  }
+
+  /**
+   * Thrown when a known member has a value of a type that this reader does not convert, such as a
+   * number given as a string, that a more lenient binding may accept.
+   */
+  @SuppressWarnings("serial")
+  static class UnexpectedTypeException extends IllegalArgumentException {
+    UnexpectedTypeException(String message) {
+      super(message);
+    }
+  }
+}
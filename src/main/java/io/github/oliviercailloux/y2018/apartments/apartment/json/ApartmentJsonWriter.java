@@ -0,0 +1,166 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+
+/**
+ * Writes apartments as a JSON array, one after the other, so that arbitrarily many apartments can
+ * be written with constant memory. The array written is exactly the one {@link
+ * JsonConvert#apartmentsToJsonString(java.util.List)} gives: compact, with the members of each
+ * apartment in lexicographical order, in UTF-8. It can be read back by {@link ApartmentJsonReader}.
+ *
+ * <p>The array is only complete once the writer is closed, which also closes the output. A failure
+ * of the output makes the writing throw an {@link UncheckedIOException}.
+ */
+public class ApartmentJsonWriter implements Closeable {
+
+  private static final JsonGeneratorFactory GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+
+  private final JsonGenerator generator;
+
+  private boolean closed;
+
+  private ApartmentJsonWriter(JsonGenerator generator) {
+    this.generator = generator;
+    this.closed = false;
+    try {
+      generator.writeStartArray();
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  /**
+   * Creates a writer of a JSON array of apartments to an output stream
+   *
+   * @param output the stream to write, buffered by the writer, closed when the writer is closed
+   * @return a writer that has written the start of the array
+   */
+  public static ApartmentJsonWriter of(OutputStream output) {
+    checkNotNull(output);
+    return new ApartmentJsonWriter(
+        GENERATOR_FACTORY.createGenerator(output, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Creates a writer of a JSON array of apartments to a character stream
+   *
+   * @param writer the stream to write, closed when this writer is closed
+   * @return a writer that has written the start of the array
+   */
+  static ApartmentJsonWriter of(Writer writer) {
+    checkNotNull(writer);
+    return new ApartmentJsonWriter(GENERATOR_FACTORY.createGenerator(writer));
+  }
+
+  /**
+   * Creates a writer of a JSON array of apartments to a channel
+   *
+   * @param channel the channel to write, closed when the writer is closed
+   * @return a writer that has written the start of the array
+   * @see #of(OutputStream)
+   */
+  public static ApartmentJsonWriter of(WritableByteChannel channel) {
+    checkNotNull(channel);
+    return of(Channels.newOutputStream(channel));
+  }
+
+  /**
+   * Appends an apartment to the array
+   *
+   * @param apartment the apartment to write
+   * @return the current instance of ApartmentJsonWriter
+   */
+  public ApartmentJsonWriter write(Apartment apartment) {
+    checkNotNull(apartment);
+    checkState(!closed, "The writer is closed");
+    try {
+      writeObject(generator, apartment);
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+    return this;
+  }
+
+  /**
+   * Writes a single apartment as a JSON object, as one line of a JSON Lines file
+   *
+   * @param apartment the apartment to write
+   * @return the JSON object of the apartment, on a single line
+   */
+  static String toJsonObject(Apartment apartment) {
+    checkNotNull(apartment);
+    StringWriter json = new StringWriter();
+    try (JsonGenerator objectGenerator = GENERATOR_FACTORY.createGenerator(json)) {
+      writeObject(objectGenerator, apartment);
+    }
+    return json.toString();
+  }
+
+  private static void writeObject(JsonGenerator generator, Apartment apartment) {
+    generator
+        .writeStartObject()
+        .write("address", apartment.getAddress())
+        .write("description", apartment.getDescription())
+        .write("floorArea", apartment.getFloorArea())
+        .write("floorAreaTerrace", apartment.getFloorAreaTerrace())
+        .write("nbBathrooms", apartment.getNbBathrooms())
+        .write("nbBedrooms", apartment.getNbBedrooms())
+        .write("nbMinNight", apartment.getNbMinNight())
+        .write("nbSleeping", apartment.getNbSleeping())
+        .write("pricePerNight", apartment.getPricePerNight())
+        .write("tele", apartment.getTele())
+        .write("terrace", apartment.getTerrace())
+        .write("title", apartment.getTitle())
+        .write("wifi", apartment.getWifi())
+        .writeEnd();
+  }
+
+  /**
+   * Appends apartments to the array, in the order of iteration
+   *
+   * @param apartments the apartments to write, iterated once
+   * @return the current instance of ApartmentJsonWriter
+   */
+  public ApartmentJsonWriter writeAll(Iterable<Apartment> apartments) {
+    apartments.forEach(this::write);
+    return this;
+  }
+
+  /** Writes the end of the array, then closes the output. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      generator.writeEnd();
+      generator.close();
+    } catch (JsonException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  private static RuntimeException asUnchecked(JsonException e) {
+    if (e.getCause() instanceof IOException) {
+      return new UncheckedIOException((IOException) e.getCause());
+    }
+    return e;
+  }
+}
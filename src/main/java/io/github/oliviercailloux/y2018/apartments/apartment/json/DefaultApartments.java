@@ -0,0 +1,153 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.VerifyException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The default apartments, read once per process from the resources the first time they are needed,
+ * then shared by all their users. The resources are read as streams, so that they are also found
+ * inside a jar.
+ *
+ * <p>The apartments are read from the snapshot that the build makes of <code>
+ * defaultApartments.json</code>, which holds their columns and their subjective values for each
+ * profile of the {@link ProfileManager} (see {@link DefaultApartmentsSnapshot}). When the snapshot
+ * is missing, or was made from another version of the JSON file, the JSON file is read instead.
+ *
+ * <p>The catalogue is immutable, hence safe to share between threads: the apartments are held in an
+ * {@link ImmutableList}, along with the {@link ApartmentBatch} of their columns, computed once. The
+ * apartments sharing an address, a title or a description share one instance of it, and the
+ * addresses share their streets and cities (see {@link ApartmentStringPool}).
+ */
+public final class DefaultApartments {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefaultApartments.class);
+
+  private static final String RESOURCE = "defaultApartments.json";
+
+  /** Holds the catalogue, which the JVM initializes once, on the first call of {@link #get()}. */
+  private static final class Holder {
+    private static final DefaultApartments INSTANCE = load();
+  }
+
+  private final ImmutableList<Apartment> apartments;
+
+  private final ApartmentBatch batch;
+
+  /** For each profile, the subjective values by criterion ordinal, then by row. */
+  private final ImmutableMap<ProfileType, double[][]> subjectiveValues;
+
+  DefaultApartments(
+      ImmutableList<Apartment> apartments,
+      ApartmentBatch batch,
+      ImmutableMap<ProfileType, double[][]> subjectiveValues) {
+    this.apartments = apartments;
+    this.batch = batch;
+    this.subjectiveValues = subjectiveValues;
+  }
+
+  /**
+   * Gives the default apartments, reading them on the first call
+   *
+   * @return the catalogue shared by the whole process
+   */
+  public static DefaultApartments get() {
+    return Holder.INSTANCE;
+  }
+
+  private static DefaultApartments load() {
+    byte[] json = readResource(RESOURCE);
+    if (json == null) {
+      throw new VerifyException("The resource " + RESOURCE + " is missing");
+    }
+    byte[] snapshot = readResource(DefaultApartmentsSnapshot.RESOURCE);
+    Optional<DefaultApartments> read = Optional.empty();
+    if (snapshot == null) {
+      LOGGER.warn("No snapshot of the default apartments, reading the JSON file.");
+    } else {
+      read = DefaultApartmentsSnapshot.read(snapshot, DefaultApartmentsSnapshot.checksum(json));
+    }
+    DefaultApartments catalogue = read.orElseGet(() -> readJson(json));
+    LOGGER.info("Read {} default apartments.", catalogue.apartments.size());
+    return catalogue;
+  }
+
+  /**
+   * Reads the default apartments from the JSON file, sharing their equal strings, then computes
+   * their subjective values
+   *
+   * @param json the content of the JSON file
+   * @return the catalogue of the apartments of the file
+   */
+  static DefaultApartments readJson(byte[] json) {
+    ImmutableList<Apartment> apartments =
+        ImmutableList.copyOf(
+            ApartmentJsonCodec.read(new ByteArrayInputStream(json), ApartmentStringPool.create()));
+    ApartmentBatch batch = ApartmentBatch.copyOf(apartments);
+    return new DefaultApartments(
+        apartments, batch, DefaultApartmentsSnapshot.computeSubjectiveValues(batch));
+  }
+
+  /**
+   * Reads a resource next to this class
+   *
+   * @return the content of the resource, or <code>null</code> if there is no such resource
+   */
+  static byte[] readResource(String name) {
+    try (InputStream input = DefaultApartments.class.getResourceAsStream(name)) {
+      return input == null ? null : input.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "We are reading a resource file, it should not have an Exception", e);
+    }
+  }
+
+  /**
+   * Gives the default apartments
+   *
+   * @return the apartments, in the order of the resource
+   */
+  public ImmutableList<Apartment> getApartments() {
+    return apartments;
+  }
+
+  /**
+   * Gives the columns of the default apartments, to score them without reading each apartment
+   *
+   * @return the batch of the apartments, in the order of {@link #getApartments()}
+   */
+  public ApartmentBatch getBatch() {
+    return batch;
+  }
+
+  /**
+   * Gives the subjective values of the default apartments for a criterion, as the value function of
+   * a profile of the {@link ProfileManager} computes them
+   *
+   * @param profile the profile whose value function to use
+   * @param criterion the criterion to evaluate
+   * @return a new array containing the subjective value of each apartment, in the order of {@link
+   *     #getApartments()}
+   */
+  public double[] getSubjectiveValues(ProfileType profile, Criterion criterion) {
+    checkNotNull(criterion);
+    checkArgument(subjectiveValues.containsKey(profile), "Unknown profile %s", profile);
+    return subjectiveValues.get(profile)[criterion.ordinal()].clone();
+  }
+}
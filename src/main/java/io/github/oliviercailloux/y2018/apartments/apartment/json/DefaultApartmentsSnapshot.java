@@ -0,0 +1,300 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The snapshot of the default apartments, written by the build from <code>defaultApartments.json
+ * </code> so that the application starts without parsing JSON. All the numbers are big-endian.
+ *
+ * <ul>
+ *   <li>The header: the magic number, the version and the CRC-32C of the JSON file the snapshot was
+ *       made from, as ints, the fingerprint of the profiles it was made with, as a long, then the
+ *       number of apartments, as an int.
+ *   <li>The columns: for each criterion, in the order of their ordinals, the objective value of
+ *       each apartment as {@link ApartmentBatch#getValue(Criterion, int)} gives it, as doubles.
+ *   <li>The strings: for each apartment, its address, its title and its description, each as the
+ *       length of its UTF-8 encoding, an int, followed by that encoding.
+ *   <li>The subjective values: the number of profiles, as an int, then for each profile the name of
+ *       its {@link ProfileType}, as a string, followed for each criterion by the subjective value
+ *       of each apartment for the value function of the profile, as doubles.
+ * </ul>
+ *
+ * <p>A snapshot made from another JSON file than the one it is read with, or with profiles whose
+ * weights or value functions have changed since, is stale, and is not read. The apartments read
+ * share the canonical instances of their strings, as when the JSON file is read.
+ */
+public final class DefaultApartmentsSnapshot {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefaultApartmentsSnapshot.class);
+
+  static final String RESOURCE = "defaultApartments.snapshot";
+
+  /** The bytes <code>APTS</code>. */
+  static final int MAGIC = 0x41505453;
+
+  static final int VERSION = 2;
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  private DefaultApartmentsSnapshot() {}
+
+  /**
+   * Writes the snapshot of a JSON file of apartments, as the build does for the default ones
+   *
+   * @param args the JSON file to read, then the snapshot file to write
+   * @throws IOException if the JSON file cannot be read or the snapshot written
+   */
+  public static void main(String[] args) throws IOException {
+    checkArgument(args.length == 2, "Expected the JSON file and the snapshot file");
+    byte[] json = Files.readAllBytes(Path.of(args[0]));
+    List<Apartment> apartments = ApartmentJsonCodec.read(new ByteArrayInputStream(json));
+    Path snapshot = Path.of(args[1]);
+    try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(snapshot))) {
+      write(apartments, checksum(json), output);
+    }
+    LOGGER.info("Wrote the snapshot of {} apartments to {}.", apartments.size(), snapshot);
+  }
+
+  /**
+   * Computes the checksum of a JSON file, which tells whether a snapshot was made from it
+   *
+   * @param json the content of the JSON file
+   * @return the CRC-32C of the content
+   */
+  static int checksum(byte[] json) {
+    CRC32C crc = new CRC32C();
+    crc.update(json);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Computes the fingerprint of the profiles of the {@link ProfileManager}, which tells whether a
+   * snapshot was made with their current weights and value functions
+   *
+   * @return a fingerprint of the type and of the compiled value function of each profile, or an
+   *     empty optional if a value function cannot be fingerprinted, in which case every snapshot is
+   *     stale
+   * @see CompiledAVF#getFingerprint()
+   */
+  static OptionalLong profilesFingerprint() {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    ProfileManager profiles = ProfileManager.getInstance();
+    /* The profiles are kept in a hash map, whose order changes from one run to the next. */
+    for (ProfileType type : EnumSet.copyOf(profiles.getAvailableProfileTypes())) {
+      OptionalLong fingerprint =
+          profiles.getProfile(type).getLinearAVF().compile().getFingerprint();
+      if (fingerprint.isEmpty()) {
+        return OptionalLong.empty();
+      }
+      hasher.putString(type.name(), StandardCharsets.UTF_8).putLong(fingerprint.getAsLong());
+    }
+    return OptionalLong.of(hasher.hash().asLong());
+  }
+
+  /**
+   * Computes the subjective values of apartments for the value function of each profile of the
+   * {@link ProfileManager}
+   *
+   * @param batch the apartments
+   * @return for each profile, the subjective values of the apartments by criterion ordinal, then by
+   *     row
+   */
+  static ImmutableMap<ProfileType, double[][]> computeSubjectiveValues(ApartmentBatch batch) {
+    EnumMap<ProfileType, double[][]> subjectiveValues = new EnumMap<>(ProfileType.class);
+    ProfileManager profiles = ProfileManager.getInstance();
+    for (ProfileType type : profiles.getAvailableProfileTypes()) {
+      CompiledAVF avf = profiles.getProfile(type).getLinearAVF().compile();
+      double[][] values = new double[CRITERIA.length][batch.size()];
+      for (Criterion criterion : CRITERIA) {
+        avf.getSubjectiveValues(batch, criterion, 0, batch.size(), values[criterion.ordinal()]);
+      }
+      subjectiveValues.put(type, values);
+    }
+    return Maps.immutableEnumMap(subjectiveValues);
+  }
+
+  /**
+   * Writes the snapshot of apartments
+   *
+   * @param apartments the apartments, in the order of the JSON file
+   * @param jsonChecksum the checksum of the JSON file, as given by {@link #checksum(byte[])}
+   * @param output where to write the snapshot, flushed but not closed
+   * @throws IOException if the output fails
+   */
+  static void write(List<Apartment> apartments, int jsonChecksum, OutputStream output)
+      throws IOException {
+    ApartmentBatch batch = ApartmentBatch.copyOf(apartments);
+    int size = batch.size();
+    DataOutputStream data = new DataOutputStream(output);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(jsonChecksum);
+    /* Without a fingerprint, the snapshot is written anyway, but never read. */
+    data.writeLong(profilesFingerprint().orElse(0L));
+    data.writeInt(size);
+    double[] column = new double[size];
+    for (Criterion criterion : CRITERIA) {
+      batch.copyValues(criterion, 0, size, column);
+      writeDoubles(data, column);
+    }
+    for (Apartment apartment : apartments) {
+      writeString(data, apartment.getAddress());
+      writeString(data, apartment.getTitle());
+      writeString(data, apartment.getDescription());
+    }
+    ImmutableMap<ProfileType, double[][]> subjectiveValues = computeSubjectiveValues(batch);
+    data.writeInt(subjectiveValues.size());
+    for (ProfileType type : subjectiveValues.keySet()) {
+      writeString(data, type.name());
+      for (double[] values : subjectiveValues.get(type)) {
+        writeDoubles(data, values);
+      }
+    }
+    data.flush();
+  }
+
+  private static void writeDoubles(DataOutputStream data, double[] values) throws IOException {
+    for (double value : values) {
+      data.writeDouble(value);
+    }
+  }
+
+  private static void writeString(DataOutputStream data, String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    data.writeInt(bytes.length);
+    data.write(bytes);
+  }
+
+  /**
+   * Reads a snapshot, unless it is stale
+   *
+   * @param snapshot the content of the snapshot
+   * @param jsonChecksum the checksum of the current JSON file, as given by {@link
+   *     #checksum(byte[])}
+   * @return the default apartments, or an empty optional if the snapshot was made from another JSON
+   *     file, with other profiles or with another version of this class, or is truncated or corrupt
+   */
+  static Optional<DefaultApartments> read(byte[] snapshot, int jsonChecksum) {
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        LOGGER.warn("The snapshot has an unknown format.");
+        return Optional.empty();
+      }
+      int checksum = buffer.getInt();
+      long fingerprint = buffer.getLong();
+      OptionalLong current = profilesFingerprint();
+      if (checksum != jsonChecksum || current.isEmpty() || fingerprint != current.getAsLong()) {
+        LOGGER.warn("The snapshot is stale.");
+        return Optional.empty();
+      }
+      int size = buffer.getInt();
+      /* Each apartment takes at least its objective values and the lengths of its strings. */
+      long rowBytes = CRITERIA.length * Double.BYTES + 3 * Integer.BYTES;
+      if (size < 0 || size * rowBytes > buffer.remaining()) {
+        LOGGER.warn("The snapshot has an invalid number of apartments: {}.", size);
+        return Optional.empty();
+      }
+      double[][] columns = new double[CRITERIA.length][size];
+      for (double[] column : columns) {
+        buffer.asDoubleBuffer().get(column);
+        buffer.position(buffer.position() + size * Double.BYTES);
+      }
+
+      ApartmentBatch.Builder batch = new ApartmentBatch.Builder(size);
+      ImmutableList.Builder<Apartment> apartments = ImmutableList.builderWithExpectedSize(size);
+      ApartmentStringPool pool = ApartmentStringPool.create();
+      double[] row = new double[CRITERIA.length];
+      for (int i = 0; i < size; i++) {
+        for (int c = 0; c < CRITERIA.length; c++) {
+          row[c] = columns[c][i];
+        }
+        batch.addRow(row);
+        Apartment.Builder builder = Apartment.bulkBuilder();
+        /* An apartment built without a floor area has 0, which the setter rejects but build accepts. */
+        if (row[Criterion.FLOOR_AREA.ordinal()] != 0d) {
+          builder.setFloorArea(row[Criterion.FLOOR_AREA.ordinal()]);
+        }
+        apartments.add(
+            builder
+                .setAddress(readString(buffer), pool)
+                .setTitle(pool.canonicalText(readString(buffer)))
+                .setDescription(pool.canonicalText(readString(buffer)))
+                .setTele(row[Criterion.TELE.ordinal()] != 0d)
+                .setTerrace(row[Criterion.TERRACE.ordinal()] != 0d)
+                .setWifi(row[Criterion.WIFI.ordinal()] != 0d)
+                .setFloorAreaTerrace(row[Criterion.FLOOR_AREA_TERRACE.ordinal()])
+                .setNbBathrooms((int) row[Criterion.NB_BATHROOMS.ordinal()])
+                .setNbBedrooms((int) row[Criterion.NB_BEDROOMS.ordinal()])
+                .setNbSleeping((int) row[Criterion.NB_SLEEPING.ordinal()])
+                .setNbMinNight((int) row[Criterion.NB_MIN_NIGHT.ordinal()])
+                .setPricePerNight(row[Criterion.PRICE_PER_NIGHT.ordinal()])
+                .build());
+      }
+
+      EnumMap<ProfileType, double[][]> subjectiveValues = new EnumMap<>(ProfileType.class);
+      int profileCount = buffer.getInt();
+      for (int p = 0; p < profileCount; p++) {
+        ProfileType type = ProfileType.valueOf(readString(buffer));
+        double[][] values = new double[CRITERIA.length][size];
+        for (double[] column : values) {
+          buffer.asDoubleBuffer().get(column);
+          buffer.position(buffer.position() + size * Double.BYTES);
+        }
+        subjectiveValues.put(type, values);
+      }
+      return Optional.of(
+          new DefaultApartments(
+              apartments.build(), batch.build(), Maps.immutableEnumMap(subjectiveValues)));
+    } catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException e) {
+      LOGGER.warn("The snapshot cannot be read: {}", e.toString());
+      return Optional.empty();
+    }
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    String string =
+        new String(
+            buffer.array(),
+            buffer.arrayOffset() + buffer.position(),
+            length,
+            StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return string;
+  }
+}
@@ -0,0 +1,301 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.IntStream;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+
+/**
+ * The apartments of a JSON file read for the columns of some criteria only, as needed to score
+ * them, along with the position of each apartment in the file, to fetch later the few apartments
+ * worth showing.
+ *
+ * <p>The members that are not requested are skipped by the parser without being converted: notably,
+ * the titles and descriptions are never read as strings. Only the values read are checked, so that
+ * an invalid apartment may go unnoticed until it is fetched. The file must not change between the
+ * reading and the fetching.
+ */
+public final class JsonCatalogue {
+
+  private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  /** The criterion given by each member of a JSON object of an apartment. */
+  private static final ImmutableMap<String, Criterion> MEMBERS =
+      ImmutableMap.<String, Criterion>builder()
+          .put("tele", Criterion.TELE)
+          .put("terrace", Criterion.TERRACE)
+          .put("wifi", Criterion.WIFI)
+          .put("floorArea", Criterion.FLOOR_AREA)
+          .put("floorAreaTerrace", Criterion.FLOOR_AREA_TERRACE)
+          .put("nbBathrooms", Criterion.NB_BATHROOMS)
+          .put("nbBedrooms", Criterion.NB_BEDROOMS)
+          .put("nbSleeping", Criterion.NB_SLEEPING)
+          .put("nbMinNight", Criterion.NB_MIN_NIGHT)
+          .put("pricePerNight", Criterion.PRICE_PER_NIGHT)
+          .build();
+
+  /** The criteria whose values are numbers of things, thus integers. */
+  private static final ImmutableSet<Criterion> COUNTS =
+      Sets.immutableEnumSet(
+          Criterion.NB_BATHROOMS,
+          Criterion.NB_BEDROOMS,
+          Criterion.NB_SLEEPING,
+          Criterion.NB_MIN_NIGHT);
+
+  private final Path jsonPath;
+
+  private final ApartmentBatch batch;
+
+  /** The offset in characters of the JSON object of each row, from the start of the file. */
+  private final long[] offsets;
+
+  /** The length in characters of the JSON object of each row. */
+  private final int[] lengths;
+
+  private JsonCatalogue(Path jsonPath, ApartmentBatch batch, long[] offsets, int[] lengths) {
+    this.jsonPath = jsonPath;
+    this.batch = batch;
+    this.offsets = offsets;
+    this.lengths = lengths;
+  }
+
+  /**
+   * Reads the columns of some criteria from a JSON array of apartments in UTF-8
+   *
+   * @param jsonPath the file written by {@link JsonConvert#apartmentsToJson(java.util.List, Path)}
+   * @param criteria the criteria whose columns to read
+   * @return the catalogue of the apartments of the file, in the order of the array
+   * @throws IOException if the file cannot be read
+   */
+  static JsonCatalogue read(Path jsonPath, Set<Criterion> criteria) throws IOException {
+    checkNotNull(jsonPath);
+    ApartmentBatch.Builder builder = new ApartmentBatch.Builder(16, criteria);
+    boolean[] requested = new boolean[CRITERIA.length];
+    criteria.forEach(criterion -> requested[criterion.ordinal()] = true);
+    double[] values = new double[CRITERIA.length];
+    boolean[] present = new boolean[CRITERIA.length];
+    long[] offsets = new long[16];
+    int[] lengths = new int[16];
+    int size = 0;
+
+    try (JsonParser parser =
+        PARSER_FACTORY.createParser(Files.newBufferedReader(jsonPath, StandardCharsets.UTF_8))) {
+      checkArgument(
+          parser.hasNext() && parser.next() == Event.START_ARRAY,
+          "A JSON array of apartments was expected");
+      for (Event event = nextEvent(parser); event != Event.END_ARRAY; event = nextEvent(parser)) {
+        checkArgument(
+            event == Event.START_OBJECT,
+            "A JSON object of an apartment was expected at %s",
+            parser.getLocation());
+        /* The location is just after the opening brace. */
+        long offset = parser.getLocation().getStreamOffset() - 1;
+        Arrays.fill(values, 0d);
+        Arrays.fill(present, false);
+        for (event = nextEvent(parser); event == Event.KEY_NAME; event = nextEvent(parser)) {
+          Criterion criterion = MEMBERS.get(parser.getString());
+          event = nextEvent(parser);
+          if (criterion == null || !requested[criterion.ordinal()] || event == Event.VALUE_NULL) {
+            skipValue(parser, event);
+          } else {
+            values[criterion.ordinal()] = readValue(parser, criterion, event);
+            present[criterion.ordinal()] = true;
+          }
+        }
+        for (Criterion criterion : criteria) {
+          checkArgument(
+              present[criterion.ordinal()] || !criterion.hasBooleanDomain(),
+              "The value of %s of the apartment ending at %s is missing",
+              criterion,
+              parser.getLocation());
+        }
+        builder.addRow(values);
+        if (size == offsets.length) {
+          offsets = Arrays.copyOf(offsets, size * 2);
+          lengths = Arrays.copyOf(lengths, size * 2);
+        }
+        offsets[size] = offset;
+        lengths[size] = Math.toIntExact(parser.getLocation().getStreamOffset() - offset);
+        size++;
+      }
+    } catch (JsonException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalArgumentException(e);
+    }
+    return new JsonCatalogue(
+        jsonPath, builder.build(), Arrays.copyOf(offsets, size), Arrays.copyOf(lengths, size));
+  }
+
+  private static double readValue(JsonParser parser, Criterion criterion, Event event) {
+    if (criterion.hasBooleanDomain()) {
+      checkArgument(
+          event == Event.VALUE_TRUE || event == Event.VALUE_FALSE,
+          "Unexpected type for the value of %s at %s",
+          criterion,
+          parser.getLocation());
+      return event == Event.VALUE_TRUE ? 1d : 0d;
+    }
+    checkArgument(
+        event == Event.VALUE_NUMBER,
+        "Unexpected type for the value of %s at %s",
+        criterion,
+        parser.getLocation());
+    double value;
+    if (COUNTS.contains(criterion)) {
+      checkArgument(
+          parser.isIntegralNumber(),
+          "The value of %s is not an integer at %s",
+          criterion,
+          parser.getLocation());
+      /* The builder holds the counts as ints, hence rejects those it could not hold. */
+      try {
+        value = parser.getBigDecimal().intValueExact();
+      } catch (ArithmeticException e) {
+        throw new IllegalArgumentException(
+            "The value of " + criterion + " is not an int at " + parser.getLocation(), e);
+      }
+    } else {
+      value = Double.parseDouble(parser.getString());
+    }
+    checkArgument(
+        value >= 0d, "The value of %s cannot be negative at %s", criterion, parser.getLocation());
+    /* The builder only accepts a floor area of 0 when the apartment has none. */
+    checkArgument(
+        criterion != Criterion.FLOOR_AREA || value > 0d,
+        "The floor area should not be <= 0 at %s",
+        parser.getLocation());
+    return value;
+  }
+
+  private static void skipValue(JsonParser parser, Event event) {
+    if (event == Event.START_OBJECT) {
+      parser.skipObject();
+    } else if (event == Event.START_ARRAY) {
+      parser.skipArray();
+    }
+  }
+
+  private static Event nextEvent(JsonParser parser) {
+    checkArgument(parser.hasNext(), "Unexpected end of the JSON input");
+    return parser.next();
+  }
+
+  /**
+   * Gives the columns read
+   *
+   * @return a batch holding the columns of the requested criteria only
+   */
+  public ApartmentBatch getBatch() {
+    return batch;
+  }
+
+  /**
+   * Gives the position of an apartment in the file
+   *
+   * @param row the row of the apartment in the batch
+   * @return the offset in characters of its JSON object, from the start of the file
+   */
+  public long getOffset(int row) {
+    checkElementIndex(row, offsets.length);
+    return offsets[row];
+  }
+
+  /**
+   * Reads again the whole apartment of a row from the file
+   *
+   * @param row the row of the apartment in the batch
+   * @return the apartment, fully validated
+   * @throws IOException if the file cannot be read
+   */
+  public Apartment fetch(int row) throws IOException {
+    return fetch(new int[] {row}).get(0);
+  }
+
+  /**
+   * Reads again the whole apartments of some rows from the file, in a single pass over the file
+   *
+   * @param rows the rows of the apartments in the batch, in any order
+   * @return the apartments, fully validated, in the order of <code>rows</code>
+   * @throws IOException if the file cannot be read
+   */
+  public ImmutableList<Apartment> fetch(int[] rows) throws IOException {
+    for (int row : rows) {
+      checkElementIndex(row, offsets.length);
+    }
+    Apartment[] apartments = new Apartment[rows.length];
+    int[] order =
+        IntStream.range(0, rows.length)
+            .boxed()
+            .sorted(Comparator.comparingLong(i -> offsets[rows[i]]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    try (Reader reader = Files.newBufferedReader(jsonPath, StandardCharsets.UTF_8)) {
+      long position = 0;
+      int previous = -1;
+      for (int i : order) {
+        int row = rows[i];
+        if (previous >= 0 && rows[previous] == row) {
+          apartments[i] = apartments[previous];
+          continue;
+        }
+        previous = i;
+        skipFully(reader, offsets[row] - position);
+        char[] json = new char[lengths[row]];
+        readFully(reader, json);
+        position = offsets[row] + lengths[row];
+        apartments[i] = ApartmentJsonReader.readObject(new String(json));
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return ImmutableList.copyOf(apartments);
+  }
+
+  private static void skipFully(Reader reader, long n) throws IOException {
+    long remaining = n;
+    while (remaining > 0) {
+      long skipped = reader.skip(remaining);
+      if (skipped == 0) {
+        throw new IOException("The file has changed since the catalogue was read");
+      }
+      remaining -= skipped;
+    }
+  }
+
+  private static void readFully(Reader reader, char[] dest) throws IOException {
+    int read = 0;
+    while (read < dest.length) {
+      int count = reader.read(dest, read, dest.length - read);
+      if (count < 0) {
+        throw new IOException("The file has changed since the catalogue was read");
+      }
+      read += count;
+    }
+  }
+}
@@ -2,15 +2,25 @@ package io.github.oliviercailloux.y2018.apartments.apartment.json;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import com.google.common.base.VerifyException;
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import io.github.oliviercailloux.y2018.apartments.apartment.BatchApartmentLoader;
+import io.github.oliviercailloux.y2018.apartments.utils.AtomicFiles;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import javax.json.bind.Jsonb;
 import javax.json.bind.JsonbBuilder;
 import javax.json.bind.JsonbConfig;
@@ -27,6 +37,9 @@ public abstract class JsonConvert {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(JsonConvert.class);
 
+  /** The size of the buffer of the compressor of the JSON files written with gzip. */
+  private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
   private JsonConvert() {}
 
   /**
@@ -39,45 +52,64 @@ public abstract class JsonConvert {
   }
 
   /**
-   * The method return a default JSON file read by jsonToApartments.
+   * Gives the default Apartments, read once and shared by the whole process.
    *
-   * @return <i>Path</i> where jsonToApartments will read.
+   * @return <i>List</i> the immutable list of the default Apartments
+   * @see DefaultApartments
    */
-  private static Path startApartments() {
-    try {
-      URI ressource = JsonConvert.class.getResource("defaultApartments.json").toURI();
-      return Path.of(ressource);
-    } catch (URISyntaxException e) {
-      throw new VerifyException(e);
-    }
+  public static List<Apartment> getDefaultApartments() {
+    return DefaultApartments.get().getApartments();
   }
 
   /**
-   * Converts a JSON expression to a list of Apartments.
+   * Converts a JSON expression to a list of Apartments. The expression is read by {@link
+   * ApartmentJsonCodec}; JSON-B is only used when a known member has a value of a type that the
+   * codec does not convert. The Apartments sharing an address, a title or a description share one
+   * instance of it, canonicalized by a pool of their own.
    *
-   * @return <i>List</i> the list of Apartments created
+   * @param jsonPath {@link Path} the JSON expression to convert into a list of Apartments
+   * @return the list of Apartments created
+   * @throws IOException if the file doesn't exists
    */
-  public static List<Apartment> getDefaultApartments() {
-    Path apartPath = startApartments();
-    try {
-      return jsonToApartments(apartPath);
-    } catch (IOException io) {
-      throw new IllegalStateException(
-          "We are reading a resource file, it should not have an Exception", io);
-    }
+  public static List<Apartment> jsonToApartments(Path jsonPath) throws IOException {
+    return jsonToApartments(jsonPath, ApartmentStringPool.create());
   }
 
   /**
-   * Converts a JSON expression to a list of Apartments.
+   * Converts a JSON expression to a list of Apartments held in memory, whose addresses, titles and
+   * descriptions are the canonical instances of a pool, so that the Apartments sharing a string do
+   * not each hold a copy of it.
    *
    * @param jsonPath {@link Path} the JSON expression to convert into a list of Apartments
+   * @param pool the pool of the catalogue the Apartments are read into
    * @return the list of Apartments created
    * @throws IOException if the file doesn't exists
+   * @see ApartmentStringPool
+   */
+  public static List<Apartment> jsonToApartments(Path jsonPath, ApartmentStringPool pool)
+      throws IOException {
+    checkNotNull(pool);
+    try (InputStream input = Files.newInputStream(jsonPath)) {
+      return ApartmentJsonCodec.read(input, pool);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } catch (ApartmentJsonReader.UnexpectedTypeException e) {
+      LOGGER.info("Reading {} with JSON-B: {}", jsonPath, e.getMessage());
+      return bindApartments(Files.readString(jsonPath)).stream()
+          .map(pool::canonicalize)
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Converts a JSON expression to a list of Apartments with JSON-B.
+   *
+   * @param jsonString the JSON expression to convert into a list of Apartments
+   * @return the list of Apartments created
    */
   @SuppressWarnings("serial")
-  public static List<Apartment> jsonToApartments(Path jsonPath) throws IOException {
+  private static List<Apartment> bindApartments(String jsonString) {
     JsonbConfig config = new JsonbConfig().withAdapters(JsonConvert.getAdapter());
-    String jsonString = Files.readString(jsonPath);
     List<Apartment> apartments = new ArrayList<>();
     LOGGER.info("Create ArrayList of Apartment");
     try (Jsonb jsonb = JsonbBuilder.create(config)) {
@@ -94,6 +126,51 @@ public abstract class JsonConvert {
     return apartments;
   }
 
+  /**
+   * Converts a JSON expression to a batch of Apartments stored by columns.
+   *
+   * @param jsonPath {@link Path} the JSON expression to convert into a batch of Apartments
+   * @return the batch of the Apartments read, in the order of the JSON array
+   * @throws IOException if the file doesn't exists
+   */
+  public static ApartmentBatch jsonToApartmentBatch(Path jsonPath) throws IOException {
+    ApartmentBatch.Builder builder = new ApartmentBatch.Builder();
+    try (ApartmentJsonReader reader = ApartmentJsonReader.of(Files.newInputStream(jsonPath))) {
+      reader.forEachRemaining(builder::add);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads only the columns of some criteria from a JSON expression, as needed to score the
+   * Apartments, skipping the other members, notably the titles and descriptions, without converting
+   * them. The whole Apartments of the rows worth showing can then be fetched from the file.
+   *
+   * @param jsonPath {@link Path} the JSON expression to read, in UTF-8
+   * @param criteria the criteria whose columns to read, typically those having a positive weight
+   * @return the catalogue of the Apartments read, in the order of the JSON array
+   * @throws IOException if the file doesn't exists
+   * @see JsonCatalogue
+   */
+  public static JsonCatalogue readColumns(Path jsonPath, Set<Criterion> criteria)
+      throws IOException {
+    return JsonCatalogue.read(jsonPath, criteria);
+  }
+
+  /**
+   * Reads lazily the Apartments of a JSON expression, without holding the whole expression nor all
+   * the Apartments in memory.
+   *
+   * @param jsonStream the JSON expression to convert, closed when the returned stream is closed
+   * @return the Apartments read, in the order of the JSON array
+   * @see ApartmentJsonReader
+   */
+  public static Stream<Apartment> jsonToApartmentStream(InputStream jsonStream) {
+    return ApartmentJsonReader.of(jsonStream).stream();
+  }
+
   /** A method that implement a {@link JsonbAdapter} to avoid the use of ApartmentBuilder Code */
   public static JsonbAdapter<Apartment, Apartment.Builder> getAdapter() {
     return new JsonbAdapter<>() {
@@ -143,10 +220,126 @@ public abstract class JsonConvert {
    */
   public static void apartmentsToJson(List<Apartment> listApartments, Path jsonPath)
       throws IOException {
-    Files.writeString(jsonPath, apartmentsToJsonString(listApartments));
+    apartmentsToJson(listApartments, jsonPath, false);
+  }
+
+  /**
+   * Converts Apartments to a JSON file, writing them one after the other so that the whole JSON
+   * expression is never held in memory. The file is first written next to <code>jsonPath</code>,
+   * then moved to it atomically when the file system supports it: a reader of <code>jsonPath</code>
+   * sees either its previous content or the complete new one.
+   *
+   * @param apartments the Apartments to convert into JSON, iterated once
+   * @param jsonPath the path of the JSON file to create or to overwrite
+   * @param gzip whether to compress the file with gzip
+   * @throws IOException if the JSON file can't be created.
+   */
+  public static void apartmentsToJson(Iterable<Apartment> apartments, Path jsonPath, boolean gzip)
+      throws IOException {
+    checkNotNull(apartments);
+    Path temporary = AtomicFiles.createTemporaryFile(jsonPath);
+    try {
+      /* The file is closed even if the compressor fails to write its header. */
+      try (OutputStream file = Files.newOutputStream(temporary);
+          OutputStream output = gzip ? new GZIPOutputStream(file, GZIP_BUFFER_SIZE) : file;
+          ApartmentJsonWriter writer = ApartmentJsonWriter.of(output)) {
+        writer.writeAll(apartments);
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      AtomicFiles.moveAtomically(temporary, jsonPath);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    LOGGER.info("Apartment have been converted with success");
+  }
+
+  /**
+   * Converts Apartments to a JSON Lines file, with one JSON object of an Apartment per line. As
+   * {@link #apartmentsToJson(Iterable, Path, boolean)} does, the Apartments are written one after
+   * the other and the file is replaced atomically.
+   *
+   * @param apartments the Apartments to convert into JSON, iterated once
+   * @param jsonLinesPath the path of the JSON Lines file to create or to overwrite
+   * @throws IOException if the JSON Lines file can't be created.
+   */
+  public static void apartmentsToJsonLines(Iterable<Apartment> apartments, Path jsonLinesPath)
+      throws IOException {
+    checkNotNull(apartments);
+    Path temporary = AtomicFiles.createTemporaryFile(jsonLinesPath);
+    try {
+      try (Writer writer = Files.newBufferedWriter(temporary)) {
+        JsonLines.write(apartments, writer);
+      }
+      AtomicFiles.moveAtomically(temporary, jsonLinesPath);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
     LOGGER.info("Apartment have been converted with success");
   }
 
+  /**
+   * Converts a JSON Lines file, with one JSON object of an Apartment per line, to a list of
+   * Apartments. The file is split in ranges of lines that are parsed in parallel, in the common
+   * fork-join pool. The Apartments sharing an address, a title or a description share one instance
+   * of it, canonicalized by a pool that the ranges share.
+   *
+   * @param jsonLinesPath the JSON Lines file to convert into a list of Apartments
+   * @return the list of Apartments read, in the order of the lines
+   * @throws IOException if the file doesn't exists
+   */
+  public static List<Apartment> jsonLinesToApartments(Path jsonLinesPath) throws IOException {
+    ApartmentStringPool pool = ApartmentStringPool.create();
+    List<List<Apartment>> ranges =
+        JsonLines.readRanges(
+            jsonLinesPath,
+            apartments -> apartments.map(pool::canonicalize).collect(Collectors.toList()));
+    return ranges.stream().flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  /**
+   * Imports the Apartments of a JSON Lines file without stopping at the invalid lines: the loader
+   * accepts the valid Apartments and puts the other lines in quarantine, with the reasons of their
+   * rejection. The file is read sequentially, without logging each Apartment built.
+   *
+   * @param jsonLinesPath the JSON Lines file to import
+   * @param loader receives the lines, named after the file and their number
+   * @throws IOException if the file doesn't exists
+   */
+  public static void jsonLinesToApartments(Path jsonLinesPath, BatchApartmentLoader loader)
+      throws IOException {
+    checkNotNull(loader);
+    JsonLines.load(jsonLinesPath, loader);
+    LOGGER.info(
+        "Imported {}: {} accepted, {} rejected.",
+        jsonLinesPath,
+        loader.getAcceptedCount(),
+        loader.getRejectedCount());
+  }
+
+  /**
+   * Converts a JSON Lines file to a batch of Apartments stored by columns, parsing it in parallel
+   * as {@link #jsonLinesToApartments(Path)} does, without holding all the Apartments in memory.
+   *
+   * @param jsonLinesPath the JSON Lines file to convert into a batch of Apartments
+   * @return the batch of the Apartments read, in the order of the lines
+   * @throws IOException if the file doesn't exists
+   */
+  public static ApartmentBatch jsonLinesToApartmentBatch(Path jsonLinesPath) throws IOException {
+    List<ApartmentBatch> ranges =
+        JsonLines.readRanges(
+            jsonLinesPath,
+            apartments -> {
+              ApartmentBatch.Builder builder = new ApartmentBatch.Builder();
+              apartments.forEach(builder::add);
+              return builder.build();
+            });
+    ApartmentBatch.Builder builder =
+        new ApartmentBatch.Builder(ranges.stream().mapToInt(ApartmentBatch::size).sum());
+    ranges.forEach(builder::addAll);
+    return builder.build();
+  }
+
   /**
    * Converts a list of Apartments to a JSON file.
    *
@@ -155,10 +348,6 @@ public abstract class JsonConvert {
    * @return <i>String</i> containing the list of Apartments in JSON format
    */
   public static String apartmentsToJsonString(List<Apartment> listApartments) {
-    try (Jsonb jsonb = JsonbBuilder.create()) {
-      return jsonb.toJson(listApartments);
-    } catch (Exception e) {
-      throw new IllegalStateException(e);
-    }
+    return ApartmentJsonCodec.toJson(listApartments);
   }
 }
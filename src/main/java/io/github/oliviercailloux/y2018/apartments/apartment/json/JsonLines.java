@@ -0,0 +1,169 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import com.google.common.io.ByteStreams;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.BatchApartmentLoader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes JSON Lines files of apartments, with one JSON object of an apartment per line.
+ * As a line feed never occurs inside a JSON value written on one line, nor inside a multi-byte
+ * character in UTF-8, a file can be split at any line feed into ranges of lines that are parsed
+ * independently.
+ */
+final class JsonLines {
+
+  /** The smallest number of bytes worth parsing in a range of its own. */
+  private static final int MIN_RANGE_BYTES = 1 << 20;
+
+  /** The number of ranges per thread of the pool, so that threads finishing early can steal. */
+  private static final int RANGES_PER_THREAD = 4;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private JsonLines() {}
+
+  /**
+   * Splits a JSON Lines file in ranges of lines, then parses the ranges in parallel in the common
+   * fork-join pool. Blank lines are skipped.
+   *
+   * @param path the JSON Lines file to read
+   * @param collector collects the apartments of a range, in the order of the lines
+   * @return the results of the ranges, in the order of the file
+   * @throws IOException if the file can't be read
+   */
+  static <R> List<R> readRanges(Path path, Function<Stream<Apartment>, R> collector)
+      throws IOException {
+    long[] starts = rangeStarts(path);
+    try {
+      return IntStream.range(0, starts.length - 1)
+          .parallel()
+          .mapToObj(i -> readRange(path, starts[i], starts[i + 1], collector))
+          .collect(Collectors.toList());
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Reads a JSON Lines file line by line, giving each line to a loader, which keeps the valid
+   * apartments and puts the others in quarantine. Blank lines are skipped.
+   *
+   * @param path the JSON Lines file to read
+   * @param loader receives the lines, named after the file and their number, starting from 1
+   * @throws IOException if the file can't be read
+   */
+  static void load(Path path, BatchApartmentLoader loader) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(path)) {
+      int number = 0;
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        number++;
+        if (line.isBlank()) {
+          continue;
+        }
+        String record = path.getFileName() + ":" + number;
+        Apartment.Builder builder;
+        try {
+          builder = ApartmentJsonReader.readObjectMembers(line);
+        } catch (IllegalArgumentException e) {
+          loader.reject(record, e.getMessage());
+          continue;
+        }
+        loader.add(record, builder);
+      }
+    }
+  }
+
+  /**
+   * Writes apartments, one per line
+   *
+   * @param apartments the apartments to write
+   * @param writer receives the lines
+   * @throws IOException if the writer fails
+   */
+  static void write(Iterable<Apartment> apartments, Writer writer) throws IOException {
+    for (Apartment apartment : apartments) {
+      writer.write(ApartmentJsonWriter.toJsonObject(apartment));
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Gives the positions where the ranges of a file start, each one at the start of a line
+   *
+   * @return the start of each range followed by the size of the file
+   */
+  private static long[] rangeStarts(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      long threads = (long) ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_THREAD;
+      int ranges = (int) Math.max(1, Math.min(threads, size / MIN_RANGE_BYTES));
+      long[] starts = new long[ranges + 1];
+      for (int i = 1; i < ranges; i++) {
+        starts[i] = Math.max(starts[i - 1], lineStart(channel, size * i / ranges, size));
+      }
+      starts[ranges] = size;
+      return starts;
+    }
+  }
+
+  /**
+   * Gives the position of the first line starting at or after a position
+   *
+   * @param position a position > 0 in the file
+   * @return the position found, or the size of the file if no line starts after the position
+   */
+  private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /* A line starts at the position when it follows a line feed. */
+    long scanned = position - 1;
+    while (scanned < size) {
+      buffer.clear();
+      int read = channel.read(buffer, scanned);
+      if (read < 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return scanned + i + 1;
+        }
+      }
+      scanned += read;
+    }
+    return size;
+  }
+
+  private static <R> R readRange(
+      Path path, long start, long end, Function<Stream<Apartment>, R> collector) {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      channel.position(start);
+      BufferedReader reader =
+          new BufferedReader(
+              new InputStreamReader(
+                  ByteStreams.limit(Channels.newInputStream(channel), end - start),
+                  StandardCharsets.UTF_8),
+              BUFFER_SIZE);
+      return collector.apply(
+          reader.lines().filter(line -> !line.isBlank()).map(ApartmentJsonReader::readObject));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
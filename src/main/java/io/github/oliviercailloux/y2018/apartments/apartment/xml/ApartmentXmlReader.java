@@ -0,0 +1,308 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Streams;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the apartments of an XML document written by {@link ApartmentXmlWriter} one after the
+ * other, as they come in the input, so that documents of millions of apartments can be read with
+ * constant memory. Each <code>apartment</code> element holds one <code>entry</code> element per
+ * attribute, keyed as in the files read by {@link ReadApartmentsXMLFormat}:
+ *
+ * <pre>
+ * &lt;apartments version="1"&gt;
+ *   &lt;apartment&gt;
+ *     &lt;entry key="address"&gt;...&lt;/entry&gt;
+ *     &lt;entry key="floorArea"&gt;...&lt;/entry&gt;
+ *     ...
+ *   &lt;/apartment&gt;
+ * &lt;/apartments&gt;
+ * </pre>
+ *
+ * <p>The floor area, the address and the title are required, as are the three booleans, given as
+ * <code>true</code> or <code>false</code>. Unknown entries and elements are skipped.
+ *
+ * <p>A malformed document, or an apartment that is not valid, makes the reading throw an {@link
+ * IllegalArgumentException}; a failure of the input makes it throw an {@link UncheckedIOException}.
+ * A reader holds no state shared with other readers, so that several threads can each read their
+ * own document at the same time. Closing the reader closes the input.
+ */
+public class ApartmentXmlReader implements Iterator<Apartment>, Closeable {
+
+  /**
+   * The factory of the parsers of the current thread, which the StAX specification does not require
+   * to be thread-safe.
+   */
+  private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY =
+      ThreadLocal.withInitial(
+          () -> {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+          });
+
+  private final InputStream input;
+
+  private final XMLStreamReader parser;
+
+  /** The pool of the strings read, <code>null</code> if they are not canonicalized. */
+  private final ApartmentStringPool pool;
+
+  /** The apartment read in advance by {@link #hasNext()}, <code>null</code> if none. */
+  private Apartment next;
+
+  /** Whether the end of the root element has been read. */
+  private boolean ended;
+
+  private ApartmentXmlReader(InputStream input, XMLStreamReader parser, ApartmentStringPool pool) {
+    this.input = input;
+    this.parser = parser;
+    this.pool = pool;
+    this.next = null;
+    this.ended = false;
+  }
+
+  /**
+   * Creates a reader of the apartments of an XML document
+   *
+   * @param input the stream to read, in the encoding declared by the document, closed when this
+   *     reader is closed
+   * @return a reader positioned before the first apartment of the document
+   */
+  public static ApartmentXmlReader of(InputStream input) {
+    checkNotNull(input);
+    return starting(input, null);
+  }
+
+  /**
+   * Creates a reader of the apartments of an XML document, whose apartments hold the canonical
+   * instances of their strings
+   *
+   * @param input the stream to read, closed when this reader is closed
+   * @param pool the pool of the catalogue the apartments are read into, which may be shared with
+   *     other readers
+   * @return a reader positioned before the first apartment of the document
+   * @see #of(InputStream)
+   */
+  public static ApartmentXmlReader of(InputStream input, ApartmentStringPool pool) {
+    checkNotNull(input);
+    checkNotNull(pool);
+    return starting(input, pool);
+  }
+
+  private static ApartmentXmlReader starting(InputStream input, ApartmentStringPool pool) {
+    ApartmentXmlReader reader;
+    try {
+      reader =
+          new ApartmentXmlReader(input, INPUT_FACTORY.get().createXMLStreamReader(input), pool);
+    } catch (XMLStreamException e) {
+      throw asUnchecked(e);
+    }
+    try {
+      reader.parser.nextTag();
+      reader.parser.require(XMLStreamConstants.START_ELEMENT, null, XmlFormat.ROOT);
+      String version = reader.parser.getAttributeValue(null, XmlFormat.VERSION_ATTRIBUTE);
+      if (!XmlFormat.VERSION.equals(version)) {
+        throw new IllegalArgumentException("Unsupported version " + version);
+      }
+    } catch (XMLStreamException e) {
+      reader.close();
+      throw asUnchecked(e);
+    } catch (RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+    return reader;
+  }
+
+  /**
+   * Gives the apartments not read yet, lazily: each one is read when the stream needs it. Closing
+   * the stream closes this reader.
+   *
+   * @return a sequential and ordered stream of the remaining apartments
+   */
+  public Stream<Apartment> stream() {
+    return Streams.stream(this).onClose(this::close);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !ended) {
+      try {
+        next = readNext();
+      } catch (XMLStreamException e) {
+        throw asUnchecked(e);
+      }
+    }
+    return next != null;
+  }
+
+  @Override
+  public Apartment next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Apartment apartment = next;
+    next = null;
+    return apartment;
+  }
+
+  @Override
+  public void close() {
+    try (InputStream closing = input) {
+      parser.close();
+    } catch (XMLStreamException e) {
+      throw asUnchecked(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the next apartment of the document
+   *
+   * @return the apartment read, or <code>null</code> at the end of the root element
+   */
+  private Apartment readNext() throws XMLStreamException {
+    while (parser.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (parser.getLocalName().equals(XmlFormat.APARTMENT)) {
+        return readApartment();
+      }
+      skipElement();
+    }
+    ended = true;
+    return null;
+  }
+
+  private Apartment readApartment() throws XMLStreamException {
+    Apartment.Builder builder = Apartment.bulkBuilder();
+    boolean floorAreaKnown = false;
+    while (parser.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (!parser.getLocalName().equals(XmlFormat.ENTRY)) {
+        skipElement();
+        continue;
+      }
+      String key = parser.getAttributeValue(null, XmlFormat.KEY_ATTRIBUTE);
+      if (key == null) {
+        throw new IllegalArgumentException("An entry without key at " + parser.getLocation());
+      }
+      String value = parser.getElementText();
+      floorAreaKnown |= key.equals("floorArea");
+      try {
+        readEntry(key, value, builder);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "Invalid value of " + key + " at " + parser.getLocation(), e);
+      }
+    }
+    if (!floorAreaKnown) {
+      throw new IllegalArgumentException(
+          "The floor area of the apartment ending at " + parser.getLocation() + " is missing");
+    }
+    try {
+      return builder.build();
+    } catch (IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid apartment ending at " + parser.getLocation(), e);
+    }
+  }
+
+  /**
+   * Sets the attribute of the apartment given by one of its entries
+   *
+   * @param key the key of the entry
+   * @param value the text of the entry
+   * @param builder the builder of the apartment
+   */
+  private void readEntry(String key, String value, Apartment.Builder builder) {
+    switch (key) {
+      case "address":
+        builder.setAddress(value, pool);
+        break;
+      case "description":
+        builder.setDescription(pool == null ? value : pool.canonicalText(value));
+        break;
+      case "title":
+        builder.setTitle(pool == null ? value : pool.canonicalText(value));
+        break;
+      case "floorArea":
+        builder.setFloorArea(Double.parseDouble(value));
+        break;
+      case "floorAreaTerrace":
+        builder.setFloorAreaTerrace(Double.parseDouble(value));
+        break;
+      case "pricePerNight":
+        builder.setPricePerNight(Double.parseDouble(value));
+        break;
+      case "nbBathrooms":
+        builder.setNbBathrooms(Integer.parseInt(value));
+        break;
+      case "nbBedrooms":
+        builder.setNbBedrooms(Integer.parseInt(value));
+        break;
+      case "nbMinNight":
+        builder.setNbMinNight(Integer.parseInt(value));
+        break;
+      case "nbSleeping":
+        builder.setNbSleeping(Integer.parseInt(value));
+        break;
+      case "tele":
+        builder.setTele(parseBoolean(key, value));
+        break;
+      case "terrace":
+        builder.setTerrace(parseBoolean(key, value));
+        break;
+      case "wifi":
+        builder.setWifi(parseBoolean(key, value));
+        break;
+      default:
+        break;
+    }
+  }
+
+  private boolean parseBoolean(String key, String value) {
+    switch (value) {
+      case "true":
+        return true;
+      case "false":
+        return false;
+      default:
+        throw new IllegalArgumentException(
+            "The value of " + key + " is not a boolean at " + parser.getLocation());
+    }
+  }
+
+  /** Skips the element just started, with all its content. */
+  private void skipElement() throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = parser.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  private static RuntimeException asUnchecked(XMLStreamException e) {
+    if (e.getNestedException() instanceof IOException) {
+      return new UncheckedIOException((IOException) e.getNestedException());
+    }
+    return new IllegalArgumentException(e);
+  }
+}
@@ -0,0 +1,178 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Writes apartments as an XML document, one after the other, so that documents of millions of
+ * apartments can be written with constant memory. The document, in UTF-8, can be read back by
+ * {@link ApartmentXmlReader}, which describes its format; each apartment has the entries that
+ * {@link XMLProperties} writes.
+ *
+ * <p>The document is only complete once the writer is closed, which also closes the output. A
+ * failure of the output makes the writing throw an {@link UncheckedIOException}. Once a write has
+ * failed, or the writing has been {@link #abort() aborted}, closing the writer only closes the
+ * output, leaving the document without its end, so that {@link ApartmentXmlReader} rejects it. A
+ * writer holds no state shared with other writers, so that several threads can each write their own
+ * document at the same time.
+ */
+public class ApartmentXmlWriter implements Closeable {
+
+  /**
+   * The factory of the writers of the current thread, which the StAX specification does not require
+   * to be thread-safe.
+   */
+  private static final ThreadLocal<XMLOutputFactory> OUTPUT_FACTORY =
+      ThreadLocal.withInitial(XMLOutputFactory::newFactory);
+
+  private final Writer output;
+
+  private final XMLStreamWriter writer;
+
+  private boolean closed;
+
+  /** Whether the apartments written may be incomplete, in which case the document must not end. */
+  private boolean failed;
+
+  private ApartmentXmlWriter(Writer output, XMLStreamWriter writer) {
+    this.output = output;
+    this.writer = writer;
+    this.closed = false;
+    this.failed = false;
+  }
+
+  /**
+   * Creates a writer of apartments to an output stream
+   *
+   * @param output the stream to write, buffered by the writer, closed when the writer is closed
+   * @return a writer that has written the start of the document
+   */
+  public static ApartmentXmlWriter of(OutputStream output) {
+    checkNotNull(output);
+    /* The JDK writes much faster to a buffered writer than to a stream with an encoding. */
+    Writer buffered =
+        new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+    try {
+      XMLStreamWriter writer = OUTPUT_FACTORY.get().createXMLStreamWriter(buffered);
+      writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      writer.writeCharacters("\n");
+      writer.writeStartElement(XmlFormat.ROOT);
+      writer.writeAttribute(XmlFormat.VERSION_ATTRIBUTE, XmlFormat.VERSION);
+      writer.writeCharacters("\n");
+      return new ApartmentXmlWriter(buffered, writer);
+    } catch (XMLStreamException e) {
+      throw asUnchecked(e);
+    }
+  }
+
+  /**
+   * Appends an apartment to the document
+   *
+   * @param apartment the apartment to write
+   * @return the current instance of ApartmentXmlWriter
+   */
+  public ApartmentXmlWriter write(Apartment apartment) {
+    checkNotNull(apartment);
+    checkState(!closed, "The writer is closed");
+    checkState(!failed, "A previous write failed");
+    failed = true;
+    try {
+      writer.writeStartElement(XmlFormat.APARTMENT);
+      writeEntry("address", apartment.getAddress());
+      writeEntry("description", apartment.getDescription());
+      writeEntry("floorArea", String.valueOf(apartment.getFloorArea()));
+      writeEntry("floorAreaTerrace", String.valueOf(apartment.getFloorAreaTerrace()));
+      writeEntry("nbBathrooms", String.valueOf(apartment.getNbBathrooms()));
+      writeEntry("nbBedrooms", String.valueOf(apartment.getNbBedrooms()));
+      writeEntry("nbMinNight", String.valueOf(apartment.getNbMinNight()));
+      writeEntry("nbSleeping", String.valueOf(apartment.getNbSleeping()));
+      writeEntry("pricePerNight", String.valueOf(apartment.getPricePerNight()));
+      writeEntry("tele", String.valueOf(apartment.getTele()));
+      writeEntry("terrace", String.valueOf(apartment.getTerrace()));
+      writeEntry("title", apartment.getTitle());
+      writeEntry("wifi", String.valueOf(apartment.getWifi()));
+      writer.writeEndElement();
+      writer.writeCharacters("\n");
+    } catch (XMLStreamException e) {
+      throw asUnchecked(e);
+    }
+    failed = false;
+    return this;
+  }
+
+  private void writeEntry(String key, String value) throws XMLStreamException {
+    writer.writeStartElement(XmlFormat.ENTRY);
+    writer.writeAttribute(XmlFormat.KEY_ATTRIBUTE, key);
+    writer.writeCharacters(value);
+    writer.writeEndElement();
+  }
+
+  /**
+   * Appends apartments to the document, in the order of iteration. If the iteration fails, the
+   * writing is aborted.
+   *
+   * @param apartments the apartments to write, iterated once
+   * @return the current instance of ApartmentXmlWriter
+   */
+  public ApartmentXmlWriter writeAll(Iterable<Apartment> apartments) {
+    try {
+      apartments.forEach(this::write);
+    } catch (RuntimeException e) {
+      failed = true;
+      throw e;
+    }
+    return this;
+  }
+
+  /**
+   * Abandons the writing, when the apartments to write cannot all be obtained: closing the writer
+   * will then leave the document without its end, so that it cannot be read.
+   */
+  public void abort() {
+    failed = true;
+  }
+
+  /**
+   * Writes the end of the document, then closes the output. If a write failed or the writing was
+   * aborted, only closes the output.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try (Writer closing = output) {
+      if (failed) {
+        return;
+      }
+      writer.writeEndElement();
+      writer.writeEndDocument();
+      writer.close();
+    } catch (XMLStreamException e) {
+      throw asUnchecked(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static RuntimeException asUnchecked(XMLStreamException e) {
+    if (e.getNestedException() instanceof IOException) {
+      return new UncheckedIOException((IOException) e.getNestedException());
+    }
+    return new UncheckedIOException(new IOException(e));
+  }
+}
@@ -1,7 +1,10 @@
 package io.github.oliviercailloux.y2018.apartments.apartment.xml;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment.Builder;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.InvalidPropertiesFormatException;
@@ -17,10 +20,24 @@ public class ReadApartmentsXMLFormat {
 
   private final Properties prop;
 
+  /** The pool of the strings read, <code>null</code> if they are not canonicalized. */
+  private final ApartmentStringPool pool;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(ReadApartmentsXMLFormat.class);
 
   public ReadApartmentsXMLFormat() {
     prop = new Properties();
+    pool = null;
+  }
+
+  /**
+   * Creates a reader whose apartments hold the canonical instances of their strings
+   *
+   * @param pool the pool of the catalogue the apartments are read into
+   */
+  public ReadApartmentsXMLFormat(ApartmentStringPool pool) {
+    prop = new Properties();
+    this.pool = checkNotNull(pool);
   }
 
   /**
@@ -58,7 +75,7 @@ public class ReadApartmentsXMLFormat {
       apartBuilder.setPricePerNight(Double.parseDouble(prop.getProperty("pricePerNight")));
     }
     if (prop.containsKey("description")) {
-      apartBuilder.setDescription(prop.getProperty("description"));
+      apartBuilder.setDescription(canonicalText(prop.getProperty("description")));
     }
     if (prop.containsKey("nbBedrooms")) {
       apartBuilder.setNbBedrooms(Integer.parseInt(prop.getProperty("nbBedrooms")));
@@ -84,10 +101,11 @@ public class ReadApartmentsXMLFormat {
 
   public Builder setObligatoryValues(Builder apartBuilder) {
     if (prop.containsKey("address")) {
-      apartBuilder.setAddress(prop.getProperty("address"));
+      String address = prop.getProperty("address");
+      apartBuilder.setAddress(address, pool);
     }
     if (prop.containsKey("title")) {
-      apartBuilder.setTitle(prop.getProperty("title"));
+      apartBuilder.setTitle(canonicalText(prop.getProperty("title")));
     }
     if (prop.containsKey("floorArea")) {
       apartBuilder.setFloorArea(Double.parseDouble(prop.getProperty("floorArea")));
@@ -95,6 +113,10 @@ public class ReadApartmentsXMLFormat {
     return apartBuilder;
   }
 
+  private String canonicalText(String text) {
+    return pool == null ? text : pool.canonicalText(text);
+  }
+
   public Builder setBooleanValues(Builder apartBuilder) {
     if (prop.containsKey("terrace")) {
       apartBuilder.setTerrace(Boolean.parseBoolean(prop.getProperty("terrace")));
@@ -0,0 +1,250 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The apartments of a directory tree of XML files, one apartment per file as {@link XMLProperties}
+ * writes them, along with the files that could not be read. The files are parsed concurrently by a
+ * bounded number of threads, each file by its own {@link ReadApartmentsXMLFormat}; a file that
+ * fails, or a directory that cannot be walked, does not stop the loading, it is only reported. The
+ * apartments share the canonical instances of their strings, kept by the {@link
+ * ApartmentStringPool} of the catalogue.
+ */
+public final class XmlDirectoryCatalogue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(XmlDirectoryCatalogue.class);
+
+  /** The number of files waiting for a thread, per thread. */
+  private static final int QUEUED_FILES_PER_THREAD = 4;
+
+  private final ImmutableList<Apartment> apartments;
+
+  private final ImmutableList<Path> files;
+
+  private final ImmutableMap<Path, String> errors;
+
+  private final ApartmentStringPool pool;
+
+  private XmlDirectoryCatalogue(
+      ImmutableList<Apartment> apartments,
+      ImmutableList<Path> files,
+      ImmutableMap<Path, String> errors,
+      ApartmentStringPool pool) {
+    this.apartments = apartments;
+    this.files = files;
+    this.errors = errors;
+    this.pool = pool;
+  }
+
+  /**
+   * Loads the XML files of a directory tree with one thread per available processor
+   *
+   * @param directory the root of the tree, whose files ending with <code>.xml</code> are read
+   * @return the apartments read and the files that could not be read
+   * @throws IOException if the root of the tree cannot be read
+   * @throws InterruptedException if the current thread is interrupted while waiting for the files
+   * @see #load(Path, int)
+   */
+  public static XmlDirectoryCatalogue load(Path directory)
+      throws IOException, InterruptedException {
+    return load(directory, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Loads the XML files of a directory tree, parsing at most <code>parallelism</code> files at
+   * once. The files are read in the order of their paths, so that the catalogue does not depend on
+   * the order in which the threads end.
+   *
+   * @param directory the root of the tree, whose files ending with <code>.xml</code> are read
+   * @param parallelism the number of threads parsing the files, >= 1
+   * @return the apartments read and the files that could not be read
+   * @throws IOException if the root of the tree cannot be read
+   * @throws InterruptedException if the current thread is interrupted while waiting for the files
+   */
+  public static XmlDirectoryCatalogue load(Path directory, int parallelism)
+      throws IOException, InterruptedException {
+    checkNotNull(directory);
+    checkArgument(parallelism >= 1, "At least one thread is needed");
+    List<Path> paths = new ArrayList<>();
+    /* The errors of the walk and of the files, sorted together by path. */
+    SortedMap<Path, String> errorsByPath = new TreeMap<>();
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            if (attributes.isRegularFile()
+                && file.toString().toLowerCase(Locale.ROOT).endsWith(".xml")) {
+              paths.add(file);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+            if (file.equals(directory)) {
+              throw e;
+            }
+            LOGGER.warn("Could not walk {}: {}", file, e.toString());
+            errorsByPath.put(file, e.toString());
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+            if (e != null) {
+              LOGGER.warn("Could not walk all of {}: {}", dir, e.toString());
+              errorsByPath.put(dir, e.toString());
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    paths.sort(null);
+
+    /* When the queue is full, the caller parses a file itself, which bounds the waiting tasks. */
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUED_FILES_PER_THREAD * parallelism),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    ApartmentStringPool pool = ApartmentStringPool.create();
+    List<Future<FileResult>> results = new ArrayList<>(paths.size());
+    try {
+      for (Path path : paths) {
+        results.add(executor.submit(() -> readFile(path, pool)));
+      }
+      ImmutableList.Builder<Apartment> apartments = ImmutableList.builder();
+      ImmutableList.Builder<Path> files = ImmutableList.builder();
+      for (int i = 0; i < paths.size(); i++) {
+        FileResult result = results.get(i).get();
+        if (result.apartment != null) {
+          apartments.add(result.apartment);
+          files.add(paths.get(i));
+        } else {
+          errorsByPath.put(paths.get(i), result.error);
+        }
+      }
+      XmlDirectoryCatalogue catalogue =
+          new XmlDirectoryCatalogue(
+              apartments.build(), files.build(), ImmutableMap.copyOf(errorsByPath), pool);
+      LOGGER.info(
+          "Loaded {} apartments from {}, {} files in error.",
+          catalogue.apartments.size(),
+          directory,
+          catalogue.errors.size());
+      return catalogue;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Unexpected failure while reading a file", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** The outcome of reading one file: either its apartment, or the reason why it failed. */
+  private static final class FileResult {
+    /** The apartment read, <code>null</code> if the file could not be read. */
+    private final Apartment apartment;
+
+    /** The reason of the failure, <code>null</code> if the apartment was read. */
+    private final String error;
+
+    private FileResult(Apartment apartment, String error) {
+      this.apartment = apartment;
+      this.error = error;
+    }
+  }
+
+  /**
+   * Reads the apartment of one file
+   *
+   * @return the apartment read, or the reason why the file could not be read
+   */
+  private static FileResult readFile(Path path, ApartmentStringPool pool) {
+    try (InputStream input = Files.newInputStream(path)) {
+      return new FileResult(new ReadApartmentsXMLFormat(pool).readApartment(input), null);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Could not read the apartment of {}: {}", path, e.toString());
+      return new FileResult(null, e.toString());
+    }
+  }
+
+  /**
+   * Gives the apartments read
+   *
+   * @return the apartments, in the order of the paths of their files
+   */
+  public ImmutableList<Apartment> getApartments() {
+    return apartments;
+  }
+
+  /**
+   * Gives the file of each apartment read
+   *
+   * @return the files, in the order of {@link #getApartments()}
+   */
+  public ImmutableList<Path> getFiles() {
+    return files;
+  }
+
+  /**
+   * Gives the files that could not be read, and the directories that could not be walked
+   *
+   * @return the reason of the failure of each file or directory, in the order of their paths
+   */
+  public ImmutableMap<Path, String> getErrors() {
+    return errors;
+  }
+
+  /**
+   * Gives the canonical strings of the apartments read
+   *
+   * @return the pool of the strings shared by the apartments
+   */
+  public ApartmentStringPool getStringPool() {
+    return pool;
+  }
+
+  /**
+   * Summarizes the loading, for an operator
+   *
+   * @return the number of apartments read, then one line per file that could not be read
+   */
+  public String getErrorSummary() {
+    StringBuilder summary =
+        new StringBuilder()
+            .append(apartments.size())
+            .append(" apartments read, ")
+            .append(errors.size())
+            .append(" files in error");
+    errors.forEach((path, reason) -> summary.append('\n').append(path).append(": ").append(reason));
+    return summary.toString();
+  }
+}
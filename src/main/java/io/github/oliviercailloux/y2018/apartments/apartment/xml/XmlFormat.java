@@ -0,0 +1,19 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+/** The names of the elements and attributes of an XML document of several apartments. */
+final class XmlFormat {
+
+  static final String ROOT = "apartments";
+
+  static final String VERSION_ATTRIBUTE = "version";
+
+  static final String VERSION = "1";
+
+  static final String APARTMENT = "apartment";
+
+  static final String ENTRY = "entry";
+
+  static final String KEY_ATTRIBUTE = "key";
+
+  private XmlFormat() {}
+}
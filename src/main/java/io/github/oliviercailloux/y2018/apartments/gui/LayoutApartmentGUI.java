@@ -1,9 +1,11 @@
 package io.github.oliviercailloux.y2018.apartments.gui;
 
+import com.google.common.collect.ImmutableList;
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
-import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.DefaultApartments;
+import io.github.oliviercailloux.y2018.apartments.ranking.RankedApartment;
+import io.github.oliviercailloux.y2018.apartments.ranking.Ranker;
 import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
-import java.util.ArrayList;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
@@ -18,6 +20,9 @@ public class LayoutApartmentGUI {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LayoutApartmentGUI.class);
 
+  /** The number of apartments displayed, the best ones of the catalogue */
+  private static final int NB_DISPLAYED = 49;
+
   java.util.List<Apartment> listApp;
   LinearAVF linearAVF;
 
@@ -43,23 +48,15 @@ public class LayoutApartmentGUI {
   }
 
   /**
-   * Method that creates a list of random apartments and tries them according to the utility of the
-   * user
+   * Method that ranks the default apartments according to the utility of the user and keeps the
+   * best ones
    *
    * @param linearAVF a way to rate the apartments
    */
   private static java.util.List<Apartment> getListSorted(LinearAVF linearAVF) {
-    java.util.List<Apartment> listApartment = JsonConvert.getDefaultApartments();
-    java.util.List<Apartment> appart = new ArrayList<>();
-
-    for (int i = 0; i < 49; i++) {
-      appart.add(listApartment.get(i));
-    }
-    appart.sort(
-        (Apartment c, Apartment d) ->
-            -Double.compare(linearAVF.getSubjectiveValue(c), linearAVF.getSubjectiveValue(d)));
-
-    return appart;
+    return Ranker.topK(DefaultApartments.get().getApartments(), linearAVF, NB_DISPLAYED).stream()
+        .map(RankedApartment::getApartment)
+        .collect(ImmutableList.toImmutableList());
   }
 
   /** General method which displays all the sorted apartment */
@@ -0,0 +1,68 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.primitives.ImmutableDoubleArray;
+import com.google.common.primitives.ImmutableIntArray;
+
+/**
+ * The best rows of an {@link io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch
+ * ApartmentBatch} with their scores, the best first, and the number of rows that were scored to
+ * find them.
+ */
+public final class BatchRanking {
+
+  private final ImmutableIntArray rows;
+  private final ImmutableDoubleArray scores;
+  private final int rowsScored;
+
+  private BatchRanking(ImmutableIntArray rows, ImmutableDoubleArray scores, int rowsScored) {
+    checkArgument(rows.length() == scores.length(), "Each row must have a score");
+    checkArgument(rowsScored >= rows.length(), "The rows ranked must have been scored");
+    this.rows = rows;
+    this.scores = scores;
+    this.rowsScored = rowsScored;
+  }
+
+  static BatchRanking create(int[] rows, double[] scores, int rowsScored) {
+    return new BatchRanking(
+        ImmutableIntArray.copyOf(rows), ImmutableDoubleArray.copyOf(scores), rowsScored);
+  }
+
+  /**
+   * Gives the number of rows ranked
+   *
+   * @return an integer between 0 and k
+   */
+  public int size() {
+    return rows.length();
+  }
+
+  /**
+   * Gives the rows ranked, the best first
+   *
+   * @return the indices of the best apartments in the batch
+   */
+  public ImmutableIntArray getRows() {
+    return rows;
+  }
+
+  /**
+   * Gives the scores of the rows ranked, in the same order as {@link #getRows()}
+   *
+   * @return the subjective values of the best apartments
+   */
+  public ImmutableDoubleArray getScores() {
+    return scores;
+  }
+
+  /**
+   * Gives the number of rows whose subjective value was computed to find the best ones. It is the
+   * size of the batch when every row was scored, and lower when the search stopped early.
+   *
+   * @return an integer >= {@link #size()}
+   */
+  public int getRowsScored() {
+    return rowsScored;
+  }
+}
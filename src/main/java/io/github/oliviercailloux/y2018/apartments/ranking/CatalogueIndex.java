@@ -0,0 +1,235 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * A batch of apartments with, for each criterion, its rows sorted by increasing objective value. It
+ * answers top-k queries with the Threshold Algorithm of Fagin, Lotem and Naor: the sorted lists of
+ * the criteria are read in parallel from their best end, each row met is scored, and the search
+ * stops as soon as the k-th best score exceeds the best score an unseen row could still have. Since
+ * the weighted sum is monotone in each subjective value, this gives the same ranking as scoring
+ * every row, while often scoring only a fraction of them.
+ */
+public final class CatalogueIndex {
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  private final ApartmentBatch batch;
+
+  /**
+   * For each criterion whose column the batch holds, the rows sorted by increasing objective value,
+   * then by index; <code>null</code> for the other criteria.
+   */
+  private final int[][] ascendingRows;
+
+  private CatalogueIndex(ApartmentBatch batch) {
+    this.batch = checkNotNull(batch);
+    this.ascendingRows = new int[CRITERIA.length][];
+    for (Criterion criterion : batch.getCriteria()) {
+      ascendingRows[criterion.ordinal()] =
+          IntStream.range(0, batch.size())
+              .boxed()
+              .sorted(Comparator.comparingDouble(row -> batch.getValue(criterion, row)))
+              .mapToInt(Integer::intValue)
+              .toArray();
+    }
+  }
+
+  /**
+   * Sorts the rows of a batch by each criterion
+   *
+   * @param batch the apartments to index
+   * @return the index of the batch
+   */
+  public static CatalogueIndex of(ApartmentBatch batch) {
+    return new CatalogueIndex(batch);
+  }
+
+  public ApartmentBatch getBatch() {
+    return batch;
+  }
+
+  /**
+   * Gives the row having the given rank when the rows are sorted by increasing objective value of a
+   * criterion, rows with equal values being sorted by index
+   *
+   * @param criterion the criterion sorting the rows
+   * @param rank the rank of the row, 0 for the lowest value
+   * @return the index of the row in the batch
+   */
+  public int getRow(Criterion criterion, int rank) {
+    checkArgument(batch.holds(criterion), "The batch does not hold the column of %s", criterion);
+    return ascendingRows[criterion.ordinal()][rank];
+  }
+
+  /**
+   * Gives the <code>k</code> rows with the highest subjective values, with the Threshold Algorithm.
+   * The criteria with a weight of zero are ignored. If a criterion with a positive weight has a
+   * partial value function that is not known to be monotone, or if a weight is negative or the
+   * weights do not sum to a positive value, the threshold is not an upper bound of the scores of
+   * the unread rows: the rows cannot be pruned and they are all scored.
+   *
+   * @param avf the value function giving the subjective values
+   * @param k the maximal number of rows to return, >= 0
+   * @return the same rows and scores as {@link Ranker#topK(ApartmentColumns, CompiledAVF, int)},
+   *     with the number of rows actually scored
+   */
+  public BatchRanking topK(CompiledAVF avf, int k) {
+    checkNotNull(avf);
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    checkArgument(avf.canScore(batch), "The batch misses the column of a weighted criterion");
+    if (!(avf.getWeightSum() > 0d)) {
+      return Ranker.topK(batch, avf, k);
+    }
+    for (Criterion criterion : CRITERIA) {
+      if (avf.getWeight(criterion) < 0d) {
+        return Ranker.topK(batch, avf, k);
+      }
+    }
+    List<Criterion> criteria = new ArrayList<>();
+    for (Criterion criterion : CRITERIA) {
+      if (avf.getWeight(criterion) == 0d) {
+        continue;
+      }
+      if (!avf.isNonDecreasing(criterion) && !avf.isNonIncreasing(criterion)) {
+        return Ranker.topK(batch, avf, k);
+      }
+      criteria.add(criterion);
+    }
+    if (criteria.isEmpty() || batch.size() == 0) {
+      return Ranker.topK(batch, avf, k);
+    }
+    return new ThresholdSearch(avf, criteria, Math.min(k, batch.size())).run();
+  }
+
+  /**
+   * The state of a search with the Threshold Algorithm. Rather than reading the sorted lists in
+   * turn, the search reads the list whose next change of subjective value lowers the threshold most
+   * for each row read, so that a list on a plateau, such as a boolean criterion or a linear one
+   * saturated at 1, is only read when it is worth it.
+   */
+  private class ThresholdSearch {
+
+    private final CompiledAVF avf;
+    private final Criterion[] criteria;
+    private final int k;
+    private final TopKHeap heap;
+    private final double[] scores;
+    private final boolean[] seen;
+    private int rowsScored;
+
+    /** For each criterion searched, the number of rows read from the best end of its list. */
+    private final int[] depths;
+
+    /**
+     * For each criterion searched, a position after its depth at which the subjective value is
+     * lower than at its depth, or the size of the batch if there is none.
+     */
+    private final int[] drops;
+
+    ThresholdSearch(CompiledAVF avf, List<Criterion> criteria, int k) {
+      this.avf = avf;
+      this.criteria = criteria.toArray(new Criterion[0]);
+      this.k = k;
+      this.heap = new TopKHeap(k);
+      this.scores = new double[batch.size()];
+      this.seen = new boolean[batch.size()];
+      this.rowsScored = 0;
+      this.depths = new int[this.criteria.length];
+      this.drops = new int[this.criteria.length];
+    }
+
+    BatchRanking run() {
+      while (k > 0 && !(heap.size() == k && heap.worstScore() > threshold())) {
+        int i = nextList();
+        if (depths[i] == batch.size()) {
+          /* Every row has been read, hence scored. */
+          break;
+        }
+        int row = rowAt(i, depths[i]);
+        depths[i]++;
+        if (!seen[row]) {
+          seen[row] = true;
+          scores[row] = avf.score(batch, row);
+          rowsScored++;
+          heap.offer(scores[row], row);
+        }
+      }
+      int[] rows = heap.pollAll();
+      double[] rowScores = new double[rows.length];
+      for (int j = 0; j < rows.length; j++) {
+        rowScores[j] = scores[rows[j]];
+      }
+      return BatchRanking.create(rows, rowScores, rowsScored);
+    }
+
+    /**
+     * The best score an unread row could have. It sums the weighted values in the same order as the
+     * scores do, and both sum and division are monotone in floating point, so no unread row can
+     * score above it, even after rounding. The comparison with the k-th score being strict, an
+     * unread row cannot tie with a kept row of higher index either.
+     */
+    private double threshold() {
+      double sum = 0.0d;
+      for (int i = 0; i < criteria.length; i++) {
+        sum += avf.getWeight(criteria[i]) * valueAt(i, depths[i]);
+      }
+      return sum / avf.getWeightSum();
+    }
+
+    /**
+     * Chooses the list giving the greatest decrease of the threshold per row read, up to its next
+     * change of subjective value.
+     */
+    private int nextList() {
+      int best = 0;
+      double bestGain = -1d;
+      for (int i = 0; i < criteria.length; i++) {
+        if (depths[i] == batch.size()) {
+          return i;
+        }
+        drops[i] = Math.max(drops[i], depths[i] + 1);
+        double value = valueAt(i, depths[i]);
+        while (drops[i] < batch.size() && valueAt(i, drops[i]) >= value) {
+          drops[i]++;
+        }
+        double gain =
+            avf.getWeight(criteria[i]) * (value - valueAt(i, drops[i])) / (drops[i] - depths[i]);
+        if (gain > bestGain) {
+          best = i;
+          bestGain = gain;
+        }
+      }
+      return best;
+    }
+
+    /** The row at the given position of a list, read from its best end. */
+    private int rowAt(int i, int position) {
+      return avf.isNonDecreasing(criteria[i])
+          ? getRow(criteria[i], batch.size() - 1 - position)
+          : getRow(criteria[i], position);
+    }
+
+    /**
+     * The subjective value at the given position of a list, read from its best end, or 0 past its
+     * end.
+     */
+    private double valueAt(int i, int position) {
+      if (position == batch.size()) {
+        return 0d;
+      }
+      Criterion criterion = criteria[i];
+      return avf.getSubjectiveValue(criterion, batch.getValue(criterion, rowAt(i, position)));
+    }
+  }
+}
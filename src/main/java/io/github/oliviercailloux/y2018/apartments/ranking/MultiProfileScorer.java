@@ -0,0 +1,244 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scores a batch of apartments against many value functions at once, such as one per user session.
+ * The value functions sharing the same partial value functions, and differing only by their
+ * weights, are grouped: for each group, the subjective values of a tile of apartments are computed
+ * once per criterion, then multiplied by the weights of every value function of the group while the
+ * tile is still in cache. The tiles are scored in parallel.
+ *
+ * <p>Each score is exactly the one {@link CompiledAVF#score(ApartmentColumns, int)} gives.
+ */
+public final class MultiProfileScorer {
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  /**
+   * The number of apartments of a tile, small enough for the subjective values of all criteria to
+   * stay in the L1 cache.
+   */
+  private static final int TILE = 256;
+
+  /**
+   * The buffers of the thread scoring a tile, kept from one tile and one call to the next so that
+   * scoring allocates nothing once each worker has scored its first tile.
+   */
+  private static final ThreadLocal<TileBuffers> BUFFERS = ThreadLocal.withInitial(TileBuffers::new);
+
+  private final ImmutableList<CompiledAVF> avfs;
+  private final ImmutableList<Group> groups;
+
+  /** The value functions sharing the same partial value functions. */
+  private static class Group {
+
+    private final CompiledAVF functions;
+    private final List<Integer> columns = new ArrayList<>();
+
+    Group(CompiledAVF functions) {
+      this.functions = functions;
+    }
+  }
+
+  /** The buffers needed to score a tile, each one holding a value per apartment of the tile. */
+  private static class TileBuffers {
+
+    /** The subjective values of the tile, criterion by criterion. */
+    private final double[][] values = new double[CRITERIA.length][TILE];
+
+    /** The weighted sums of the tile. */
+    private final double[] sums = new double[TILE];
+  }
+
+  private MultiProfileScorer(List<CompiledAVF> avfs) {
+    this.avfs = ImmutableList.copyOf(avfs);
+    List<Group> grouped = new ArrayList<>();
+    for (int column = 0; column < this.avfs.size(); column++) {
+      CompiledAVF avf = this.avfs.get(column);
+      Group group =
+          grouped.stream()
+              .filter(g -> g.functions.hasSameValueFunctions(avf))
+              .findFirst()
+              .orElse(null);
+      if (group == null) {
+        group = new Group(avf);
+        grouped.add(group);
+      }
+      group.columns.add(column);
+    }
+    this.groups = ImmutableList.copyOf(grouped);
+  }
+
+  /**
+   * Creates a scorer for the given value functions
+   *
+   * @param avfs the value functions, one per column of the score matrices
+   * @return a scorer for these value functions
+   */
+  public static MultiProfileScorer of(List<CompiledAVF> avfs) {
+    return new MultiProfileScorer(checkNotNull(avfs));
+  }
+
+  /**
+   * Gives the number of distinct sets of partial value functions, hence of subjective values
+   * computed per apartment and criterion
+   *
+   * @return an integer between 0 and the number of value functions
+   */
+  public int getGroupCount() {
+    return groups.size();
+  }
+
+  /**
+   * Scores a batch against every value function, on the common pool
+   *
+   * @param batch the apartments to score
+   * @return the matrix of the subjective values, one column per value function
+   */
+  public ScoreMatrix score(ApartmentBatch batch) {
+    return score(batch, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Scores a batch against every value function
+   *
+   * @param batch the apartments to score
+   * @param pool the pool running the scoring tasks
+   * @return the matrix of the subjective values, one column per value function
+   */
+  public ScoreMatrix score(ApartmentBatch batch, ForkJoinPool pool) {
+    checkNotNull(batch);
+    checkNotNull(pool);
+    for (CompiledAVF avf : avfs) {
+      checkArgument(avf.canScore(batch), "The batch misses the column of a weighted criterion");
+    }
+    double[][] columns = new double[avfs.size()][batch.size()];
+    int tiles = (batch.size() + TILE - 1) / TILE;
+    pool.invoke(new TilesTask(batch, columns, 0, tiles));
+    return new ScoreMatrix(columns, batch.size());
+  }
+
+  /**
+   * Gives, for each value function, the <code>k</code> rows with the highest subjective values,
+   * scoring the batch on the common pool
+   *
+   * @param batch the apartments to rank
+   * @param k the maximal number of rows per ranking, >= 0
+   * @return one ranking per value function, the same as {@link Ranker#topK(ApartmentColumns,
+   *     CompiledAVF, int)} gives
+   */
+  public ImmutableList<BatchRanking> topK(ApartmentBatch batch, int k) {
+    return topK(batch, k, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Gives, for each value function, the <code>k</code> rows with the highest subjective values
+   *
+   * @param batch the apartments to rank
+   * @param k the maximal number of rows per ranking, >= 0
+   * @param pool the pool running the scoring tasks
+   * @return one ranking per value function, the same as {@link Ranker#topK(ApartmentColumns,
+   *     CompiledAVF, int)} gives
+   */
+  public ImmutableList<BatchRanking> topK(ApartmentBatch batch, int k, ForkJoinPool pool) {
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    ScoreMatrix matrix = score(batch, pool);
+    ImmutableList.Builder<BatchRanking> rankings = ImmutableList.builder();
+    for (int column = 0; column < matrix.getColumnCount(); column++) {
+      double[] scores = matrix.column(column);
+      TopKHeap heap = new TopKHeap(Math.min(k, scores.length));
+      for (int row = 0; row < scores.length; row++) {
+        heap.offer(scores[row], row);
+      }
+      int[] rows = heap.pollAll();
+      double[] rowScores = new double[rows.length];
+      for (int i = 0; i < rows.length; i++) {
+        rowScores[i] = scores[rows[i]];
+      }
+      rankings.add(BatchRanking.create(rows, rowScores, scores.length));
+    }
+    return rankings.build();
+  }
+
+  /**
+   * Scores the apartments of one tile for every value function
+   *
+   * @param buffers the buffers of the current thread
+   */
+  private void scoreTile(ApartmentBatch batch, int tile, double[][] columns, TileBuffers buffers) {
+    double[][] values = buffers.values;
+    double[] sums = buffers.sums;
+    int from = tile * TILE;
+    int length = Math.min(TILE, batch.size() - from);
+    for (Group group : groups) {
+      for (Criterion criterion : batch.getCriteria()) {
+        group.functions.getSubjectiveValues(
+            batch, criterion, from, length, values[criterion.ordinal()]);
+      }
+      for (int column : group.columns) {
+        CompiledAVF avf = avfs.get(column);
+        /* Summed in the order of the criteria, as CompiledAVF does, to give the same scores. */
+        for (int j = 0; j < length; j++) {
+          sums[j] = 0.0d;
+        }
+        for (Criterion criterion : batch.getCriteria()) {
+          double weight = avf.getWeight(criterion);
+          double[] criterionValues = values[criterion.ordinal()];
+          for (int j = 0; j < length; j++) {
+            sums[j] += weight * criterionValues[j];
+          }
+        }
+        double weightSum = avf.getWeightSum();
+        double[] scores = columns[column];
+        for (int j = 0; j < length; j++) {
+          scores[from + j] = sums[j] / weightSum;
+        }
+      }
+    }
+  }
+
+  /** Scores a range of tiles, splitting it in two until it holds a single tile. */
+  private class TilesTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ApartmentBatch batch;
+    private final double[][] columns;
+    private final int fromTile;
+    private final int toTile;
+
+    TilesTask(ApartmentBatch batch, double[][] columns, int fromTile, int toTile) {
+      this.batch = batch;
+      this.columns = columns;
+      this.fromTile = fromTile;
+      this.toTile = toTile;
+    }
+
+    @Override
+    protected void compute() {
+      if (toTile - fromTile <= 1) {
+        TileBuffers buffers = BUFFERS.get();
+        for (int tile = fromTile; tile < toTile; tile++) {
+          scoreTile(batch, tile, columns, buffers);
+        }
+        return;
+      }
+      int middle = (fromTile + toTile) >>> 1;
+      invokeAll(
+          new TilesTask(batch, columns, fromTile, middle),
+          new TilesTask(batch, columns, middle, toTile));
+    }
+  }
+}
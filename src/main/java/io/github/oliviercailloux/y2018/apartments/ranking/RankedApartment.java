@@ -0,0 +1,59 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.util.Objects;
+
+/** An apartment associated with the subjective value that ranked it. */
+public class RankedApartment {
+
+  private final Apartment apartment;
+  private final double score;
+
+  private RankedApartment(Apartment apartment, double score) {
+    this.apartment = checkNotNull(apartment);
+    this.score = score;
+  }
+
+  /**
+   * Creates a ranked apartment
+   *
+   * @param apartment the apartment ranked
+   * @param score the subjective value of the apartment
+   * @return the apartment with its score
+   */
+  public static RankedApartment create(Apartment apartment, double score) {
+    return new RankedApartment(apartment, score);
+  }
+
+  public Apartment getApartment() {
+    return apartment;
+  }
+
+  /**
+   * Gives the subjective value of the apartment
+   *
+   * @return a double, between 0 and 1 when the weights are not all zero
+   */
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof RankedApartment)) return false;
+    RankedApartment ranked = (RankedApartment) obj;
+    return ranked.apartment.equals(this.apartment) && Double.compare(ranked.score, this.score) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(apartment, score);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s%nScore : %f", apartment, score);
+  }
+}
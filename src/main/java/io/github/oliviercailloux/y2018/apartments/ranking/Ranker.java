@@ -0,0 +1,224 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The class Ranker gives the best apartments of a catalogue according to a value function. Each
+ * apartment is scored exactly once, and only the <code>k</code> best ones are kept in a bounded
+ * heap, which takes a time linear in the size of the catalogue when <code>k</code> is small.
+ * Apartments with the same score are ranked in the order of the catalogue.
+ */
+public final class Ranker {
+
+  /** The minimal number of apartments scored by a single task when ranking in parallel. */
+  private static final int MIN_CHUNK = 1024;
+
+  private Ranker() {}
+
+  /**
+   * Gives the <code>k</code> apartments with the highest subjective values
+   *
+   * @param apartments the catalogue to rank
+   * @param linearAVF the value function giving the subjective values
+   * @param k the maximal number of apartments to return, >= 0
+   * @return the best apartments with their scores, the best first
+   */
+  public static ImmutableList<RankedApartment> topK(
+      Collection<Apartment> apartments, LinearAVF linearAVF, int k) {
+    return topK(apartments, linearAVF.compile(), k);
+  }
+
+  /**
+   * Gives the <code>k</code> apartments with the highest subjective values
+   *
+   * @param apartments the catalogue to rank
+   * @param avf the value function giving the subjective values
+   * @param k the maximal number of apartments to return, >= 0
+   * @return the best apartments with their scores, the best first
+   */
+  public static ImmutableList<RankedApartment> topK(
+      Collection<Apartment> apartments, ApartmentValueFunction avf, int k) {
+    return topK(apartments, avf.compile(), k);
+  }
+
+  /**
+   * Gives the <code>k</code> apartments with the highest subjective values
+   *
+   * @param apartments the catalogue to rank
+   * @param avf the compiled value function giving the subjective values
+   * @param k the maximal number of apartments to return, >= 0
+   * @return the best apartments with their scores, the best first
+   */
+  public static ImmutableList<RankedApartment> topK(
+      Collection<Apartment> apartments, CompiledAVF avf, int k) {
+    checkNotNull(avf);
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    Apartment[] catalogue = apartments.toArray(new Apartment[0]);
+    double[] scores = new double[catalogue.length];
+    TopKHeap heap = new TopKHeap(Math.min(k, catalogue.length));
+    for (int i = 0; i < catalogue.length; i++) {
+      scores[i] = avf.score(catalogue[i]);
+      heap.offer(scores[i], i);
+    }
+    return toRanking(catalogue, scores, heap);
+  }
+
+  /**
+   * Gives the <code>k</code> apartments with the highest subjective values, scoring the catalogue
+   * in parallel on the common pool
+   *
+   * @param apartments the catalogue to rank
+   * @param linearAVF the value function giving the subjective values
+   * @param k the maximal number of apartments to return, >= 0
+   * @return the same ranking as {@link #topK(Collection, LinearAVF, int)}
+   */
+  public static ImmutableList<RankedApartment> parallelTopK(
+      Collection<Apartment> apartments, LinearAVF linearAVF, int k) {
+    return parallelTopK(apartments, linearAVF.compile(), k, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Gives the <code>k</code> apartments with the highest subjective values, scoring the catalogue
+   * in parallel on the common pool
+   *
+   * @param apartments the catalogue to rank
+   * @param avf the value function giving the subjective values
+   * @param k the maximal number of apartments to return, >= 0
+   * @return the same ranking as {@link #topK(Collection, ApartmentValueFunction, int)}
+   */
+  public static ImmutableList<RankedApartment> parallelTopK(
+      Collection<Apartment> apartments, ApartmentValueFunction avf, int k) {
+    return parallelTopK(apartments, avf.compile(), k, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Gives the <code>k</code> apartments with the highest subjective values, scoring the catalogue
+   * in parallel. The catalogue is split in chunks, each one keeps its own <code>k</code> best
+   * apartments, then these partial rankings are merged. Since ties are broken by the index in the
+   * catalogue, the result does not depend on the number of threads.
+   *
+   * @param apartments the catalogue to rank
+   * @param avf the compiled value function giving the subjective values
+   * @param k the maximal number of apartments to return, >= 0
+   * @param pool the pool running the scoring tasks
+   * @return the same ranking as {@link #topK(Collection, CompiledAVF, int)}
+   */
+  public static ImmutableList<RankedApartment> parallelTopK(
+      Collection<Apartment> apartments, CompiledAVF avf, int k, ForkJoinPool pool) {
+    checkNotNull(avf);
+    checkNotNull(pool);
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    Apartment[] catalogue = apartments.toArray(new Apartment[0]);
+    double[] scores = new double[catalogue.length];
+    int chunkSize = Math.max(MIN_CHUNK, catalogue.length / (4 * pool.getParallelism()) + 1);
+    TopKHeap heap =
+        pool.invoke(
+            new TopKTask(
+                catalogue,
+                scores,
+                avf,
+                Math.min(k, catalogue.length),
+                0,
+                catalogue.length,
+                chunkSize));
+    return toRanking(catalogue, scores, heap);
+  }
+
+  /**
+   * Gives the <code>k</code> rows of a batch with the highest subjective values, scoring every row
+   *
+   * @param batch the catalogue to rank
+   * @param avf the compiled value function giving the subjective values
+   * @param k the maximal number of rows to return, >= 0
+   * @return the best rows with their scores, the best first
+   */
+  public static BatchRanking topK(ApartmentColumns batch, CompiledAVF avf, int k) {
+    checkNotNull(avf);
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    double[] scores = avf.score(batch);
+    TopKHeap heap = new TopKHeap(Math.min(k, scores.length));
+    for (int i = 0; i < scores.length; i++) {
+      heap.offer(scores[i], i);
+    }
+    int[] rows = heap.pollAll();
+    double[] rowScores = new double[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      rowScores[i] = scores[rows[i]];
+    }
+    return BatchRanking.create(rows, rowScores, scores.length);
+  }
+
+  private static ImmutableList<RankedApartment> toRanking(
+      Apartment[] catalogue, double[] scores, TopKHeap heap) {
+    ImmutableList.Builder<RankedApartment> ranking = ImmutableList.builder();
+    for (int i : heap.pollAll()) {
+      ranking.add(RankedApartment.create(catalogue[i], scores[i]));
+    }
+    return ranking.build();
+  }
+
+  /**
+   * Scores the apartments between two indices of the catalogue and keeps the best ones, splitting
+   * the work in two until the chunks are small enough.
+   */
+  private static class TopKTask extends RecursiveTask<TopKHeap> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Apartment[] catalogue;
+    private final double[] scores;
+    private final CompiledAVF avf;
+    private final int k;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    TopKTask(
+        Apartment[] catalogue,
+        double[] scores,
+        CompiledAVF avf,
+        int k,
+        int from,
+        int to,
+        int chunkSize) {
+      this.catalogue = catalogue;
+      this.scores = scores;
+      this.avf = avf;
+      this.k = k;
+      this.from = from;
+      this.to = to;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected TopKHeap compute() {
+      if (to - from <= chunkSize) {
+        TopKHeap heap = new TopKHeap(Math.min(k, to - from));
+        for (int i = from; i < to; i++) {
+          scores[i] = avf.score(catalogue[i]);
+          heap.offer(scores[i], i);
+        }
+        return heap;
+      }
+      int middle = (from + to) >>> 1;
+      TopKTask left = new TopKTask(catalogue, scores, avf, k, from, middle, chunkSize);
+      TopKTask right = new TopKTask(catalogue, scores, avf, k, middle, to, chunkSize);
+      left.fork();
+      TopKHeap heap = new TopKHeap(Math.min(k, to - from));
+      heap.offerAll(right.compute());
+      heap.offerAll(left.join());
+      return heap;
+    }
+  }
+}
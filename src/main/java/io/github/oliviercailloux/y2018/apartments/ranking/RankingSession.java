@@ -0,0 +1,252 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import java.util.Arrays;
+
+/**
+ * Ranks a batch of apartments while the weights of a value function are being elicited. The
+ * subjective values of each apartment are computed once per criterion when the session is created;
+ * when the weights change, the weighted sums are updated with one multiply-add pass per changed
+ * criterion, and no partial value function is evaluated again.
+ *
+ * <p>The scores are those of a value function having the current weights, up to rounding errors: an
+ * incremental update does not add the terms in the same order as a full computation does. To keep
+ * these errors from accumulating, the sums are computed again from the cached subjective values
+ * every {@value #UPDATES_BETWEEN_REFRESHES} updates.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class RankingSession {
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  private static final int UPDATES_BETWEEN_REFRESHES = 64;
+
+  private final ApartmentBatch batch;
+
+  /** The value function whose partial value functions gave the cached subjective values. */
+  private final CompiledAVF functions;
+
+  /** The subjective values of each criterion, indexed by row. */
+  private final double[][] values;
+
+  private final double[] weights;
+  private double weightSum;
+
+  /** The weighted sums of the subjective values, not yet divided by the sum of the weights. */
+  private final double[] sums;
+
+  private int updatesSinceRefresh;
+
+  private RankingSession(ApartmentBatch batch, CompiledAVF avf) {
+    this.batch = checkNotNull(batch);
+    this.functions = checkNotNull(avf);
+    checkArgument(avf.canScore(batch), "The batch misses the column of a weighted criterion");
+    this.values = new double[CRITERIA.length][];
+    for (Criterion criterion : CRITERIA) {
+      /* A criterion whose column is not held keeps a weight of zero: it needs no values. */
+      values[criterion.ordinal()] = new double[batch.holds(criterion) ? batch.size() : 0];
+      if (batch.holds(criterion)) {
+        avf.getSubjectiveValues(batch, criterion, 0, batch.size(), values[criterion.ordinal()]);
+      }
+    }
+    this.weights = new double[CRITERIA.length];
+    for (Criterion criterion : CRITERIA) {
+      weights[criterion.ordinal()] = avf.getWeight(criterion);
+    }
+    updateWeightSum();
+    this.sums = new double[batch.size()];
+    refresh();
+  }
+
+  /**
+   * Starts a session ranking the given batch
+   *
+   * @param batch the apartments to rank
+   * @param avf the value function giving the initial subjective values
+   * @return a new session
+   */
+  public static RankingSession create(ApartmentBatch batch, CompiledAVF avf) {
+    return new RankingSession(batch, avf);
+  }
+
+  /**
+   * Starts a session ranking the given batch
+   *
+   * @param batch the apartments to rank
+   * @param linearAVF the value function giving the initial subjective values
+   * @return a new session
+   */
+  public static RankingSession create(ApartmentBatch batch, LinearAVF linearAVF) {
+    return new RankingSession(batch, linearAVF.compile());
+  }
+
+  /**
+   * Starts a session ranking the given batch
+   *
+   * @param batch the apartments to rank
+   * @param avf the value function giving the initial subjective values
+   * @return a new session
+   */
+  public static RankingSession create(ApartmentBatch batch, ApartmentValueFunction avf) {
+    return new RankingSession(batch, avf.compile());
+  }
+
+  public ApartmentBatch getBatch() {
+    return batch;
+  }
+
+  /**
+   * Takes into account the weights of the given value function, such as the one returned by {@link
+   * ApartmentValueFunction#adaptWeight(Criterion, Criterion)}
+   *
+   * @param avf a value function differing from the one of this session only by its weights
+   * @throws IllegalArgumentException if the partial value functions differ
+   */
+  public void update(ApartmentValueFunction avf) {
+    update(avf.compile());
+  }
+
+  /**
+   * Takes into account the weights of the given value function
+   *
+   * @param linearAVF a value function differing from the one of this session only by its weights
+   * @throws IllegalArgumentException if the partial value functions differ
+   */
+  public void update(LinearAVF linearAVF) {
+    update(linearAVF.compile());
+  }
+
+  /**
+   * Takes into account the weights of the given value function. Only the criteria whose weight
+   * changed cost a pass over the batch.
+   *
+   * @param avf a value function differing from the one of this session only by its weights, none of
+   *     which is negative
+   * @throws IllegalArgumentException if the partial value functions differ, or if a weight is
+   *     negative
+   */
+  public void update(CompiledAVF avf) {
+    checkArgument(
+        functions.hasSameValueFunctions(avf),
+        "Only the weights can change during a ranking session");
+    checkArgument(avf.canScore(batch), "The batch misses the column of a weighted criterion");
+    /* Both branches must reject the same weights, and reject them before changing any. */
+    for (Criterion criterion : CRITERIA) {
+      checkArgument(
+          avf.getWeight(criterion) >= 0, "The weight of %s cannot be negative", criterion);
+    }
+    if (++updatesSinceRefresh >= UPDATES_BETWEEN_REFRESHES) {
+      for (Criterion criterion : CRITERIA) {
+        weights[criterion.ordinal()] = avf.getWeight(criterion);
+      }
+      updateWeightSum();
+      refresh();
+      return;
+    }
+    for (Criterion criterion : CRITERIA) {
+      setWeight(criterion, avf.getWeight(criterion));
+    }
+  }
+
+  /**
+   * Changes the weight of one criterion
+   *
+   * @param criterion the criterion whose weight changes
+   * @param weight the new weight, >= 0, and 0 if the batch does not hold the column of the
+   *     criterion
+   */
+  public void setWeight(Criterion criterion, double weight) {
+    checkArgument(weight >= 0, "The given weight cannot be negative");
+    checkArgument(
+        weight == 0d || batch.holds(criterion),
+        "The batch does not hold the column of %s",
+        criterion);
+    int i = criterion.ordinal();
+    double delta = weight - weights[i];
+    if (delta == 0d) {
+      return;
+    }
+    double[] criterionValues = values[i];
+    for (int row = 0; row < sums.length; row++) {
+      sums[row] += delta * criterionValues[row];
+    }
+    weights[i] = weight;
+    updateWeightSum();
+  }
+
+  /**
+   * Gives the current weight of a criterion
+   *
+   * @param criterion the criterion we want to know the weight
+   * @return the weight of the criterion
+   */
+  public double getWeight(Criterion criterion) {
+    return weights[criterion.ordinal()];
+  }
+
+  /**
+   * Gives the subjective value of an apartment with the current weights
+   *
+   * @param row the index of the apartment in the batch
+   * @return the weighted sum of the subjective values divided by the sum of the weights
+   */
+  public double getScore(int row) {
+    checkElementIndex(row, sums.length);
+    return sums[row] / weightSum;
+  }
+
+  /**
+   * Gives the <code>k</code> rows with the highest subjective values with the current weights. It
+   * takes one pass over the cached sums, without evaluating any partial value function.
+   *
+   * @param k the maximal number of rows to return, >= 0
+   * @return the best rows with their scores, the best first
+   */
+  public BatchRanking topK(int k) {
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    TopKHeap heap = new TopKHeap(Math.min(k, sums.length));
+    for (int row = 0; row < sums.length; row++) {
+      heap.offer(sums[row] / weightSum, row);
+    }
+    int[] rows = heap.pollAll();
+    double[] scores = new double[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      scores[i] = getScore(rows[i]);
+    }
+    return BatchRanking.create(rows, scores, sums.length);
+  }
+
+  /** Sums the weights in the order of the criteria, as CompiledAVF does. */
+  private void updateWeightSum() {
+    double sum = 0.0d;
+    for (double weight : weights) {
+      sum += weight;
+    }
+    weightSum = sum;
+  }
+
+  /** Computes the weighted sums again from the cached subjective values, in the order of scores. */
+  private void refresh() {
+    Arrays.fill(sums, 0.0d);
+    for (Criterion criterion : CRITERIA) {
+      if (!batch.holds(criterion)) {
+        continue;
+      }
+      double weight = weights[criterion.ordinal()];
+      double[] criterionValues = values[criterion.ordinal()];
+      for (int row = 0; row < sums.length; row++) {
+        sums[row] += weight * criterionValues[row];
+      }
+    }
+    updatesSinceRefresh = 0;
+  }
+}
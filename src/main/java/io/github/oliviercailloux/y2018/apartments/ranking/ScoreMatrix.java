@@ -0,0 +1,66 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * The subjective values of the apartments of a batch for several value functions: a matrix with one
+ * row per apartment and one column per value function. The values of each column are stored
+ * contiguously.
+ */
+public final class ScoreMatrix {
+
+  private final int rows;
+
+  /** The scores of each value function, indexed by row. */
+  private final double[][] columns;
+
+  ScoreMatrix(double[][] columns, int rows) {
+    this.rows = rows;
+    this.columns = columns;
+  }
+
+  /**
+   * Gives the number of apartments scored
+   *
+   * @return the size of the batch scored
+   */
+  public int getRowCount() {
+    return rows;
+  }
+
+  /**
+   * Gives the number of value functions
+   *
+   * @return an integer >= 0
+   */
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  /**
+   * Gives the subjective value of an apartment for a value function
+   *
+   * @param row the index of the apartment in the batch
+   * @param column the index of the value function
+   * @return the subjective value
+   */
+  public double getScore(int row, int column) {
+    checkElementIndex(row, rows);
+    return columns[column][row];
+  }
+
+  /**
+   * Gives the subjective values of all the apartments for a value function
+   *
+   * @param column the index of the value function
+   * @return a copy of the column, indexed by row
+   */
+  public double[] getColumn(int column) {
+    return columns[column].clone();
+  }
+
+  /** Gives the column itself, for the rankings that only read it. */
+  double[] column(int column) {
+    return columns[column];
+  }
+}
@@ -0,0 +1,135 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A bounded min-heap of (score, index) pairs, stored in two primitive arrays, which keeps the
+ * <code>k</code> best pairs offered. A pair is better than another if its score is greater, or if
+ * the scores are equal and its index is lower: ties are thus broken by the stable index. The root
+ * of the heap is the worst pair kept, so that a new pair only has to be compared with it.
+ */
+class TopKHeap {
+
+  private final double[] scores;
+  private final int[] indices;
+  private int size;
+
+  /**
+   * Creates an empty heap
+   *
+   * @param k the number of pairs to keep, >= 0
+   */
+  TopKHeap(int k) {
+    checkArgument(k >= 0, "The number of apartments to keep cannot be negative");
+    this.scores = new double[k];
+    this.indices = new int[k];
+    this.size = 0;
+  }
+
+  /**
+   * Gives the number of pairs kept
+   *
+   * @return an integer between 0 and k
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gives the lowest score kept
+   *
+   * @return the score of the worst pair kept
+   */
+  double worstScore() {
+    checkState(size > 0, "The heap is empty");
+    return scores[0];
+  }
+
+  /**
+   * Offers a pair to the heap, which keeps it if it is among the k best pairs offered so far
+   *
+   * @param score the score of the pair
+   * @param index the index of the pair
+   */
+  void offer(double score, int index) {
+    if (size < scores.length) {
+      scores[size] = score;
+      indices[size] = index;
+      siftUp(size++);
+    } else if (size > 0 && isBetter(score, index, scores[0], indices[0])) {
+      scores[0] = score;
+      indices[0] = index;
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Offers all the pairs kept by another heap to this one
+   *
+   * @param other the heap whose pairs are offered, which is not modified
+   */
+  void offerAll(TopKHeap other) {
+    for (int i = 0; i < other.size; i++) {
+      offer(other.scores[i], other.indices[i]);
+    }
+  }
+
+  /**
+   * Gives the indices kept, the best first. The heap is emptied.
+   *
+   * @return an array of the indices kept, in decreasing order of score
+   */
+  int[] pollAll() {
+    int[] sorted = new int[size];
+    while (size > 0) {
+      sorted[size - 1] = indices[0];
+      size--;
+      scores[0] = scores[size];
+      indices[0] = indices[size];
+      siftDown(0);
+    }
+    return sorted;
+  }
+
+  private static boolean isBetter(double score, int index, double otherScore, int otherIndex) {
+    int comparison = Double.compare(score, otherScore);
+    return comparison > 0 || (comparison == 0 && index < otherIndex);
+  }
+
+  private void siftUp(int position) {
+    double score = scores[position];
+    int index = indices[position];
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (!isBetter(scores[parent], indices[parent], score, index)) {
+        break;
+      }
+      scores[position] = scores[parent];
+      indices[position] = indices[parent];
+      position = parent;
+    }
+    scores[position] = score;
+    indices[position] = index;
+  }
+
+  private void siftDown(int position) {
+    double score = scores[position];
+    int index = indices[position];
+    while (2 * position + 1 < size) {
+      int child = 2 * position + 1;
+      if (child + 1 < size
+          && isBetter(scores[child], indices[child], scores[child + 1], indices[child + 1])) {
+        child++;
+      }
+      if (!isBetter(score, index, scores[child], indices[child])) {
+        break;
+      }
+      scores[position] = scores[child];
+      indices[position] = indices[child];
+      position = child;
+    }
+    scores[position] = score;
+    indices[position] = index;
+  }
+}
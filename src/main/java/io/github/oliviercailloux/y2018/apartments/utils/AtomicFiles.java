@@ -0,0 +1,81 @@
+package io.github.oliviercailloux.y2018.apartments.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replaces files atomically: a file is first written to a temporary file next to it, then moved
+ * over it, so that a reader sees either its previous content or the complete new one, never a
+ * partial one.
+ */
+public final class AtomicFiles {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AtomicFiles.class);
+
+  private AtomicFiles() {}
+
+  /**
+   * Creates an empty file in the directory of another one, to be moved over it once written. The
+   * file has the permissions of the file it replaces, if any, otherwise the default ones.
+   *
+   * @param path the file to replace
+   * @return the temporary file created, that the caller must delete if it does not move it
+   * @throws IOException if the file cannot be created
+   */
+  public static Path createTemporaryFile(Path path) throws IOException {
+    Path directory = path.toAbsolutePath().getParent();
+    String prefix = path.getFileName().toString() + ".";
+    Path temporary;
+    while (true) {
+      temporary =
+          directory.resolve(
+              prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        Files.createFile(temporary);
+        break;
+      } catch (FileAlreadyExistsException e) {
+        LOGGER.debug("Temporary file {} already exists, trying another name.", temporary);
+      }
+    }
+    if (Files.exists(path)
+        && Files.getFileStore(temporary).supportsFileAttributeView(PosixFileAttributeView.class)) {
+      try {
+        Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(path));
+      } catch (IOException e) {
+        Files.deleteIfExists(temporary);
+        throw e;
+      }
+    }
+    return temporary;
+  }
+
+  /**
+   * Writes a file to the storage device, then moves it over another, atomically when the file
+   * system supports it: once moved, the content of the file survives a crash of the system.
+   *
+   * @param source the file written, created by {@link #createTemporaryFile(Path)}
+   * @param target the file to replace
+   * @throws IOException if the file cannot be written or moved
+   */
+  public static void moveAtomically(Path source, Path target) throws IOException {
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    try {
+      Files.move(
+          source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
+import java.util.EnumMap;
+
+/**
+ * An immutable copy of the partial value functions and the weights of an {@link
+ * ApartmentValueFunction}, as they were when the snapshot was taken. Unlike the value function it
+ * was taken from, a snapshot can be shared between threads without synchronization: it holds its
+ * functions and weights in immutable maps, along with their {@link CompiledAVF}, compiled once.
+ *
+ * <p>The adaptations of a value function are also available on a snapshot, and give a new snapshot,
+ * so that a session can adapt the value function that concurrent rankers read from a {@link
+ * SharedAVF} without ever modifying it.
+ *
+ * <p>The partial value functions are shared with the value function copied, not copied: those of
+ * this package do not change once created.
+ */
+public final class AVFSnapshot {
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  private final ImmutableMap<Criterion, PartialValueFunction<Boolean>> booleanValueFunctions;
+
+  private final ImmutableMap<Criterion, PartialValueFunction<Double>> doubleValueFunctions;
+
+  private final ImmutableMap<Criterion, Double> weights;
+
+  private final CompiledAVF compiled;
+
+  private AVFSnapshot(
+      ImmutableMap<Criterion, PartialValueFunction<Boolean>> booleanValueFunctions,
+      ImmutableMap<Criterion, PartialValueFunction<Double>> doubleValueFunctions,
+      ImmutableMap<Criterion, Double> weights) {
+    this.booleanValueFunctions = booleanValueFunctions;
+    this.doubleValueFunctions = doubleValueFunctions;
+    this.weights = weights;
+    this.compiled = CompiledAVF.of(this);
+  }
+
+  /**
+   * Takes a snapshot of a value function. The value function must not be modified by another thread
+   * meanwhile.
+   *
+   * @param avf the value function to copy
+   * @return an immutable copy of the current functions and weights of <code>avf</code>
+   */
+  public static AVFSnapshot of(ApartmentValueFunction avf) {
+    checkNotNull(avf);
+    EnumMap<Criterion, PartialValueFunction<Boolean>> booleanValueFunctions =
+        new EnumMap<>(Criterion.class);
+    EnumMap<Criterion, PartialValueFunction<Double>> doubleValueFunctions =
+        new EnumMap<>(Criterion.class);
+    EnumMap<Criterion, Double> weights = new EnumMap<>(Criterion.class);
+    for (Criterion criterion : CRITERIA) {
+      if (criterion.hasBooleanDomain()) {
+        booleanValueFunctions.put(criterion, avf.getBooleanValueFunction(criterion));
+      } else {
+        doubleValueFunctions.put(criterion, avf.getDoubleValueFunction(criterion));
+      }
+      weights.put(criterion, avf.getWeightSubjectiveValue(criterion));
+    }
+    return new AVFSnapshot(
+        Maps.immutableEnumMap(booleanValueFunctions),
+        Maps.immutableEnumMap(doubleValueFunctions),
+        Maps.immutableEnumMap(weights));
+  }
+
+  /**
+   * Gives the partial value function of a criterion having a boolean domain
+   *
+   * @param criterion the criterion whose function to give
+   * @return the partial value function of the criterion
+   */
+  public PartialValueFunction<Boolean> getBooleanValueFunction(Criterion criterion) {
+    checkNotNull(criterion);
+    checkArgument(criterion.hasBooleanDomain());
+    return booleanValueFunctions.get(criterion);
+  }
+
+  /**
+   * Gives the partial value function of a criterion having a double domain
+   *
+   * @param criterion the criterion whose function to give
+   * @return the partial value function of the criterion
+   */
+  public PartialValueFunction<Double> getDoubleValueFunction(Criterion criterion) {
+    checkNotNull(criterion);
+    checkArgument(criterion.hasDoubleDomain());
+    return doubleValueFunctions.get(criterion);
+  }
+
+  /**
+   * Gives the weight of a criterion
+   *
+   * @param criterion the criterion we want to know the weight
+   * @return the weight of the criterion
+   */
+  public double getWeight(Criterion criterion) {
+    checkNotNull(criterion);
+    return weights.get(criterion);
+  }
+
+  /**
+   * Gives the compiled form of this snapshot, compiled when the snapshot was taken
+   *
+   * @return a scorer computing the same subjective values as this snapshot
+   */
+  public CompiledAVF getCompiled() {
+    return compiled;
+  }
+
+  /**
+   * Gives the subjective value of an apartment, as {@link
+   * ApartmentValueFunction#getSubjectiveValue(Apartment)} gives it
+   *
+   * @param apart the apartment to score
+   * @return the weighted sum of the subjective values of the apartment, divided by the sum of the
+   *     weights
+   */
+  public double score(Apartment apart) {
+    return compiled.score(apart);
+  }
+
+  /**
+   * Gives the subjective values of all the apartments of a batch
+   *
+   * @param batch the apartments to score
+   * @return an array containing the subjective value of each apartment, in the order of the rows
+   */
+  public double[] score(ApartmentColumns batch) {
+    return compiled.score(batch);
+  }
+
+  /**
+   * Gives a value function having the functions and weights of this snapshot, to adapt it further
+   *
+   * @return a new value function, independent of this snapshot
+   */
+  public ApartmentValueFunction toValueFunction() {
+    return ApartmentValueFunction.copyOf(this);
+  }
+
+  /**
+   * Gives a snapshot differing from this one by the weight of a criterion
+   *
+   * @param criterion the criterion to change
+   * @param value the new weight of the criterion
+   * @return a new snapshot
+   * @see ApartmentValueFunction#withSubjectiveValueWeight(Criterion, double)
+   */
+  public AVFSnapshot withWeight(Criterion criterion, double value) {
+    return toValueFunction().withSubjectiveValueWeight(criterion, value).snapshot();
+  }
+
+  /**
+   * Gives a snapshot in which a criterion is more important than another
+   *
+   * @param moreImportant the criterion to prioritize
+   * @param lessImportant the criterion to make less important
+   * @return a new snapshot
+   * @see ApartmentValueFunction#adaptWeight(Criterion, Criterion)
+   */
+  public AVFSnapshot adaptWeight(Criterion moreImportant, Criterion lessImportant) {
+    return toValueFunction().adaptWeight(moreImportant, lessImportant).snapshot();
+  }
+
+  /**
+   * Gives a snapshot in which the linear value function of a criterion has a new bound
+   *
+   * @param criterion the criterion to adapt, whose function is a {@link LinearValueFunction}
+   * @param newBound the new bound
+   * @param lower <code>true</code> to adapt the lower bound, <code>false</code> for the upper one
+   * @return a new snapshot
+   * @see ApartmentValueFunction#adaptBounds(Criterion, double, boolean)
+   */
+  public AVFSnapshot adaptBounds(Criterion criterion, double newBound, boolean lower) {
+    return toValueFunction().adaptBounds(criterion, newBound, lower).snapshot();
+  }
+}
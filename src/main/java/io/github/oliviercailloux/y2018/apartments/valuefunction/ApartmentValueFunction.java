@@ -6,6 +6,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.ImmutableMap;
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
 import io.github.oliviercailloux.y2018.apartments.utils.RandomRange;
 import java.util.Arrays;
 import java.util.EnumMap;
@@ -22,6 +23,10 @@ import org.slf4j.LoggerFactory;
  * The public class ApartmentValueFunction enables to compute the subjective values of apartments.
  * This is provided by the creation of an object ApartmentValueFunction which contains for each
  * valuable attribute of an apartment : An object of and an associated weight.
+ *
+ * <p>
+ * This class is not thread-safe: to share a value function with other threads, take a
+ * {@link #snapshot()} of it, and publish the successive snapshots through a {@link SharedAVF}.
  */
 public class ApartmentValueFunction {
 
@@ -53,7 +58,7 @@ public class ApartmentValueFunction {
       if (criterion.hasBooleanDomain()) {
         setInternalBooleanValueFunction(criterion, new ConstantValueFunction<>(0.0d));
       } else {
-        setInternalDoubleValueFunction(criterion, new ConstantValueFunction<>(0.0d));
+        setInternalDoubleValueFunction(criterion, ConstantValueFunction.ofDouble(0.0d));
       }
     });
     this.weight = new EnumMap<>(Criterion.class);
@@ -355,6 +360,61 @@ public class ApartmentValueFunction {
     return sum / division;
   }
 
+  /**
+   * This function returns the subjective values of all the apartments of a batch, in the order of
+   * its rows. Each value is the one {@link #getSubjectiveValue(Apartment)} gives for the
+   * corresponding apartment.
+   *
+   * @param batch the apartments to score
+   * @return an array containing the subjective value of each apartment of the batch
+   */
+  public double[] getSubjectiveValues(ApartmentColumns batch) {
+    return compile().score(batch);
+  }
+
+  /**
+   * Compiles this object into an immutable scorer, which computes the same subjective values as
+   * {@link #getSubjectiveValue(Apartment)}. Linear, reversed linear and boolean value functions are
+   * compiled to primitive bounds; the other partial value functions are called as they are. Later
+   * changes to this object are not reflected in the returned scorer.
+   *
+   * @return the compiled form of this object
+   */
+  public CompiledAVF compile() {
+    return CompiledAVF.of(this);
+  }
+
+  /**
+   * Takes an immutable copy of the current functions and weights of this object, which can be
+   * shared between threads. Later changes to this object are not reflected in the returned
+   * snapshot.
+   *
+   * @return a snapshot of this object
+   */
+  public AVFSnapshot snapshot() {
+    return AVFSnapshot.of(this);
+  }
+
+  /**
+   * Creates a value function having the functions and weights of a snapshot
+   *
+   * @param snapshot the snapshot to copy
+   * @return a new object ApartmentValueFunction
+   */
+  static ApartmentValueFunction copyOf(AVFSnapshot snapshot) {
+    checkNotNull(snapshot);
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    Arrays.stream(Criterion.values()).forEach(criterion -> {
+      if (criterion.hasBooleanDomain()) {
+        avf.setInternalBooleanValueFunction(criterion, snapshot.getBooleanValueFunction(criterion));
+      } else {
+        avf.setInternalDoubleValueFunction(criterion, snapshot.getDoubleValueFunction(criterion));
+      }
+      avf.setWeightSubjectiveValue(criterion, snapshot.getWeight(criterion));
+    });
+    return avf;
+  }
+
   /**
    * Allows us to create a ApartmentValueFunction object with random values
    *
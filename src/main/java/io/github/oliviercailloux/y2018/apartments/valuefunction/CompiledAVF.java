@@ -0,0 +1,657 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An immutable, compiled form of a {@link LinearAVF} or of an {@link ApartmentValueFunction}. The
+ * weights and the bounds of the linear, reversed linear and boolean value functions are copied into
+ * flat arrays indexed by the ordinal of the criterion, so that computing the subjective value of an
+ * apartment allocates nothing. Any other partial value function is kept as is: it is called through
+ * {@link DoublePartialValueFunction}, by batch, when it implements it, and through its usual
+ * interface otherwise.
+ *
+ * <p>The subjective values computed are exactly those computed by the object compiled at the time
+ * of compilation: later changes to that object are not reflected here.
+ */
+public final class CompiledAVF {
+
+  private static final Criterion[] CRITERIA = Criterion.values();
+
+  /**
+   * The number of apartments of a batch that are scored together, small enough for the values of a
+   * chunk to stay in the L1 cache.
+   */
+  private static final int CHUNK = 1024;
+
+  private static final byte LINEAR = 0;
+  private static final byte REVERSED = 1;
+  private static final byte BOOLEAN = 2;
+  private static final byte DOUBLE = 3;
+  private static final byte OTHER = 4;
+
+  /**
+   * The number of boolean criteria, which are the first ones, and the flag of {@link Apartment}
+   * giving the objective value of each of them.
+   */
+  private static final int FLAG_CRITERIA = 3;
+
+  private static final byte[] FLAGS = {
+    Apartment.TELE_FLAG, Apartment.TERRACE_FLAG, Apartment.WIFI_FLAG
+  };
+
+  static {
+    checkState(
+        CRITERIA[0] == Criterion.TELE
+            && CRITERIA[1] == Criterion.TERRACE
+            && CRITERIA[2] == Criterion.WIFI
+            && !CRITERIA[FLAG_CRITERIA].hasBooleanDomain(),
+        "The boolean criteria must come first");
+  }
+
+  /** The kind of partial value function of each criterion. */
+  private final byte[] kinds;
+
+  private final double[] weights;
+
+  /** The sum of the weights, computed in the same order as the uncompiled value functions do. */
+  private final double weightSum;
+
+  /**
+   * For a linear or a reversed linear function, the bounds of its interval. For a boolean function,
+   * the subjective values of <code>false</code> and of <code>true</code>.
+   */
+  private final double[] lowers;
+
+  private final double[] uppers;
+
+  /** The partial value functions that could not be compiled, <code>null</code> elsewhere. */
+  private final PartialValueFunction<?>[] others;
+
+  /**
+   * The partial value functions that could not be compiled but are evaluated on primitive doubles,
+   * <code>null</code> elsewhere.
+   */
+  private final DoublePartialValueFunction[] doubleFunctions;
+
+  /**
+   * Whether the subjective value of each criterion is known to never decrease, or never increase,
+   * when its objective value increases.
+   */
+  private final boolean[] nonDecreasing;
+
+  private final boolean[] nonIncreasing;
+
+  /**
+   * When the functions of the boolean criteria are all boolean ones, the weighted sum of their
+   * subjective values for each of the 8 possible flags of an apartment, added in the order of the
+   * criteria so that the scores stay exactly the same; <code>null</code> otherwise.
+   */
+  private final double[] flagTable;
+
+  private CompiledAVF(
+      Function<Criterion, PartialValueFunction<?>> valueFunctions,
+      ToDoubleFunction<Criterion> weightFunction) {
+    this.kinds = new byte[CRITERIA.length];
+    this.weights = new double[CRITERIA.length];
+    this.lowers = new double[CRITERIA.length];
+    this.uppers = new double[CRITERIA.length];
+    this.others = new PartialValueFunction<?>[CRITERIA.length];
+    this.doubleFunctions = new DoublePartialValueFunction[CRITERIA.length];
+    this.nonDecreasing = new boolean[CRITERIA.length];
+    this.nonIncreasing = new boolean[CRITERIA.length];
+    double sum = 0.0d;
+    for (Criterion criterion : CRITERIA) {
+      int i = criterion.ordinal();
+      PartialValueFunction<?> vf = checkNotNull(valueFunctions.apply(criterion));
+      /*
+       * Exact classes are required: a subclass could compute its subjective values differently
+       * from the bounds we copy.
+       */
+      if (vf.getClass() == LinearValueFunction.class) {
+        kinds[i] = LINEAR;
+        lowers[i] = ((LinearValueFunction) vf).getInterval().lowerEndpoint();
+        uppers[i] = ((LinearValueFunction) vf).getInterval().upperEndpoint();
+        nonDecreasing[i] = true;
+      } else if (vf.getClass() == ReversedLinearValueFunction.class) {
+        kinds[i] = REVERSED;
+        lowers[i] = ((ReversedLinearValueFunction) vf).getInterval().lowerEndpoint();
+        uppers[i] = ((ReversedLinearValueFunction) vf).getInterval().upperEndpoint();
+        nonIncreasing[i] = true;
+      } else if (vf.getClass() == BooleanValueFunction.class) {
+        kinds[i] = BOOLEAN;
+        lowers[i] = ((BooleanValueFunction) vf).getSubjectiveValue(false);
+        uppers[i] = ((BooleanValueFunction) vf).getSubjectiveValue(true);
+        nonDecreasing[i] = lowers[i] <= uppers[i];
+        nonIncreasing[i] = lowers[i] >= uppers[i];
+      } else {
+        if (criterion.hasDoubleDomain() && vf instanceof DoublePartialValueFunction) {
+          kinds[i] = DOUBLE;
+          doubleFunctions[i] = (DoublePartialValueFunction) vf;
+        } else {
+          kinds[i] = OTHER;
+        }
+        others[i] = vf;
+        /* The grades of a piece-wise linear function are checked to increase with the values. */
+        boolean constant =
+            vf.getClass() == ConstantValueFunction.class
+                || vf.getClass() == ConstantValueFunction.OfDouble.class;
+        nonDecreasing[i] = vf.getClass() == PieceWiseLinearValueFunction.class || constant;
+        nonIncreasing[i] = constant;
+      }
+      weights[i] = weightFunction.applyAsDouble(criterion);
+      sum += weights[i];
+    }
+    this.weightSum = sum;
+    this.flagTable = buildFlagTable();
+  }
+
+  private double[] buildFlagTable() {
+    for (int i = 0; i < FLAG_CRITERIA; i++) {
+      if (kinds[i] != BOOLEAN) {
+        return null;
+      }
+    }
+    double[] table = new double[1 << FLAG_CRITERIA];
+    for (int flags = 0; flags < table.length; flags++) {
+      double sum = 0.0d;
+      for (int i = 0; i < FLAG_CRITERIA; i++) {
+        sum += weights[i] * booleanValue(i, (flags & FLAGS[i]) != 0);
+      }
+      table[flags] = sum;
+    }
+    return table;
+  }
+
+  /**
+   * Compiles the given <code>LinearAVF</code>
+   *
+   * @param avf the object to compile
+   * @return an immutable object computing the same subjective values as <code>avf</code>
+   */
+  static CompiledAVF of(LinearAVF avf) {
+    checkNotNull(avf);
+    return new CompiledAVF(
+        c -> {
+          if (c.hasBooleanDomain()) {
+            return avf.getInternalBooleanValueFunction(c);
+          }
+          if (c.isDoubleCrescent()) {
+            return avf.getInternalLinearValueFunction(c);
+          }
+          return avf.getInternalReversedLinearValueFunction(c);
+        },
+        avf::getWeight);
+  }
+
+  /**
+   * Compiles the given <code>ApartmentValueFunction</code>
+   *
+   * @param avf the object to compile
+   * @return an immutable object computing the same subjective values as <code>avf</code>
+   */
+  static CompiledAVF of(ApartmentValueFunction avf) {
+    checkNotNull(avf);
+    return new CompiledAVF(
+        c -> c.hasBooleanDomain() ? avf.getBooleanValueFunction(c) : avf.getDoubleValueFunction(c),
+        avf::getWeightSubjectiveValue);
+  }
+
+  /**
+   * Compiles the given <code>AVFSnapshot</code>
+   *
+   * @param snapshot the object to compile
+   * @return an immutable object computing the same subjective values as <code>snapshot</code>
+   */
+  static CompiledAVF of(AVFSnapshot snapshot) {
+    checkNotNull(snapshot);
+    return new CompiledAVF(
+        c ->
+            c.hasBooleanDomain()
+                ? snapshot.getBooleanValueFunction(c)
+                : snapshot.getDoubleValueFunction(c),
+        snapshot::getWeight);
+  }
+
+  /**
+   * Gives the weight of the given criterion
+   *
+   * @param criterion the criterion we want to know the weight
+   * @return the weight of the criterion, as it was when compiled
+   */
+  public double getWeight(Criterion criterion) {
+    return weights[criterion.ordinal()];
+  }
+
+  /**
+   * Gives the sum of the weights of all criteria, by which the weighted sum of the subjective
+   * values is divided
+   *
+   * @return the sum of the weights
+   */
+  public double getWeightSum() {
+    return weightSum;
+  }
+
+  /**
+   * Tells whether the subjective value of the given criterion never decreases when its objective
+   * value increases, <code>false</code> being lower than <code>true</code>
+   *
+   * @param criterion the criterion we want to know the monotonicity
+   * @return <code>true</code> if the partial value function is known to be non decreasing
+   */
+  public boolean isNonDecreasing(Criterion criterion) {
+    return nonDecreasing[criterion.ordinal()];
+  }
+
+  /**
+   * Tells whether the subjective value of the given criterion never increases when its objective
+   * value increases, <code>false</code> being lower than <code>true</code>
+   *
+   * @param criterion the criterion we want to know the monotonicity
+   * @return <code>true</code> if the partial value function is known to be non increasing
+   */
+  public boolean isNonIncreasing(Criterion criterion) {
+    return nonIncreasing[criterion.ordinal()];
+  }
+
+  /**
+   * Gives the subjective value of a criterion for an objective value, as the partial value function
+   * compiled would give it
+   *
+   * @param criterion the criterion to evaluate
+   * @param objectiveData the objective value, a boolean being given as 1 when true and 0 when false
+   * @return the subjective value, between 0 and 1
+   */
+  public double getSubjectiveValue(Criterion criterion, double objectiveData) {
+    int i = criterion.ordinal();
+    if (criterion.hasBooleanDomain()) {
+      return booleanValue(i, objectiveData != 0d);
+    }
+    return doubleValue(i, objectiveData);
+  }
+
+  /**
+   * This function returns the subjective value of the Apartment in parameter. It is the same as the
+   * one returned by the compiled object, but no object is allocated to compute it.
+   *
+   * @param apart an object of type Apartment
+   * @return a double : the weighted sum of the apartment attributes subjective values
+   */
+  public double score(Apartment apart) {
+    checkNotNull(apart);
+    if (flagTable != null) {
+      double sum = flagTable[apart.getFlags()];
+      for (int i = FLAG_CRITERIA; i < CRITERIA.length; i++) {
+        sum += weights[i] * doubleValue(i, getDoubleData(CRITERIA[i], apart));
+      }
+      return sum / weightSum;
+    }
+    double sum = 0.0d;
+    for (Criterion criterion : CRITERIA) {
+      int i = criterion.ordinal();
+      double value;
+      if (criterion.hasBooleanDomain()) {
+        value = booleanValue(i, getBooleanData(criterion, apart));
+      } else {
+        value = doubleValue(i, getDoubleData(criterion, apart));
+      }
+      sum += weights[i] * value;
+    }
+    return sum / weightSum;
+  }
+
+  /**
+   * Computes the subjective value of the apartment of one row of a batch, the same as the one
+   * {@link #score(Apartment)} gives for that apartment
+   *
+   * @param batch the apartments
+   * @param row the index of the apartment to score
+   * @return the weighted sum of the apartment attributes subjective values
+   */
+  public double score(ApartmentColumns batch, int row) {
+    checkElementIndex(row, batch.size());
+    checkArgument(canScore(batch), "The batch misses the column of a weighted criterion");
+    double sum = 0.0d;
+    int first = 0;
+    if (flagTable != null) {
+      sum = flagTable[batch.getFlags(row)];
+      first = FLAG_CRITERIA;
+    }
+    for (int i = first; i < CRITERIA.length; i++) {
+      if (batch.holds(CRITERIA[i])) {
+        sum += weights[i] * getSubjectiveValue(CRITERIA[i], batch.getValue(CRITERIA[i], row));
+      }
+    }
+    return sum / weightSum;
+  }
+
+  /**
+   * Computes the subjective values of all the apartments of a batch. Each value is the same as the
+   * one {@link #score(Apartment)} gives for the corresponding apartment. The apartments are scored
+   * by chunks, one criterion at a time, in loops without branches that the JIT compiler can
+   * vectorize. The boolean criteria are scored together, by one lookup of the flags of each
+   * apartment, when their functions are boolean ones.
+   *
+   * @param batch the apartments to score
+   * @param scores the array receiving the subjective value of the apartment of each row
+   */
+  public void score(ApartmentColumns batch, double[] scores) {
+    checkNotNull(batch);
+    checkArgument(scores.length >= batch.size(), "The array of scores is too small");
+    checkArgument(canScore(batch), "The batch misses the column of a weighted criterion");
+    double[] objectiveData = new double[Math.min(CHUNK, batch.size())];
+    byte[] flags = new byte[flagTable == null ? 0 : objectiveData.length];
+    int first = flagTable == null ? 0 : FLAG_CRITERIA;
+    for (int from = 0; from < batch.size(); from += CHUNK) {
+      int length = Math.min(CHUNK, batch.size() - from);
+      if (flagTable == null) {
+        Arrays.fill(scores, from, from + length, 0.0d);
+      } else {
+        batch.copyFlags(from, length, flags);
+        for (int j = 0; j < length; j++) {
+          scores[from + j] = flagTable[flags[j]];
+        }
+      }
+      for (int i = first; i < CRITERIA.length; i++) {
+        if (!batch.holds(CRITERIA[i])) {
+          continue;
+        }
+        batch.copyValues(CRITERIA[i], from, length, objectiveData);
+        addWeightedValues(i, objectiveData, length, scores, from);
+      }
+      for (int j = from; j < from + length; j++) {
+        scores[j] /= weightSum;
+      }
+    }
+  }
+
+  /**
+   * Computes the subjective values of all the apartments of a batch
+   *
+   * @param batch the apartments to score
+   * @return the subjective value of the apartment of each row
+   * @see #score(ApartmentColumns, double[])
+   */
+  public double[] score(ApartmentColumns batch) {
+    double[] scores = new double[batch.size()];
+    score(batch, scores);
+    return scores;
+  }
+
+  /**
+   * Computes the subjective values of a criterion for consecutive apartments of a batch, as {@link
+   * #getSubjectiveValue(Criterion, double)} would give them one by one.
+   *
+   * @param batch the apartments
+   * @param criterion the criterion to evaluate
+   * @param from the index of the first apartment
+   * @param length the number of apartments
+   * @param dest the array to fill from its first element
+   */
+  public void getSubjectiveValues(
+      ApartmentColumns batch, Criterion criterion, int from, int length, double[] dest) {
+    batch.copyValues(criterion, from, length, dest);
+    int i = criterion.ordinal();
+    double lower = lowers[i];
+    double upper = uppers[i];
+    switch (kinds[i]) {
+      case LINEAR:
+        for (int j = 0; j < length; j++) {
+          dest[j] = linearValue(lower, upper, dest[j]);
+        }
+        break;
+      case REVERSED:
+        for (int j = 0; j < length; j++) {
+          dest[j] = 1 - linearValue(lower, upper, dest[j]);
+        }
+        break;
+      case BOOLEAN:
+        for (int j = 0; j < length; j++) {
+          dest[j] = dest[j] == 0d ? lower : upper;
+        }
+        break;
+      case DOUBLE:
+        doubleFunctions[i].applyBatch(dest, dest, length);
+        for (int j = 0; j < length; j++) {
+          checkBounds(i, dest[j]);
+        }
+        break;
+      default:
+        for (int j = 0; j < length; j++) {
+          dest[j] = getSubjectiveValue(criterion, dest[j]);
+        }
+    }
+  }
+
+  /**
+   * Tells whether a batch holds the columns of all the criteria having a positive weight, which are
+   * the only ones needed to score its apartments. The criteria whose columns are not held add
+   * nothing to the scores, which are thus the same as with a batch holding all the columns.
+   *
+   * @param batch the apartments to score
+   * @return <code>true</code> if the apartments of the batch can be scored
+   */
+  public boolean canScore(ApartmentColumns batch) {
+    for (int i = 0; i < CRITERIA.length; i++) {
+      if (weights[i] != 0d && !batch.holds(CRITERIA[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tells whether this object and the given one compute the same subjective values for every
+   * criterion, whatever their weights. Partial value functions that could not be compiled are only
+   * considered the same when they are the same instance.
+   *
+   * @param other the compiled value function to compare
+   * @return <code>true</code> if both differ at most by their weights
+   */
+  public boolean hasSameValueFunctions(CompiledAVF other) {
+    checkNotNull(other);
+    if (!Arrays.equals(kinds, other.kinds)
+        || !Arrays.equals(lowers, other.lowers)
+        || !Arrays.equals(uppers, other.uppers)) {
+      return false;
+    }
+    for (int i = 0; i < CRITERIA.length; i++) {
+      if (others[i] != other.others[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gives a fingerprint of the weights and of the partial value functions, which tells whether
+   * values computed with this object, then stored, are still those it computes. It does not depend
+   * on the run of the application. The partial value functions that could not be compiled are
+   * fingerprinted by their parameters, which are only known for the piece-wise linear, discrete and
+   * constant functions of this package.
+   *
+   * @return a 64 bits fingerprint, equal for two compiled value functions having the same weights
+   *     and the same functions, or an empty optional if a function has unknown parameters, in which
+   *     case no stored value can be trusted
+   */
+  public OptionalLong getFingerprint() {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    for (int i = 0; i < CRITERIA.length; i++) {
+      hasher.putByte(kinds[i]).putDouble(weights[i]).putDouble(lowers[i]).putDouble(uppers[i]);
+      if (others[i] != null && !putParameters(others[i], hasher)) {
+        return OptionalLong.empty();
+      }
+    }
+    return OptionalLong.of(hasher.hash().asLong());
+  }
+
+  /**
+   * Adds the class and the parameters of a partial value function to a fingerprint
+   *
+   * @return <code>false</code> if the parameters of the function are unknown
+   */
+  private static boolean putParameters(PartialValueFunction<?> vf, Hasher hasher) {
+    hasher.putString(vf.getClass().getName(), StandardCharsets.UTF_8);
+    /* A subclass could compute other values from the same parameters. */
+    if (vf.getClass() == PieceWiseLinearValueFunction.class) {
+      ((PieceWiseLinearValueFunction) vf).putParameters(hasher);
+    } else if (vf.getClass() == DiscreteValueFunction.class) {
+      ((DiscreteValueFunction<?>) vf).putParameters(hasher);
+    } else if (vf.getClass() == ConstantValueFunction.class
+        || vf.getClass() == ConstantValueFunction.OfDouble.class) {
+      hasher.putDouble(((ConstantValueFunction<?>) vf).subjectiveValue);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Adds the weighted subjective values of a criterion to the scores
+   *
+   * @param i the ordinal of the criterion
+   * @param objectiveData the objective values of the criterion, booleans given as 0 or 1
+   * @param length the number of values to use
+   * @param scores the scores to update
+   * @param offset the index in <code>scores</code> of the first value
+   */
+  private void addWeightedValues(
+      int i, double[] objectiveData, int length, double[] scores, int offset) {
+    double weight = weights[i];
+    double lower = lowers[i];
+    double upper = uppers[i];
+    switch (kinds[i]) {
+      case LINEAR:
+        for (int j = 0; j < length; j++) {
+          scores[offset + j] += weight * linearValue(lower, upper, objectiveData[j]);
+        }
+        break;
+      case REVERSED:
+        for (int j = 0; j < length; j++) {
+          scores[offset + j] += weight * (1 - linearValue(lower, upper, objectiveData[j]));
+        }
+        break;
+      case BOOLEAN:
+        for (int j = 0; j < length; j++) {
+          scores[offset + j] += weight * (objectiveData[j] == 0d ? lower : upper);
+        }
+        break;
+      case DOUBLE:
+        doubleFunctions[i].applyBatch(objectiveData, objectiveData, length);
+        for (int j = 0; j < length; j++) {
+          scores[offset + j] += weight * checkBounds(i, objectiveData[j]);
+        }
+        break;
+      default:
+        for (int j = 0; j < length; j++) {
+          double value =
+              CRITERIA[i].hasBooleanDomain()
+                  ? booleanValue(i, objectiveData[j] != 0d)
+                  : doubleValue(i, objectiveData[j]);
+          scores[offset + j] += weight * value;
+        }
+    }
+  }
+
+  /**
+   * Computes the subjective value of a criterion with a double domain
+   *
+   * @param i the ordinal of the criterion
+   * @param objectiveData the objective value of the criterion
+   * @return the subjective value, between 0 and 1
+   */
+  private double doubleValue(int i, double objectiveData) {
+    switch (kinds[i]) {
+      case LINEAR:
+        return linearValue(lowers[i], uppers[i], objectiveData);
+      case REVERSED:
+        return 1 - linearValue(lowers[i], uppers[i], objectiveData);
+      case DOUBLE:
+        return checkBounds(i, doubleFunctions[i].applyAsDouble(objectiveData));
+      default:
+        return checkBounds(i, this.<Double>other(i).getSubjectiveValue(objectiveData));
+    }
+  }
+
+  /**
+   * Computes the subjective value of a criterion with a boolean domain
+   *
+   * @param i the ordinal of the criterion
+   * @param objectiveData the objective value of the criterion
+   * @return the subjective value, between 0 and 1
+   */
+  private double booleanValue(int i, boolean objectiveData) {
+    if (kinds[i] == BOOLEAN) {
+      return objectiveData ? uppers[i] : lowers[i];
+    }
+    return checkBounds(i, this.<Boolean>other(i).getSubjectiveValue(objectiveData));
+  }
+
+  /**
+   * The subjective value given by a <code>LinearValueFunction</code> on [lower, upper]. It is
+   * written as a clamp, which gives exactly the same result as the comparisons of the original.
+   */
+  private static double linearValue(double lower, double upper, double objectiveData) {
+    return Math.min(1d, Math.max(0d, (objectiveData - lower) / (upper - lower)));
+  }
+
+  private static double checkBounds(int i, double subjectiveValue) {
+    checkState(
+        !(subjectiveValue < 0 || subjectiveValue > 1),
+        "The subjective value of %s must be between 0 and 1",
+        CRITERIA[i]);
+    return subjectiveValue;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> PartialValueFunction<T> other(int i) {
+    return (PartialValueFunction<T>) others[i];
+  }
+
+  private static double getDoubleData(Criterion criterion, Apartment apart) {
+    switch (criterion) {
+      case FLOOR_AREA:
+        return apart.getFloorArea();
+      case FLOOR_AREA_TERRACE:
+        return apart.getFloorAreaTerrace();
+      case NB_BATHROOMS:
+        return apart.getNbBathrooms();
+      case NB_BEDROOMS:
+        return apart.getNbBedrooms();
+      case NB_SLEEPING:
+        return apart.getNbSleeping();
+      case NB_MIN_NIGHT:
+        return apart.getNbMinNight();
+      case PRICE_PER_NIGHT:
+        return apart.getPricePerNight();
+      default:
+        throw new IllegalArgumentException(criterion + " has no double domain");
+    }
+  }
+
+  private static boolean getBooleanData(Criterion criterion, Apartment apart) {
+    switch (criterion) {
+      case TELE:
+        return apart.getTele();
+      case TERRACE:
+        return apart.getTerrace();
+      case WIFI:
+        return apart.getWifi();
+      default:
+        throw new IllegalArgumentException(criterion + " has no boolean domain");
+    }
+  }
+}
@@ -1,5 +1,9 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
 /**
  * Class that associates the subjective value of a given parameter to 0.
  *
@@ -13,6 +17,17 @@ public class ConstantValueFunction<T> implements PartialValueFunction<T> {
     this.subjectiveValue = d;
   }
 
+  /**
+   * Gives a constant value function on doubles, which also computes its subjective values without
+   * boxing
+   *
+   * @param d the subjective value of every parameter
+   * @return a new constant value function
+   */
+  public static OfDouble ofDouble(double d) {
+    return new OfDouble(d);
+  }
+
   @Override
   public Double apply(T objectiveData) {
     return getSubjectiveValue(objectiveData);
@@ -22,4 +37,25 @@ public class ConstantValueFunction<T> implements PartialValueFunction<T> {
   public double getSubjectiveValue(T objectiveData) throws IllegalArgumentException {
     return this.subjectiveValue;
   }
+
+  /** A constant value function on doubles, as given by {@link ConstantValueFunction#ofDouble}. */
+  public static final class OfDouble extends ConstantValueFunction<Double>
+      implements DoublePartialValueFunction {
+
+    private OfDouble(double d) {
+      super(d);
+    }
+
+    @Override
+    public double applyAsDouble(double objectiveData) {
+      return this.subjectiveValue;
+    }
+
+    @Override
+    public void applyBatch(double[] in, double[] out, int length) {
+      checkArgument(
+          length <= in.length && length <= out.length, "The arrays are too small for %s", length);
+      Arrays.fill(out, 0, length, this.subjectiveValue);
+    }
+  }
 }
@@ -4,6 +4,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.PrimitiveSink;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -70,6 +73,27 @@ public class DiscreteValueFunction<T> implements PartialValueFunction<T> {
     this.subjective = ImmutableMap.copyOf(subjective);
   }
 
+  /**
+   * Adds the values and their subjective values to a fingerprint, whatever their order. The values
+   * are fingerprinted by their string representation, hence should have one that does not depend on
+   * the run of the application.
+   *
+   * @param sink the fingerprint being computed
+   */
+  void putParameters(PrimitiveSink sink) {
+    long entries = 0;
+    for (Entry<T, Double> entry : subjective.entrySet()) {
+      entries +=
+          Hashing.murmur3_128()
+              .newHasher()
+              .putString(String.valueOf(entry.getKey()), StandardCharsets.UTF_8)
+              .putDouble(entry.getValue())
+              .hash()
+              .asLong();
+    }
+    sink.putInt(subjective.size()).putLong(entries);
+  }
+
   @Override
   public Double apply(T objectiveData) {
     return getSubjectiveValue(objectiveData);
@@ -0,0 +1,48 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * <code>DoublePartialValueFunction</code> is a partial value function on a double parameter that
+ * computes its subjective value without boxing. It is implemented along with {@link
+ * PartialValueFunction PartialValueFunction&lt;Double&gt;} by the value functions on doubles.
+ */
+public interface DoublePartialValueFunction extends DoubleUnaryOperator {
+
+  /**
+   * This function enables to get the subjective value of an objective data, as {@link
+   * PartialValueFunction#getSubjectiveValue(Object)} does
+   *
+   * @param objectiveData is the parameter from which we want to get the subjective value
+   * @return A double (between 0 and 1) that represent the subjective value of the parameter
+   */
+  @Override
+  public double applyAsDouble(double objectiveData);
+
+  /**
+   * Computes the subjective values of the first <code>length</code> objective data of an array
+   *
+   * @param in the objective data
+   * @param out the array receiving the subjective values, which may be <code>in</code>
+   * @param length the number of values to compute
+   */
+  public default void applyBatch(double[] in, double[] out, int length) {
+    checkArgument(
+        length <= in.length && length <= out.length, "The arrays are too small for %s", length);
+    for (int i = 0; i < length; i++) {
+      out[i] = applyAsDouble(in[i]);
+    }
+  }
+
+  /**
+   * Computes the subjective values of all the objective data of an array
+   *
+   * @param in the objective data
+   * @param out the array receiving the subjective values, which may be <code>in</code>
+   */
+  public default void applyBatch(double[] in, double[] out) {
+    applyBatch(in, out, in.length);
+  }
+}
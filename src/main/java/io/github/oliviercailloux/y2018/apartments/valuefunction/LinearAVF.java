@@ -6,6 +6,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.ImmutableMap;
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentColumns;
 import java.util.Arrays;
 import java.util.EnumMap;
 import org.slf4j.Logger;
@@ -73,22 +74,22 @@ public class LinearAVF {
                 Criterion.FLOOR_AREA,
                 this.linearValueFunctions
                     .get(Criterion.FLOOR_AREA)
-                    .getSubjectiveValue(apart.getFloorArea()))
+                    .applyAsDouble(apart.getFloorArea()))
             .put(
                 Criterion.NB_BEDROOMS,
                 this.linearValueFunctions
                     .get(Criterion.NB_BEDROOMS)
-                    .getSubjectiveValue((double) apart.getNbBedrooms()))
+                    .applyAsDouble(apart.getNbBedrooms()))
             .put(
                 Criterion.NB_SLEEPING,
                 this.linearValueFunctions
                     .get(Criterion.NB_SLEEPING)
-                    .getSubjectiveValue((double) apart.getNbSleeping()))
+                    .applyAsDouble(apart.getNbSleeping()))
             .put(
                 Criterion.NB_BATHROOMS,
                 this.linearValueFunctions
                     .get(Criterion.NB_BATHROOMS)
-                    .getSubjectiveValue((double) apart.getNbBathrooms()))
+                    .applyAsDouble(apart.getNbBathrooms()))
             .put(
                 Criterion.TERRACE,
                 this.booleanValueFunctions
@@ -98,7 +99,7 @@ public class LinearAVF {
                 Criterion.FLOOR_AREA_TERRACE,
                 this.linearValueFunctions
                     .get(Criterion.FLOOR_AREA_TERRACE)
-                    .getSubjectiveValue(apart.getFloorAreaTerrace()))
+                    .applyAsDouble(apart.getFloorAreaTerrace()))
             .put(
                 Criterion.WIFI,
                 this.booleanValueFunctions.get(Criterion.WIFI).getSubjectiveValue(apart.getWifi()))
@@ -106,12 +107,12 @@ public class LinearAVF {
                 Criterion.PRICE_PER_NIGHT,
                 this.reversedValueFunctions
                     .get(Criterion.PRICE_PER_NIGHT)
-                    .getSubjectiveValue(apart.getPricePerNight()))
+                    .applyAsDouble(apart.getPricePerNight()))
             .put(
                 Criterion.NB_MIN_NIGHT,
                 this.reversedValueFunctions
                     .get(Criterion.NB_MIN_NIGHT)
-                    .getSubjectiveValue((double) apart.getNbMinNight()))
+                    .applyAsDouble(apart.getNbMinNight()))
             .put(
                 Criterion.TELE,
                 this.booleanValueFunctions.get(Criterion.TELE).getSubjectiveValue(apart.getTele()))
@@ -134,6 +135,29 @@ public class LinearAVF {
     return sum / division;
   }
 
+  /**
+   * This function returns the subjective values of all the apartments of a batch, in the order of
+   * its rows. Each value is the one {@link #getSubjectiveValue(Apartment)} gives for the
+   * corresponding apartment.
+   *
+   * @param batch the apartments to score
+   * @return an array containing the subjective value of each apartment of the batch
+   */
+  public double[] getSubjectiveValues(ApartmentColumns batch) {
+    return compile().score(batch);
+  }
+
+  /**
+   * Compiles this object into an immutable scorer, which computes the same subjective values as
+   * {@link #getSubjectiveValue(Apartment)} without allocating. Later changes to this object are not
+   * reflected in the returned scorer.
+   *
+   * @return the compiled form of this object
+   */
+  public CompiledAVF compile() {
+    return CompiledAVF.of(this);
+  }
+
   /**
    * This function allows the user to clone an object LinearAVF
    *
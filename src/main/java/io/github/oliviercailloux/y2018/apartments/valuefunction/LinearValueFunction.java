@@ -1,13 +1,22 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.collect.Range;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** Class which enables the user to get the subjective value of a double given in argument. */
-public class LinearValueFunction implements PartialValueFunction<Double> {
+public class LinearValueFunction
+    implements PartialValueFunction<Double>, DoublePartialValueFunction {
 
   private Range<Double> interval;
+
+  /** The endpoints of the interval, unboxed once. */
+  private final double lower;
+
+  private final double upper;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(LinearValueFunction.class);
 
   /**
@@ -24,6 +33,8 @@ public class LinearValueFunction implements PartialValueFunction<Double> {
       throw new IllegalArgumentException("The upper bound can't be equal to the lower bound.");
     }
     interval = Range.closed(min, max);
+    lower = min;
+    upper = max;
     LOGGER.debug(
         "The interval [{}, {}] has been set with success in the LinearValueFunction class.",
         min,
@@ -36,14 +47,28 @@ public class LinearValueFunction implements PartialValueFunction<Double> {
 
   @Override
   public double getSubjectiveValue(Double objectiveData) {
-    if (interval.isEmpty()) throw new IllegalStateException();
-    if (interval.lowerEndpoint() >= objectiveData) {
+    return applyAsDouble(objectiveData);
+  }
+
+  @Override
+  public double applyAsDouble(double objectiveData) {
+    if (lower >= objectiveData) {
       return 0;
-    } else if (interval.upperEndpoint() <= objectiveData) {
+    } else if (upper <= objectiveData) {
       return 1;
     } else {
-      return (objectiveData - interval.lowerEndpoint())
-          / (interval.upperEndpoint() - interval.lowerEndpoint());
+      return (objectiveData - lower) / (upper - lower);
+    }
+  }
+
+  @Override
+  public void applyBatch(double[] in, double[] out, int length) {
+    checkArgument(
+        length <= in.length && length <= out.length, "The arrays are too small for %s", length);
+    double width = upper - lower;
+    for (int i = 0; i < length; i++) {
+      double x = in[i];
+      out[i] = lower >= x ? 0 : upper <= x ? 1 : (x - lower) / width;
     }
   }
 
@@ -1,8 +1,11 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
-import com.google.common.base.Verify;
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.PrimitiveSink;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -12,14 +15,32 @@ import org.slf4j.LoggerFactory;
 /**
  * A class that allows the user to determinate the subjective value of a double given in argument,
  * according to two or more known values.
+ *
+ * <p>The known values are stored in sorted arrays, along with the slope of each segment between two
+ * of them, so that a subjective value is found by a binary search and one multiply-add. For curves
+ * with many known values, a uniform grid can also be requested, which finds the segment of most
+ * values in constant time.
  */
-public class PieceWiseLinearValueFunction implements PartialValueFunction<Double> {
+public class PieceWiseLinearValueFunction
+    implements PartialValueFunction<Double>, DoublePartialValueFunction {
+
+  /** The values taken by the attribute, sorted in increasing order. */
+  private final double[] keys;
+
+  /** The grade associated to each value of <code>keys</code>. */
+  private final double[] grades;
+
+  /** The slope of the segment between each known value and the next one. */
+  private final double[] slopes;
 
   /**
-   * The map is composed of all known utilities. For each entry, the Key represents the value taken
-   * by the attribute and the Value is the grade associated.
+   * For each cell of the uniform grid, the index of the segment containing the start of the cell;
+   * empty when there is no grid.
    */
-  private ImmutableSortedMap<Double, Double> utilities;
+  private final int[] gridSegments;
+
+  /** The number of grid cells per unit of the attribute. */
+  private final double gridScale;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PieceWiseLinearValueFunction.class);
 
@@ -32,6 +53,19 @@ public class PieceWiseLinearValueFunction implements PartialValueFunction<Double
    *     associated to the grade 1.
    */
   public PieceWiseLinearValueFunction(Map<Double, Double> utilParameters) {
+    this(utilParameters, 0);
+  }
+
+  /**
+   * Builder of the PieceWiseLinearValueFunction with a uniform grid accelerating the search of the
+   * segment of a value, worth it for dense curves with hundreds of known values
+   *
+   * @param utilParameters is the dictionary of all values along with the grades associated to them,
+   *     as for {@link #PieceWiseLinearValueFunction(Map)}
+   * @param gridCells the number of cells of the grid dividing the range of the known values, 0 for
+   *     no grid
+   */
+  public PieceWiseLinearValueFunction(Map<Double, Double> utilParameters, int gridCells) {
 
     if (!utilParameters.containsValue(0d) || !utilParameters.containsValue(1d)) {
       throw new IllegalArgumentException("The value associated to the grade 0 or 1 is missing.");
@@ -42,34 +76,118 @@ public class PieceWiseLinearValueFunction implements PartialValueFunction<Double
       throw new IllegalArgumentException("The grades have to be between 0 and 1.");
     }
 
-    utilities = ImmutableSortedMap.copyOf(utilParameters);
-    if (!Comparators.isInOrder(this.utilities.values(), Comparator.naturalOrder())) {
+    ImmutableSortedMap<Double, Double> utilities = ImmutableSortedMap.copyOf(utilParameters);
+    if (!Comparators.isInOrder(utilities.values(), Comparator.naturalOrder())) {
       throw new IllegalArgumentException(
           "A grade cannot be greater than another if its value associated is lower.");
     }
+    checkArgument(gridCells >= 0, "The number of cells of the grid cannot be negative");
+
+    keys = utilities.keySet().stream().mapToDouble(Double::doubleValue).toArray();
+    grades = utilities.values().stream().mapToDouble(Double::doubleValue).toArray();
+    slopes = new double[keys.length - 1];
+    for (int i = 0; i < slopes.length; i++) {
+      slopes[i] = (grades[i + 1] - grades[i]) / (keys[i + 1] - keys[i]);
+    }
+
+    gridSegments = new int[gridCells];
+    gridScale = gridCells / (keys[keys.length - 1] - keys[0]);
+    int segment = 0;
+    for (int cell = 0; cell < gridCells; cell++) {
+      double start = keys[0] + cell / gridScale;
+      while (segment < slopes.length - 1 && keys[segment + 1] <= start) {
+        segment++;
+      }
+      gridSegments[cell] = segment;
+    }
     LOGGER.info("The map of data has been successfully instantiated.");
   }
 
+  /**
+   * Adds the known values and their grades, which determine the subjective values, to a fingerprint
+   *
+   * @param sink the fingerprint being computed
+   */
+  void putParameters(PrimitiveSink sink) {
+    sink.putInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      sink.putDouble(keys[i]).putDouble(grades[i]);
+    }
+  }
+
   @Override
   public double getSubjectiveValue(Double objectiveData) {
+    return applyAsDouble(objectiveData);
+  }
 
-    Verify.verify(utilities.size() >= 2);
-
-    if (objectiveData <= utilities.firstKey()) {
+  @Override
+  public double applyAsDouble(double objectiveData) {
+    checkArgument(!Double.isNaN(objectiveData), "The objective data cannot be NaN");
+    if (objectiveData <= keys[0]) {
       return 0d;
     }
-    if (objectiveData >= utilities.lastKey()) {
+    if (objectiveData >= keys[keys.length - 1]) {
       return 1d;
     }
+    return valueOnSegment(findSegment(objectiveData), objectiveData);
+  }
+
+  /**
+   * Computes the subjective values of objective data sorted in increasing order, walking the
+   * segments once along with the data instead of searching the segment of each value
+   *
+   * @param sortedIn the objective data, in increasing order
+   * @param out the array receiving the subjective values, which may be <code>sortedIn</code>
+   * @param length the number of values to compute
+   */
+  public void applySorted(double[] sortedIn, double[] out, int length) {
+    checkArgument(
+        length <= sortedIn.length && length <= out.length,
+        "The arrays are too small for %s",
+        length);
+    int segment = 0;
+    double previous = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < length; i++) {
+      double x = sortedIn[i];
+      checkArgument(x >= previous, "The objective data must be sorted and not NaN");
+      previous = x;
+      if (x <= keys[0]) {
+        out[i] = 0d;
+      } else if (x >= keys[keys.length - 1]) {
+        out[i] = 1d;
+      } else {
+        while (keys[segment + 1] <= x) {
+          segment++;
+        }
+        out[i] = valueOnSegment(segment, x);
+      }
+    }
+  }
 
-    Map.Entry<Double, Double> minEntry = utilities.floorEntry(objectiveData);
-    Map.Entry<Double, Double> maxEntry = utilities.ceilingEntry(objectiveData);
-    Double minKey = minEntry.getKey();
-    Double maxKey = maxEntry.getKey();
-    Double minValue = minEntry.getValue();
-    Double maxValue = maxEntry.getValue();
+  /**
+   * Finds the segment of a value strictly between the first and the last known values
+   *
+   * @return the index i such that keys[i] <= x < keys[i + 1]
+   */
+  private int findSegment(double x) {
+    if (gridSegments.length > 0) {
+      int cell = Math.min(gridSegments.length - 1, (int) ((x - keys[0]) * gridScale));
+      int segment = gridSegments[cell];
+      /* The cell computed may be off by one because of rounding, hence the search both ways. */
+      while (keys[segment] > x) {
+        segment--;
+      }
+      while (keys[segment + 1] <= x) {
+        segment++;
+      }
+      return segment;
+    }
+    int index = Arrays.binarySearch(keys, x);
+    return index >= 0 ? index : -index - 2;
+  }
 
-    return ((objectiveData - minKey) * (maxValue - minValue) / (maxKey - minKey)) + minValue;
+  private double valueOnSegment(int segment, double x) {
+    return grades[segment] + (x - keys[segment]) * slopes[segment];
   }
 
   @Override
@@ -1,5 +1,7 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.google.common.collect.Range;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,9 +10,16 @@ import org.slf4j.LoggerFactory;
  * Class which enables the user to get the subjective value of a double given in argument in the
  * case where the subjective value associated to 1 is the lower bound of the range.
  */
-public class ReversedLinearValueFunction implements PartialValueFunction<Double> {
+public class ReversedLinearValueFunction
+    implements PartialValueFunction<Double>, DoublePartialValueFunction {
 
   private Range<Double> interval;
+
+  /** The endpoints of the interval, unboxed once. */
+  private final double lower;
+
+  private final double upper;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(ReversedLinearValueFunction.class);
 
   /**
@@ -27,6 +36,8 @@ public class ReversedLinearValueFunction implements PartialValueFunction<Double>
       throw new IllegalArgumentException("The upper bound can't be equal to the lower bound.");
     }
     interval = Range.closed(min, max);
+    lower = min;
+    upper = max;
     LOGGER.info(
         "The interval [{}, {}] has been set with success in the LinearValueFunction class.",
         min,
@@ -39,14 +50,28 @@ public class ReversedLinearValueFunction implements PartialValueFunction<Double>
 
   @Override
   public double getSubjectiveValue(Double objectiveData) throws IllegalArgumentException {
-    if (interval.lowerEndpoint() > objectiveData) {
+    return applyAsDouble(objectiveData);
+  }
+
+  @Override
+  public double applyAsDouble(double objectiveData) {
+    if (lower > objectiveData) {
       return 1;
-    } else if (interval.upperEndpoint() < objectiveData) {
+    } else if (upper < objectiveData) {
       return 0;
     } else {
-      return 1
-          - (objectiveData - interval.lowerEndpoint())
-              / (interval.upperEndpoint() - interval.lowerEndpoint());
+      return 1 - (objectiveData - lower) / (upper - lower);
+    }
+  }
+
+  @Override
+  public void applyBatch(double[] in, double[] out, int length) {
+    checkArgument(
+        length <= in.length && length <= out.length, "The arrays are too small for %s", length);
+    double width = upper - lower;
+    for (int i = 0; i < length; i++) {
+      double x = in[i];
+      out[i] = lower > x ? 1 : upper < x ? 0 : 1 - (x - lower) / width;
     }
   }
 
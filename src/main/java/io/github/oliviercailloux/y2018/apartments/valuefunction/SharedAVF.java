@@ -0,0 +1,87 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The current value function of a session, shared with the threads ranking apartments for it. The
+ * value function is held as an {@link AVFSnapshot}, which the session replaces atomically after
+ * each adaptation: a ranker reading it with {@link #get()} takes no lock and always sees a
+ * consistent set of functions and weights, the previous one or the new one, never a mix of both.
+ *
+ * <p>A ranker should read the snapshot once per ranking, and score all its apartments with it.
+ */
+public final class SharedAVF {
+
+  private final AtomicReference<AVFSnapshot> current;
+
+  private SharedAVF(AVFSnapshot initial) {
+    this.current = new AtomicReference<>(checkNotNull(initial));
+  }
+
+  /**
+   * Shares a value function
+   *
+   * @param initial the value function to share first
+   * @return a new holder of the value function
+   */
+  public static SharedAVF of(AVFSnapshot initial) {
+    return new SharedAVF(initial);
+  }
+
+  /**
+   * Shares a snapshot of a value function
+   *
+   * @param initial the value function whose current functions and weights to share first
+   * @return a new holder of the value function
+   */
+  public static SharedAVF of(ApartmentValueFunction initial) {
+    return new SharedAVF(initial.snapshot());
+  }
+
+  /**
+   * Gives the current value function, without taking any lock
+   *
+   * @return the snapshot last set
+   */
+  public AVFSnapshot get() {
+    return current.get();
+  }
+
+  /**
+   * Replaces the current value function
+   *
+   * @param snapshot the value function that the next readers will see
+   */
+  public void set(AVFSnapshot snapshot) {
+    current.set(checkNotNull(snapshot));
+  }
+
+  /**
+   * Replaces the current value function by an adaptation of it, such as {@link
+   * AVFSnapshot#adaptWeight(Criterion, Criterion)}. When several threads adapt the value function
+   * at the same time, none of their adaptations is lost: the adaptation is applied again to the
+   * value function set meanwhile, hence it must have no side effect.
+   *
+   * @param adaptation computes the new value function from the current one
+   * @return the new value function
+   */
+  public AVFSnapshot update(UnaryOperator<AVFSnapshot> adaptation) {
+    checkNotNull(adaptation);
+    return current.updateAndGet(snapshot -> checkNotNull(adaptation.apply(snapshot)));
+  }
+
+  /**
+   * Replaces the current value function only if it is still the one expected
+   *
+   * @param expected the value function that the caller adapted
+   * @param snapshot the adapted value function
+   * @return <code>true</code> if the value function was replaced, <code>false</code> if another
+   *     thread replaced <code>expected</code> meanwhile
+   */
+  public boolean compareAndSet(AVFSnapshot expected, AVFSnapshot snapshot) {
+    return current.compareAndSet(expected, checkNotNull(snapshot));
+  }
+}
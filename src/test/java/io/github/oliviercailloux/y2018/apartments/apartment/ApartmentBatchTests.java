@@ -0,0 +1,87 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ApartmentBatchTests {
+
+  /** Every value of the batch must be the one of the apartment of the same row */
+  @Test
+  void testCopyOf() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    ApartmentBatch batch = ApartmentBatch.copyOf(apartments);
+    assertEquals(apartments.size(), batch.size());
+    for (int row = 0; row < apartments.size(); row++) {
+      Apartment apartment = apartments.get(row);
+      assertEquals(apartment.getFloorArea(), batch.getValue(Criterion.FLOOR_AREA, row));
+      assertEquals(apartment.getNbBedrooms(), batch.getValue(Criterion.NB_BEDROOMS, row));
+      assertEquals(apartment.getNbMinNight(), batch.getValue(Criterion.NB_MIN_NIGHT, row));
+      assertEquals(apartment.getPricePerNight(), batch.getValue(Criterion.PRICE_PER_NIGHT, row));
+      assertEquals(apartment.getTele() ? 1d : 0d, batch.getValue(Criterion.TELE, row));
+      assertEquals(apartment.getTerrace() ? 1d : 0d, batch.getValue(Criterion.TERRACE, row));
+      assertEquals(apartment.getWifi() ? 1d : 0d, batch.getValue(Criterion.WIFI, row));
+    }
+  }
+
+  /** The values copied by column must be those given one by one */
+  @Test
+  void testCopyValues() {
+    ApartmentBatch batch = ApartmentBatch.copyOf(JsonConvert.getDefaultApartments());
+    for (Criterion criterion : Criterion.values()) {
+      double[] values = new double[10];
+      batch.copyValues(criterion, 100, 10, values);
+      double[] expected = new double[10];
+      for (int i = 0; i < 10; i++) {
+        expected[i] = batch.getValue(criterion, 100 + i);
+      }
+      assertArrayEquals(expected, values);
+    }
+    assertThrows(
+        IndexOutOfBoundsException.class,
+        () -> batch.copyValues(Criterion.FLOOR_AREA, batch.size() - 5, 10, new double[10]));
+  }
+
+  /** The rows matching some flags must be those whose apartments have these attributes */
+  @Test
+  void testRowsMatching() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    ApartmentBatch batch = ApartmentBatch.copyOf(apartments);
+    int[] rows = batch.rowsMatching(Apartment.TELE_FLAG | Apartment.WIFI_FLAG, Apartment.WIFI_FLAG);
+    int expectedCount = 0;
+    for (int row = 0; row < apartments.size(); row++) {
+      Apartment apartment = apartments.get(row);
+      assertEquals(apartment.getFlags(), batch.getFlags(row));
+      if (apartment.getWifi() && !apartment.getTele()) {
+        assertEquals(row, rows[expectedCount]);
+        expectedCount++;
+      }
+    }
+    assertEquals(expectedCount, rows.length);
+    assertEquals(
+        expectedCount,
+        batch.countMatching(Apartment.TELE_FLAG | Apartment.WIFI_FLAG, Apartment.WIFI_FLAG));
+    assertEquals(apartments.size(), batch.countMatching(0, 0));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> batch.countMatching(Apartment.TELE_FLAG, Apartment.WIFI_FLAG));
+  }
+
+  /** The builder must grow beyond its expected size */
+  @Test
+  void testBuilderGrows() {
+    ApartmentBatch.Builder builder = new ApartmentBatch.Builder(0);
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    apartments.forEach(builder::add);
+    ApartmentBatch batch = builder.build();
+    assertEquals(apartments.size(), batch.size());
+    assertEquals(
+        apartments.get(apartments.size() - 1).getFloorArea(),
+        batch.getValue(Criterion.FLOOR_AREA, batch.size() - 1));
+  }
+}
@@ -0,0 +1,182 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.json.ApartmentJsonReader;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures what an {@link ApartmentStringPool} costs and saves when reading apartments. The
+ * benchmarks read the default file with and without a pool; before them, the main method logs the
+ * heap retained by the default catalogue scaled up to a million rows, as when each apartment is
+ * read with its own strings, then as when they are read with a pool, as the used heap after a full
+ * collection tells it. The logs of the apartment builder are turned off. It is not run by the
+ * tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-Xmx2g -cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.apartment.ApartmentStringPoolBenchmark"</code>.
+ *
+ * <p>The rows of the scaled catalogue vary as those of the default file do: each one takes the
+ * street, the ZIP code and the city of a default apartment, with a number in the street drawn among
+ * a hundred, a title of the form <code>Location Apartement 1234</code> with a random number, and a
+ * description telling its number of bedrooms and its random floor area, unique to the row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Benchmark)
+public class ApartmentStringPoolBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ApartmentStringPoolBenchmark.class);
+
+  /** The number of rows of the scaled catalogue. */
+  private static final int ROWS = 1_000_000;
+
+  private byte[] json;
+
+  @Setup
+  public void setup() throws IOException {
+    json = readDefaultJson();
+  }
+
+  @Benchmark
+  public List<Apartment> readSeparate() {
+    return read(null);
+  }
+
+  @Benchmark
+  public List<Apartment> readPooled() {
+    return read(ApartmentStringPool.create());
+  }
+
+  private List<Apartment> read(ApartmentStringPool pool) {
+    List<Apartment> apartments = new ArrayList<>();
+    try (ApartmentJsonReader reader =
+        pool == null
+            ? ApartmentJsonReader.of(new ByteArrayInputStream(json))
+            : ApartmentJsonReader.of(new ByteArrayInputStream(json), pool)) {
+      reader.forEachRemaining(apartments::add);
+    }
+    return apartments;
+  }
+
+  private static byte[] readDefaultJson() throws IOException {
+    try (InputStream input = JsonConvert.class.getResourceAsStream("defaultApartments.json")) {
+      return input.readAllBytes();
+    }
+  }
+
+  /**
+   * Measures the heap retained by the scaled catalogue, built as the readers build the apartments
+   *
+   * @param pooled whether to canonicalize the strings and encode the addresses with a pool, as the
+   *     readers given a pool do
+   * @return the bytes retained per apartment, including those of the pool
+   */
+  private static long retainedBytesPerApartment(boolean pooled) {
+    List<Apartment> templates = JsonConvert.getDefaultApartments();
+    Random random = new Random(0);
+    List<Apartment> apartments = new ArrayList<>(ROWS);
+    long before = usedHeap();
+    ApartmentStringPool pool = pooled ? ApartmentStringPool.create() : null;
+    for (int i = 0; i < ROWS; i++) {
+      apartments.add(scaledRow(templates.get(random.nextInt(templates.size())), random, pool));
+    }
+    long after = usedHeap();
+    Reference.reachabilityFence(apartments);
+    Reference.reachabilityFence(pool);
+    if (pooled) {
+      LOGGER.info(
+          "The pool holds {} addresses of {} components and {} texts.",
+          pool.getAddressCount(),
+          pool.getComponentCount(),
+          pool.getTextCount());
+    }
+    return (after - before) / ROWS;
+  }
+
+  /**
+   * Gives a row of the scaled catalogue, whose strings are new instances, as a reader creates them
+   *
+   * @param template the default apartment giving the street, the city and the other attributes
+   * @param random draws the number in the street, the title and the floor area
+   * @param pool the pool of the catalogue, or <code>null</code>
+   * @return the row
+   */
+  private static Apartment scaledRow(Apartment template, Random random, ApartmentStringPool pool) {
+    String address =
+        template.getAddress().replaceFirst("^\\d+\\w*", String.valueOf(1 + random.nextInt(100)));
+    String title = "Location Apartement " + (1000 + random.nextInt(9000));
+    double floorArea = 10d + 140d * random.nextDouble();
+    String description =
+        "This apartment has "
+            + template.getNbBedrooms()
+            + " bedrooms and a size of "
+            + floorArea
+            + "square meters";
+    return Apartment.bulkBuilder()
+        .setAddress(address, pool)
+        .setTitle(pool == null ? title : pool.canonicalText(title))
+        .setDescription(pool == null ? description : pool.canonicalText(description))
+        .setFloorArea(floorArea)
+        .setFloorAreaTerrace(template.getFloorAreaTerrace())
+        .setNbBathrooms(template.getNbBathrooms())
+        .setNbBedrooms(template.getNbBedrooms())
+        .setNbMinNight(template.getNbMinNight())
+        .setNbSleeping(template.getNbSleeping())
+        .setPricePerNight(template.getPricePerNight())
+        .setTele(template.getTele())
+        .setTerrace(template.getTerrace())
+        .setWifi(template.getWifi())
+        .build();
+  }
+
+  /** Gives the heap used once the garbage collector has collected all it could. */
+  private static long usedHeap() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; i++) {
+      memory.gc();
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+
+  public static void main(String[] args) throws IOException, RunnerException {
+    long separate = retainedBytesPerApartment(false);
+    long pooled = retainedBytesPerApartment(true);
+    LOGGER.info(
+        "{} apartments: {} bytes per apartment with their own strings, {} with a pool.",
+        ROWS,
+        separate,
+        pooled);
+    new Runner(
+            new OptionsBuilder()
+                .include(ApartmentStringPoolBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
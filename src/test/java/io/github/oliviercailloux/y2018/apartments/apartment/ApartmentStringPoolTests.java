@@ -0,0 +1,136 @@
+package io.github.oliviercailloux.y2018.apartments.apartment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ApartmentStringPoolTests {
+
+  /** Apartments equal to each other must end up sharing their address and strings */
+  @Test
+  void testCanonicalize() {
+    ApartmentStringPool pool = ApartmentStringPool.create();
+    Apartment apartment =
+        new Apartment.Builder()
+            .setAddress("1 Rue Carnot, 93350 Le Bourget")
+            .setTitle("Location Apartement 7132")
+            .setDescription("Calme")
+            .setFloorArea(30d)
+            .setTerrace(false)
+            .setTele(false)
+            .setWifi(true)
+            .build();
+    Apartment encoded = pool.canonicalize(apartment);
+    assertNotSame(apartment, encoded);
+    assertEquals(apartment, encoded);
+    assertEquals(encoded, apartment);
+    assertEquals(apartment.hashCode(), encoded.hashCode());
+    assertEquals(apartment.getId(), encoded.getId());
+    assertEquals(apartment.getAddress(), encoded.getAddress());
+    assertSame(encoded, pool.canonicalize(encoded));
+
+    Apartment copy =
+        new Apartment.Builder()
+            .setAddress(new String(apartment.getAddress()))
+            .setTitle(new String(apartment.getTitle()))
+            .setDescription(new String(apartment.getDescription()))
+            .setFloorArea(30d)
+            .setTerrace(false)
+            .setTele(false)
+            .setWifi(true)
+            .build();
+    Apartment canonical = pool.canonicalize(copy);
+    assertNotSame(copy, canonical);
+    assertEquals(apartment, canonical);
+    assertSame(encoded.getEncodedAddress(), canonical.getEncodedAddress());
+    assertSame(apartment.getTitle(), canonical.getTitle());
+    assertSame(apartment.getDescription(), canonical.getDescription());
+    assertEquals(1, pool.getAddressCount());
+    assertEquals(4, pool.getComponentCount());
+    assertEquals(2, pool.getTextCount());
+  }
+
+  /**
+   * Distinct addresses must share the components they have in common, and be given back as they
+   * were, even when they cannot be parsed
+   */
+  @Test
+  void testAddressComponents() {
+    ApartmentStringPool pool = ApartmentStringPool.create();
+    Address first = pool.encodeAddress("1 Rue Carnot, 93350 Le Bourget");
+    Address second = pool.encodeAddress(new String("12bis Rue Carnot, 93350 Le Bourget"));
+    assertEquals("1", first.getNumber());
+    assertEquals("12bis", second.getNumber());
+    assertEquals("93350", second.getZipCode());
+    assertSame(first.getStreet(), second.getStreet());
+    assertSame(first.getZipCode(), second.getZipCode());
+    assertSame(first.getCity(), second.getCity());
+    assertEquals("12bis Rue Carnot, 93350 Le Bourget", second.toString());
+    assertEquals(2, pool.getAddressCount());
+    assertEquals(5, pool.getComponentCount());
+
+    Address unparsed = pool.encodeAddress("Place de la Mairie, Le Bourget");
+    assertEquals("Place de la Mairie, Le Bourget", unparsed.toString());
+    assertEquals("", unparsed.getNumber());
+    assertEquals("", unparsed.getCity());
+    assertSame(unparsed, pool.encodeAddress(new String("Place de la Mairie, Le Bourget")));
+
+    Apartment apartment =
+        new Apartment.Builder()
+            .setAddress("12bis Rue Carnot, 93350 Le Bourget", pool)
+            .setTitle("Location Apartement 7132")
+            .setTerrace(false)
+            .setTele(false)
+            .setWifi(false)
+            .build();
+    assertSame(second, apartment.getEncodedAddress());
+    assertEquals("12bis Rue Carnot, 93350 Le Bourget", apartment.getAddress());
+  }
+
+  /** An apartment without floor area, which build accepts, must be canonicalized as the others */
+  @Test
+  void testWithoutFloorArea() {
+    ApartmentStringPool pool = ApartmentStringPool.create();
+    String address = "1 Rue Carnot, 93350 Le Bourget";
+    Address encoded = pool.encodeAddress(address);
+    Apartment apartment =
+        new Apartment.Builder()
+            .setAddress(new String(address))
+            .setTitle("Sans surface")
+            .setTerrace(false)
+            .setTele(false)
+            .setWifi(false)
+            .build();
+    Apartment canonical = pool.canonicalize(apartment);
+    assertEquals(apartment, canonical);
+    assertEquals(apartment.getId(), canonical.getId());
+    assertSame(encoded, canonical.getEncodedAddress());
+    assertEquals(address, canonical.getAddress());
+  }
+
+  /**
+   * The default loaders of JsonConvert must encode the addresses and give the apartments sharing
+   * strings one instance
+   */
+  @Test
+  void testDefaultLoaders(@TempDir Path directory) throws Exception {
+    Apartment apartment = JsonConvert.getDefaultApartments().get(0);
+    List<Apartment> twice = List.of(apartment, apartment);
+    Path json = directory.resolve("apartments.json");
+    Path jsonLines = directory.resolve("apartments.jsonl");
+    JsonConvert.apartmentsToJson(twice, json);
+    JsonConvert.apartmentsToJsonLines(twice, jsonLines);
+    for (List<Apartment> read :
+        List.of(JsonConvert.jsonToApartments(json), JsonConvert.jsonLinesToApartments(jsonLines))) {
+      assertEquals(twice, read);
+      assertSame(read.get(0).getEncodedAddress(), read.get(1).getEncodedAddress());
+      assertSame(read.get(0).getTitle(), read.get(1).getTitle());
+    }
+  }
+}
@@ -3,6 +3,7 @@ package io.github.oliviercailloux.y2018.apartments.apartment;
 import static org.junit.jupiter.api.Assertions.*;
 
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment.Builder;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class ApartmentTests {
@@ -181,4 +182,103 @@ class ApartmentTests {
 
     assertFalse(a1.hashCode() == a2.hashCode());
   }
+
+  /** The flags must pack the boolean attributes set */
+  @Test
+  void testGetFlags() {
+    Apartment apartment =
+        new Builder()
+            .setFloorArea(floorArea)
+            .setAddress(address)
+            .setTitle(title)
+            .setTerrace(hasTerrace)
+            .setFloorAreaTerrace(floorAreaTerrace)
+            .setWifi(wifi)
+            .setTele(tele)
+            .build();
+    assertEquals(Apartment.TERRACE_FLAG | Apartment.WIFI_FLAG, apartment.getFlags());
+    assertTrue(apartment.getTerrace());
+    assertTrue(apartment.getWifi());
+    assertFalse(apartment.getTele());
+  }
+
+  /**
+   * Test if the bulk builder builds the same apartments, and reports all the problems of an invalid
+   * apartment instead of failing on the first one
+   */
+  @Test
+  void testBulkBuilder() {
+    Apartment apartment =
+        new Builder()
+            .setFloorArea(50)
+            .setAddress("1 rue de la Paix")
+            .setTitle("Studio")
+            .setTele(true)
+            .setTerrace(false)
+            .setWifi(true)
+            .build();
+    Apartment bulk =
+        Apartment.bulkBuilder()
+            .setFloorArea(50)
+            .setAddress("1 rue de la Paix")
+            .setTitle("Studio")
+            .setTele(true)
+            .setTerrace(false)
+            .setWifi(true)
+            .build();
+    assertEquals(apartment, bulk);
+
+    Builder invalid =
+        Apartment.bulkBuilder()
+            .setFloorArea(-1)
+            .setAddress("")
+            .setNbBedrooms(-2)
+            .setTele(true)
+            .setTerrace(false)
+            .setWifi(true);
+    assertEquals(
+        List.of(
+            "The floor area should not be <= 0",
+            "The address should not be empty",
+            "The number of Bedrooms can not be negative",
+            "The address of the apartment must be specified",
+            "The title of the apartment must be specified"),
+        invalid.validate());
+    assertThrows(IllegalStateException.class, invalid::build);
+
+    assertThrows(IllegalArgumentException.class, () -> new Builder().setFloorArea(-1));
+    assertThrows(
+        IllegalStateException.class,
+        () -> new Builder().setFloorArea(50).setTele(true).setTerrace(false).setWifi(true).build());
+  }
+
+  /**
+   * Test if the apartments built do not change when their builder is used again, and if their
+   * identifier depends on all their attributes only
+   */
+  @Test
+  void testImmutableAndId() {
+    Builder apartBuilder =
+        new Builder()
+            .setFloorArea(floorArea)
+            .setAddress(address)
+            .setTitle(title)
+            .setDescription(description)
+            .setTerrace(hasTerrace)
+            .setFloorAreaTerrace(floorAreaTerrace)
+            .setWifi(wifi)
+            .setTele(tele);
+    Apartment a1 = apartBuilder.build();
+    Apartment a2 = apartBuilder.setDescription(description + ".").build();
+    assertEquals(description, a1.getDescription());
+    assertNotEquals(a1, a2);
+    assertNotEquals(a1.getId(), a2.getId());
+
+    Apartment a3 = apartBuilder.setDescription(description).build();
+    assertNotSame(a1, a3);
+    assertEquals(a1, a3);
+    assertEquals(a1.hashCode(), a3.hashCode());
+    assertEquals(a1.getId(), a3.getId());
+    assertNotEquals(0, a1.getId());
+  }
 }
@@ -0,0 +1,87 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.binary;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the loading of the default apartments from the binary format and from JSON, as
+ * apartments and as a batch. The logs of the apartment builder are turned off. It is not run by the
+ * tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.apartment.binary.BinaryConvertBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Benchmark)
+public class BinaryConvertBenchmark {
+
+  private Path directory;
+  private Path jsonPath;
+  private Path binaryPath;
+
+  @Setup
+  public void setup() throws IOException {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    directory = Files.createTempDirectory("apartments");
+    jsonPath = directory.resolve("apartments.json");
+    binaryPath = directory.resolve("apartments.bin");
+    JsonConvert.apartmentsToJson(apartments, jsonPath);
+    BinaryConvert.apartmentsToBinary(apartments, binaryPath);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(jsonPath);
+    Files.delete(binaryPath);
+    Files.delete(directory);
+  }
+
+  @Benchmark
+  public List<Apartment> readBinary() throws IOException {
+    return BinaryConvert.binaryToApartments(binaryPath);
+  }
+
+  @Benchmark
+  public List<Apartment> readJson() throws IOException {
+    return JsonConvert.jsonToApartments(jsonPath);
+  }
+
+  @Benchmark
+  public ApartmentBatch readBinaryBatch() throws IOException {
+    return BinaryConvert.binaryToApartmentBatch(binaryPath);
+  }
+
+  @Benchmark
+  public ApartmentBatch readJsonBatch() throws IOException {
+    return JsonConvert.jsonToApartmentBatch(jsonPath);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(BinaryConvertBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
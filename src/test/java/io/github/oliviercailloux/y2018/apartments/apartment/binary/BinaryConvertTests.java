@@ -0,0 +1,139 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.binary;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryConvertTests {
+
+  /** The apartments must be read back as written, entirely, by row and by columns */
+  @Test
+  void testWriteAndRead(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    Path path = directory.resolve("apartments.bin");
+    BinaryConvert.apartmentsToBinary(apartments, path);
+
+    assertEquals(apartments, BinaryConvert.binaryToApartments(path));
+    try (ApartmentBinaryReader reader = ApartmentBinaryReader.of(path)) {
+      assertEquals(apartments.size(), reader.size());
+      int last = apartments.size() - 1;
+      assertEquals(apartments.get(last), reader.get(last));
+      assertEquals(apartments.get(0), reader.get(0));
+      assertThrows(IndexOutOfBoundsException.class, () -> reader.get(apartments.size()));
+    }
+
+    ApartmentBatch batch = BinaryConvert.binaryToApartmentBatch(path);
+    ApartmentBatch expected = ApartmentBatch.copyOf(apartments);
+    assertEquals(expected.size(), batch.size());
+    for (int row = 0; row < batch.size(); row++) {
+      assertEquals(expected.getFlags(row), batch.getFlags(row));
+      for (Criterion criterion : Criterion.values()) {
+        assertEquals(expected.getValue(criterion, row), batch.getValue(criterion, row));
+      }
+    }
+
+    BinaryConvert.apartmentsToBinary(List.of(), path);
+    assertEquals(List.of(), BinaryConvert.binaryToApartments(path));
+  }
+
+  /** An apartment without floor area is valid, hence must be read back as it was written */
+  @Test
+  void testWithoutFloorArea(@TempDir Path directory) throws Exception {
+    Apartment apartment =
+        new Apartment.Builder()
+            .setAddress("1 Rue Carnot, 93350 Le Bourget")
+            .setTitle("Sans surface")
+            .setTerrace(false)
+            .setTele(false)
+            .setWifi(false)
+            .build();
+    Path path = directory.resolve("apartments.bin");
+    BinaryConvert.apartmentsToBinary(List.of(apartment), path);
+    assertEquals(List.of(apartment), BinaryConvert.binaryToApartments(path));
+  }
+
+  /** The conversion of the default JSON file must give a smaller file of the same apartments */
+  @Test
+  void testJsonToBinary(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    Path jsonPath = directory.resolve("apartments.json");
+    Path binaryPath = directory.resolve("apartments.bin");
+    JsonConvert.apartmentsToJson(apartments, jsonPath);
+    BinaryConvert.jsonToBinary(jsonPath, binaryPath);
+
+    assertEquals(apartments, BinaryConvert.binaryToApartments(binaryPath));
+    assertTrue(Files.size(binaryPath) < Files.size(jsonPath) / 2);
+  }
+
+  /** A file that is not complete, or not in the binary format, must be rejected */
+  @Test
+  void testReadInvalid(@TempDir Path directory) throws Exception {
+    Path path = directory.resolve("apartments.bin");
+    BinaryConvert.apartmentsToBinary(JsonConvert.getDefaultApartments(), path);
+    byte[] bytes = Files.readAllBytes(path);
+
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    assertThrows(IllegalArgumentException.class, () -> BinaryConvert.binaryToApartments(path));
+    Files.writeString(path, "[{\"title\": \"not binary\"}]");
+    assertThrows(IllegalArgumentException.class, () -> BinaryConvert.binaryToApartments(path));
+  }
+
+  /**
+   * A conversion that fails must leave the previous file as it was, and a writer that fails must
+   * not complete its file
+   */
+  @Test
+  void testFailedWrite(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    Path path = directory.resolve("apartments.bin");
+    BinaryConvert.apartmentsToBinary(apartments, path);
+    byte[] previous = Files.readAllBytes(path);
+
+    Iterable<Apartment> failing =
+        () ->
+            Stream.concat(
+                    apartments.stream().limit(2),
+                    Stream.generate(
+                        () -> {
+                          throw new IllegalStateException("The source failed");
+                        }))
+                .iterator();
+    assertThrows(
+        IllegalStateException.class, () -> BinaryConvert.apartmentsToBinary(failing, path));
+    assertArrayEquals(previous, Files.readAllBytes(path));
+
+    Path jsonPath = directory.resolve("apartments.json");
+    JsonConvert.apartmentsToJson(apartments, jsonPath);
+    Files.writeString(
+        jsonPath,
+        Files.readString(jsonPath).replaceFirst("\"floorArea\":\\s*[^,]+", "\"floorArea\":-1"));
+    assertThrows(IllegalArgumentException.class, () -> BinaryConvert.jsonToBinary(jsonPath, path));
+    assertArrayEquals(previous, Files.readAllBytes(path));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(Set.of(path, jsonPath), files.collect(Collectors.toSet()));
+    }
+
+    Path aborted = directory.resolve("aborted.bin");
+    try (ApartmentBinaryWriter writer = ApartmentBinaryWriter.of(Files.newOutputStream(aborted))) {
+      writer.write(apartments.get(0));
+      writer.abort();
+      assertThrows(IllegalStateException.class, () -> writer.write(apartments.get(1)));
+    }
+    assertThrows(IllegalArgumentException.class, () -> BinaryConvert.binaryToApartments(aborted));
+  }
+}
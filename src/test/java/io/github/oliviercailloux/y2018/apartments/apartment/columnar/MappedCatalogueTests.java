@@ -0,0 +1,92 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.columnar;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.ranking.BatchRanking;
+import io.github.oliviercailloux.y2018.apartments.ranking.Ranker;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedCatalogueTests {
+
+  /** The mapped columns must be those of the batch, and the apartments those written */
+  @Test
+  void testWriteAndOpen(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    MappedCatalogue.write(apartments, directory);
+    MappedCatalogue catalogue = MappedCatalogue.open(directory);
+    ApartmentBatch batch = ApartmentBatch.copyOf(apartments);
+
+    assertEquals(batch.size(), catalogue.size());
+    double[] expected = new double[batch.size()];
+    double[] values = new double[batch.size()];
+    for (Criterion criterion : Criterion.values()) {
+      batch.copyValues(criterion, 0, batch.size(), expected);
+      catalogue.copyValues(criterion, 0, catalogue.size(), values);
+      assertArrayEquals(expected, values);
+      assertEquals(batch.getValue(criterion, 7), catalogue.getValue(criterion, 7));
+    }
+    for (int row = 0; row < batch.size(); row++) {
+      assertEquals(batch.getFlags(row), catalogue.getFlags(row));
+    }
+    assertEquals(apartments.get(3), catalogue.getApartment(3));
+    assertEquals(List.of(apartments.get(9), apartments.get(0)), catalogue.getApartments(9, 0));
+  }
+
+  /** An apartment without floor area is valid, hence must be read back as it was written */
+  @Test
+  void testWithoutFloorArea(@TempDir Path directory) throws Exception {
+    Apartment apartment =
+        new Apartment.Builder()
+            .setAddress("1 Rue Carnot, 93350 Le Bourget")
+            .setTitle("Sans surface")
+            .setTerrace(false)
+            .setTele(false)
+            .setWifi(false)
+            .build();
+    MappedCatalogue.write(List.of(apartment), directory);
+    assertEquals(apartment, MappedCatalogue.open(directory).getApartment(0));
+  }
+
+  /** Scoring and ranking the mapped catalogue must give exactly the results of the batch */
+  @Test
+  void testScore(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    MappedCatalogue.write(apartments, directory);
+    MappedCatalogue catalogue = MappedCatalogue.open(directory);
+    ApartmentBatch batch = ApartmentBatch.copyOf(apartments);
+    CompiledAVF avf =
+        ProfileManager.getInstance().getProfile(ProfileType.FAMILY).getLinearAVF().compile();
+
+    assertArrayEquals(avf.score(batch), avf.score(catalogue));
+    BatchRanking ranking = Ranker.topK(catalogue, avf, 10);
+    assertEquals(Ranker.topK(batch, avf, 10).getRows(), ranking.getRows());
+    assertEquals(
+        apartments.get(ranking.getRows().get(0)),
+        catalogue.getApartments(ranking.getRows().toArray()).get(0));
+  }
+
+  /** A catalogue whose writing did not complete, or whose files changed, must be rejected */
+  @Test
+  void testOpenInvalid(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    MappedCatalogue.write(apartments, directory);
+    Files.write(directory.resolve("flags"), new byte[] {0});
+    assertThrows(IllegalArgumentException.class, () -> MappedCatalogue.open(directory));
+    Files.delete(directory.resolve("header"));
+    assertThrows(NoSuchFileException.class, () -> MappedCatalogue.open(directory));
+  }
+}
@@ -0,0 +1,109 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link ApartmentJsonCodec} with JSON-B, reading and writing one apartment and the whole
+ * default file. JSON-B is measured with a <code>Jsonb</code> created once, and with one created for
+ * each call as JsonConvert used to do. The logs of the apartment builder are turned off. It is not
+ * run by the tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.apartment.json.ApartmentJsonCodecBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Benchmark)
+public class ApartmentJsonCodecBenchmark {
+
+  @SuppressWarnings("serial")
+  private static final Type LIST_TYPE =
+      new ArrayList<Apartment>() {
+        /**/
+      }.getClass().getGenericSuperclass();
+
+  @Param({"1", "500"})
+  private int apartmentCount;
+
+  private String json;
+  private List<Apartment> apartments;
+  private Jsonb jsonb;
+  private Jsonb writingJsonb;
+
+  @Setup
+  public void setup() throws IOException {
+    try (InputStream input = JsonConvert.class.getResourceAsStream("defaultApartments.json")) {
+      apartments = ApartmentJsonCodec.read(input).subList(0, apartmentCount);
+    }
+    json = ApartmentJsonCodec.toJson(apartments);
+    jsonb = JsonbBuilder.create(new JsonbConfig().withAdapters(JsonConvert.getAdapter()));
+    writingJsonb = JsonbBuilder.create();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    jsonb.close();
+    writingJsonb.close();
+  }
+
+  @Benchmark
+  public List<Apartment> readCodec() {
+    return ApartmentJsonCodec.read(json);
+  }
+
+  @Benchmark
+  public List<Apartment> readJsonb() {
+    return jsonb.fromJson(json, LIST_TYPE);
+  }
+
+  @Benchmark
+  public List<Apartment> readJsonbCreatedEachTime() throws Exception {
+    try (Jsonb created =
+        JsonbBuilder.create(new JsonbConfig().withAdapters(JsonConvert.getAdapter()))) {
+      return created.fromJson(json, LIST_TYPE);
+    }
+  }
+
+  @Benchmark
+  public String writeCodec() {
+    return ApartmentJsonCodec.toJson(apartments);
+  }
+
+  @Benchmark
+  public String writeJsonb() {
+    return writingJsonb.toJson(apartments);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(ApartmentJsonCodecBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,54 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ApartmentJsonCodecTests {
+
+  @SuppressWarnings("serial")
+  private static List<Apartment> bind(String json) throws Exception {
+    try (Jsonb jsonb =
+        JsonbBuilder.create(new JsonbConfig().withAdapters(JsonConvert.getAdapter()))) {
+      return jsonb.fromJson(json, new ArrayList<Apartment>() {}.getClass().getGenericSuperclass());
+    }
+  }
+
+  /** The codec must read and write the default apartments exactly as JSON-B does */
+  @Test
+  void testSameAsJsonb() throws Exception {
+    String json;
+    try (InputStream input = JsonConvert.class.getResourceAsStream("defaultApartments.json")) {
+      json = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    List<Apartment> apartments = ApartmentJsonCodec.read(json);
+    assertEquals(bind(json), apartments);
+    try (Jsonb jsonb = JsonbBuilder.create()) {
+      assertEquals(jsonb.toJson(apartments), ApartmentJsonCodec.toJson(apartments));
+    }
+  }
+
+  /** A number given as a string must still be read, through JSON-B */
+  @Test
+  void testFallback(@TempDir Path directory) throws Exception {
+    Path path = directory.resolve("apartments.json");
+    Files.writeString(
+        path,
+        "[{\"title\": \"t\", \"address\": \"a\", \"floorArea\": \"12.5\", \"terrace\": false,"
+            + " \"wifi\": true, \"tele\": true}]");
+    List<Apartment> apartments = JsonConvert.jsonToApartments(path);
+    assertEquals(1, apartments.size());
+    assertEquals(12.5, apartments.get(0).getFloorArea());
+  }
+}
@@ -0,0 +1,89 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class ApartmentJsonReaderTests {
+
+  private static InputStream of(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** The apartments read one by one must be those bound all at once */
+  @Test
+  void testReadDefaultApartments() throws Exception {
+    List<Apartment> expected = JsonConvert.getDefaultApartments();
+    try (Stream<Apartment> apartments =
+        JsonConvert.jsonToApartmentStream(
+            JsonConvert.class.getResourceAsStream("defaultApartments.json"))) {
+      assertEquals(expected, apartments.collect(ImmutableList.toImmutableList()));
+    }
+    Path path = Path.of(JsonConvert.class.getResource("defaultApartments.json").toURI());
+    ApartmentBatch batch = JsonConvert.jsonToApartmentBatch(path);
+    assertEquals(expected.size(), batch.size());
+    assertEquals(
+        expected.get(expected.size() - 1).getPricePerNight(),
+        batch.getValue(Criterion.PRICE_PER_NIGHT, batch.size() - 1));
+  }
+
+  /** Unknown members must be skipped, whatever their values */
+  @Test
+  void testUnknownMembers() {
+    String json =
+        "[{\"title\": \"Grand Igloo\", \"rating\": {\"stars\": [4, 5]}, \"tags\": [\"cold\"],"
+            + " \"address\": \"118 rue du père noel 77480\", \"floorArea\": 1182118.48,"
+            + " \"terrace\": false, \"wifi\": true, \"tele\": false, \"nbBedrooms\": 2,"
+            + " \"owner\": null}]";
+    try (ApartmentJsonReader reader = ApartmentJsonReader.of(Channels.newChannel(of(json)))) {
+      assertTrue(reader.hasNext());
+      Apartment apartment = reader.next();
+      assertEquals("Grand Igloo", apartment.getTitle());
+      assertEquals(1182118.48, apartment.getFloorArea());
+      assertEquals(2, apartment.getNbBedrooms());
+      assertTrue(apartment.getWifi());
+      assertFalse(reader.hasNext());
+      assertThrows(NoSuchElementException.class, reader::next);
+    }
+  }
+
+  /** The validation of the builder must apply to each apartment read */
+  @Test
+  void testInvalidApartments() {
+    String missingTele =
+        "[{\"title\": \"t\", \"address\": \"a\", \"floorArea\": 1.0, \"terrace\": false,"
+            + " \"wifi\": true}]";
+    try (ApartmentJsonReader reader = ApartmentJsonReader.of(of(missingTele))) {
+      assertThrows(IllegalArgumentException.class, reader::next);
+    }
+    String negativeArea =
+        "[{\"title\": \"t\", \"address\": \"a\", \"floorArea\": -1.0, \"terrace\": false,"
+            + " \"wifi\": true, \"tele\": true}]";
+    try (ApartmentJsonReader reader = ApartmentJsonReader.of(of(negativeArea))) {
+      assertThrows(IllegalArgumentException.class, reader::next);
+    }
+    String wrongType = "[{\"title\": \"t\", \"nbBedrooms\": 1.5}]";
+    try (ApartmentJsonReader reader = ApartmentJsonReader.of(of(wrongType))) {
+      assertThrows(IllegalArgumentException.class, reader::next);
+    }
+    assertThrows(IllegalArgumentException.class, () -> ApartmentJsonReader.of(of("{}")));
+    try (ApartmentJsonReader reader = ApartmentJsonReader.of(of("[{\"title\": \"t\""))) {
+      assertThrows(IllegalArgumentException.class, reader::next);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ApartmentJsonWriterTests {
+
+  /** The JSON written one apartment at a time must be the one written all at once */
+  @Test
+  void testWriteDefaultApartments() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ApartmentJsonWriter writer = ApartmentJsonWriter.of(output)) {
+      writer.writeAll(apartments);
+    }
+    assertEquals(
+        JsonConvert.apartmentsToJsonString(apartments),
+        new String(output.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  /** A compressed file must replace the previous one and be read back, with no file left over */
+  @Test
+  void testWriteGzipFile(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    Path jsonPath = directory.resolve("apartments.json.gz");
+    Files.writeString(jsonPath, "previous content");
+    JsonConvert.apartmentsToJson(apartments.subList(0, 10), jsonPath, true);
+    try (InputStream input = new GZIPInputStream(Files.newInputStream(jsonPath));
+        Stream<Apartment> read = JsonConvert.jsonToApartmentStream(input)) {
+      assertEquals(apartments.subList(0, 10), read.collect(ImmutableList.toImmutableList()));
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(List.of(jsonPath), files.collect(Collectors.toList()));
+    }
+  }
+
+  /** Nothing can be written once the array is closed */
+  @Test
+  void testWriteAfterClose() {
+    ApartmentJsonWriter writer = ApartmentJsonWriter.of(new ByteArrayOutputStream());
+    writer.close();
+    writer.close();
+    assertThrows(
+        IllegalStateException.class, () -> writer.write(JsonConvert.getDefaultApartments().get(0)));
+  }
+}
@@ -0,0 +1,50 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the time taken to load the default apartments at startup, in a fresh JVM, from the JSON
+ * file and from the snapshot that the build makes of it. Each measure is a single load in its own
+ * fork, class loading included. The logs of the apartment builder are turned off. It is not run by
+ * the tests; launch it, once the snapshot is built, with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.apartment.json.DefaultApartmentsBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class DefaultApartmentsBenchmark {
+
+  @Benchmark
+  public DefaultApartments loadJson() {
+    return DefaultApartments.readJson(DefaultApartments.readResource("defaultApartments.json"));
+  }
+
+  @Benchmark
+  public DefaultApartments loadSnapshot() {
+    byte[] json = DefaultApartments.readResource("defaultApartments.json");
+    return DefaultApartmentsSnapshot.read(
+            DefaultApartments.readResource(DefaultApartmentsSnapshot.RESOURCE),
+            DefaultApartmentsSnapshot.checksum(json))
+        .orElseThrow();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(DefaultApartmentsBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,98 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DefaultApartmentsTests {
+
+  /**
+   * The default apartments must be those of the resource, read once for all the threads, and must
+   * not be modifiable
+   */
+  @Test
+  void testGet() throws Exception {
+    List<Apartment> expected;
+    try (InputStream input = JsonConvert.class.getResourceAsStream("defaultApartments.json")) {
+      expected = ApartmentJsonCodec.read(input);
+    }
+    DefaultApartments catalogue = DefaultApartments.get();
+    assertEquals(expected, catalogue.getApartments());
+    ApartmentBatch batch = catalogue.getBatch();
+    assertEquals(expected.size(), batch.size());
+    ApartmentBatch copied = ApartmentBatch.copyOf(expected);
+    for (int row = 0; row < batch.size(); row++) {
+      assertEquals(expected.get(row).getFloorArea(), batch.getValue(Criterion.FLOOR_AREA, row));
+      assertEquals(copied.getFlags(row), batch.getFlags(row));
+    }
+    assertSame(catalogue.getApartments(), JsonConvert.getDefaultApartments());
+    IntStream.range(0, 16).parallel().forEach(i -> assertSame(catalogue, DefaultApartments.get()));
+
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> JsonConvert.getDefaultApartments().add(expected.get(0)));
+  }
+
+  /**
+   * The snapshot must give the same apartments, columns and subjective values as the JSON file it
+   * was made from, and must not be read with another JSON file, with other profiles or when corrupt
+   */
+  @Test
+  void testSnapshot() throws Exception {
+    byte[] json = DefaultApartments.readResource("defaultApartments.json");
+    DefaultApartments fromJson = DefaultApartments.readJson(json);
+    int checksum = DefaultApartmentsSnapshot.checksum(json);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    DefaultApartmentsSnapshot.write(fromJson.getApartments(), checksum, output);
+    byte[] snapshot = output.toByteArray();
+
+    DefaultApartments fromSnapshot = DefaultApartmentsSnapshot.read(snapshot, checksum).get();
+    assertEquals(fromJson.getApartments(), fromSnapshot.getApartments());
+    int size = fromJson.getBatch().size();
+    assertEquals(size, fromSnapshot.getBatch().size());
+    double[] expected = new double[size];
+    double[] actual = new double[size];
+    for (Criterion criterion : Criterion.values()) {
+      fromJson.getBatch().copyValues(criterion, 0, size, expected);
+      fromSnapshot.getBatch().copyValues(criterion, 0, size, actual);
+      assertArrayEquals(expected, actual);
+      for (ProfileType profile : ProfileType.values()) {
+        CompiledAVF avf = ProfileManager.getInstance().getProfile(profile).getLinearAVF().compile();
+        avf.getSubjectiveValues(fromJson.getBatch(), criterion, 0, size, expected);
+        assertArrayEquals(expected, fromJson.getSubjectiveValues(profile, criterion));
+        assertArrayEquals(expected, fromSnapshot.getSubjectiveValues(profile, criterion));
+      }
+    }
+
+    assertTrue(DefaultApartmentsSnapshot.read(snapshot, checksum + 1).isEmpty());
+    assertTrue(
+        DefaultApartmentsSnapshot.read(Arrays.copyOf(snapshot, snapshot.length / 2), checksum)
+            .isEmpty());
+    /* The header holds the magic number, the version, the checksum, the profiles, then the size. */
+    ByteBuffer header = ByteBuffer.wrap(snapshot);
+    long profiles = header.getLong(3 * Integer.BYTES);
+    header.putLong(3 * Integer.BYTES, profiles + 1);
+    assertTrue(DefaultApartmentsSnapshot.read(snapshot, checksum).isEmpty());
+    header.putLong(3 * Integer.BYTES, profiles);
+    for (int corrupt : new int[] {-1, Integer.MAX_VALUE, size + 1}) {
+      header.putInt(3 * Integer.BYTES + Long.BYTES, corrupt);
+      assertTrue(DefaultApartmentsSnapshot.read(snapshot, checksum).isEmpty());
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JsonCatalogueTests {
+
+  /** The columns read must be those of the full batch, and the rows fetched the apartments */
+  @Test
+  void testReadColumns(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    Path path = directory.resolve("apartments.json");
+    JsonConvert.apartmentsToJson(apartments, path);
+    Set<Criterion> criteria =
+        EnumSet.of(Criterion.PRICE_PER_NIGHT, Criterion.NB_BEDROOMS, Criterion.WIFI);
+
+    JsonCatalogue catalogue = JsonConvert.readColumns(path, criteria);
+    ApartmentBatch batch = catalogue.getBatch();
+    ApartmentBatch full = ApartmentBatch.copyOf(apartments);
+    assertEquals(criteria, batch.getCriteria());
+    assertFalse(batch.holds(Criterion.TELE));
+    assertThrows(IllegalArgumentException.class, () -> batch.getValue(Criterion.FLOOR_AREA, 0));
+    assertEquals(apartments.size(), batch.size());
+    for (int row = 0; row < batch.size(); row++) {
+      for (Criterion criterion : criteria) {
+        assertEquals(full.getValue(criterion, row), batch.getValue(criterion, row));
+      }
+      assertEquals(full.getFlags(row) & Apartment.WIFI_FLAG, batch.getFlags(row));
+    }
+
+    String json = Files.readString(path);
+    int last = apartments.size() - 1;
+    assertEquals(json.indexOf('{'), catalogue.getOffset(0));
+    assertEquals(apartments.get(last), catalogue.fetch(last));
+    assertEquals(
+        List.of(apartments.get(last), apartments.get(0), apartments.get(last)),
+        catalogue.fetch(new int[] {last, 0, last}));
+  }
+
+  /** A batch holding the weighted columns must be scored as the full batch, others rejected */
+  @Test
+  void testScoreColumns(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    Path path = directory.resolve("apartments.json");
+    JsonConvert.apartmentsToJson(apartments, path);
+    LinearAVF linearAVF =
+        ProfileManager.getInstance()
+            .getProfile(ProfileType.STUDENT)
+            .getLinearAVF()
+            .withWeight(Criterion.TELE, 0d)
+            .withWeight(Criterion.FLOOR_AREA_TERRACE, 0d);
+    CompiledAVF avf = linearAVF.compile();
+    Set<Criterion> criteria = EnumSet.allOf(Criterion.class);
+    criteria.removeIf(criterion -> avf.getWeight(criterion) == 0d);
+
+    ApartmentBatch batch = JsonConvert.readColumns(path, criteria).getBatch();
+    ApartmentBatch full = ApartmentBatch.copyOf(apartments);
+    double[] scores = new double[batch.size()];
+    double[] expected = new double[full.size()];
+    avf.score(batch, scores);
+    avf.score(full, expected);
+    assertArrayEquals(expected, scores);
+
+    criteria.remove(Criterion.PRICE_PER_NIGHT);
+    ApartmentBatch missing = JsonConvert.readColumns(path, criteria).getBatch();
+    assertFalse(avf.canScore(missing));
+    assertThrows(IllegalArgumentException.class, () -> avf.score(missing, 0));
+  }
+
+  /**
+   * The values that the apartment reader rejects, such as a floor area of 0 or a count too large
+   * for an int, must be rejected when reading the columns too
+   */
+  @Test
+  void testReadInvalidValues(@TempDir Path directory) throws Exception {
+    Path path = directory.resolve("apartments.json");
+    String apartment =
+        "[{\"address\": \"a\", \"title\": \"t\", \"tele\": true, \"terrace\": false,"
+            + " \"wifi\": false, \"floorArea\": %s, \"nbBedrooms\": %s}]";
+    Set<Criterion> criteria = EnumSet.of(Criterion.FLOOR_AREA, Criterion.NB_BEDROOMS);
+    Files.writeString(path, String.format(apartment, "30.5", "2"));
+    ApartmentBatch batch = JsonConvert.readColumns(path, criteria).getBatch();
+    assertEquals(30.5d, batch.getValue(Criterion.FLOOR_AREA, 0));
+    assertEquals(2d, batch.getValue(Criterion.NB_BEDROOMS, 0));
+
+    for (String invalid :
+        List.of(
+            String.format(apartment, "0", "2"),
+            String.format(apartment, "30.5", "3000000000"),
+            String.format(apartment, "30.5", "2.5"))) {
+      Files.writeString(path, invalid);
+      assertThrows(IllegalArgumentException.class, () -> JsonConvert.readColumns(path, criteria));
+      assertThrows(IllegalArgumentException.class, () -> JsonConvert.jsonToApartments(path));
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package io.github.oliviercailloux.y2018.apartments.apartment.json;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
 import io.github.oliviercailloux.y2018.apartments.apartment.Apartment.Builder;
@@ -9,10 +10,16 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 import javax.json.bind.adapter.JsonbAdapter;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test class for JsonConvert
@@ -27,6 +34,30 @@ public class JsonConvertTests {
     this.jsonTestPath = Path.of(ressource);
   }
 
+  /**
+   * Replacing a JSON file must keep its permissions, and a new one must have the default
+   * permissions, not those of a temporary file
+   */
+  @Test
+  void testPermissions(@TempDir Path directory) throws Exception {
+    assumeTrue(
+        Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class));
+    List<Apartment> apartments = JsonConvert.getDefaultApartments().subList(0, 2);
+    Set<PosixFilePermission> defaults =
+        Files.getPosixFilePermissions(Files.createFile(directory.resolve("empty")));
+    Path path = directory.resolve("apartments.json");
+    JsonConvert.apartmentsToJson(apartments, path);
+    assertEquals(defaults, Files.getPosixFilePermissions(path));
+
+    Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw-r--");
+    Files.setPosixFilePermissions(path, shared);
+    JsonConvert.apartmentsToJson(apartments, path, true);
+    assertEquals(shared, Files.getPosixFilePermissions(path));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(2, files.count());
+    }
+  }
+
   /**
    * Tests apartmentsToJson function. Verifies if the JSON file created by the function corresponds
    * to the expected file.
@@ -0,0 +1,115 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.BatchApartmentLoader;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JsonLinesTests {
+
+  /** A file large enough to be read in several ranges must be read back in order */
+  @Test
+  void testWriteAndReadLines(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    List<Apartment> written =
+        ImmutableList.copyOf(Iterables.concat(Collections.nCopies(12, apartments)));
+    Path path = directory.resolve("apartments.jsonl");
+    JsonConvert.apartmentsToJsonLines(written, path);
+    assertEquals(written.size(), Files.readAllLines(path).size());
+
+    assertEquals(written, JsonConvert.jsonLinesToApartments(path));
+    ApartmentBatch batch = JsonConvert.jsonLinesToApartmentBatch(path);
+    assertEquals(written.size(), batch.size());
+    for (int row = 0; row < written.size(); row += 97) {
+      assertEquals(written.get(row).getFloorArea(), batch.getValue(Criterion.FLOOR_AREA, row));
+      assertEquals(written.get(row).getFlags(), batch.getFlags(row));
+    }
+  }
+
+  /**
+   * Replacing a JSON Lines file must keep its permissions, and a new one must have the default
+   * permissions, not those of a temporary file
+   */
+  @Test
+  void testPermissions(@TempDir Path directory) throws Exception {
+    assumeTrue(
+        Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class));
+    List<Apartment> apartments = JsonConvert.getDefaultApartments().subList(0, 2);
+    Set<PosixFilePermission> defaults =
+        Files.getPosixFilePermissions(Files.createFile(directory.resolve("empty")));
+    Path path = directory.resolve("apartments.jsonl");
+    JsonConvert.apartmentsToJsonLines(apartments, path);
+    assertEquals(defaults, Files.getPosixFilePermissions(path));
+
+    Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw-r--");
+    Files.setPosixFilePermissions(path, shared);
+    JsonConvert.apartmentsToJsonLines(apartments, path);
+    assertEquals(shared, Files.getPosixFilePermissions(path));
+    assertEquals(apartments, JsonConvert.jsonLinesToApartments(path));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  /** Blank lines and line ends of Windows must be accepted, invalid lines rejected */
+  @Test
+  void testReadLines(@TempDir Path directory) throws Exception {
+    Apartment apartment = JsonConvert.getDefaultApartments().get(0);
+    String line = ApartmentJsonWriter.toJsonObject(apartment);
+    Path path = directory.resolve("apartments.jsonl");
+    Files.writeString(path, line + "\r\n\n" + line);
+    assertEquals(List.of(apartment, apartment), JsonConvert.jsonLinesToApartments(path));
+
+    Files.writeString(path, line + "\n{\"title\": \"t\"}\n");
+    assertThrows(IllegalArgumentException.class, () -> JsonConvert.jsonLinesToApartments(path));
+    Files.writeString(path, line + line);
+    assertThrows(IllegalArgumentException.class, () -> JsonConvert.jsonLinesToApartments(path));
+  }
+
+  /** Invalid lines must be put in quarantine with their reasons, the other ones imported */
+  @Test
+  void testImportLines(@TempDir Path directory) throws Exception {
+    Apartment apartment = JsonConvert.getDefaultApartments().get(0);
+    String line = ApartmentJsonWriter.toJsonObject(apartment);
+    Path path = directory.resolve("apartments.jsonl");
+    Files.writeString(
+        path,
+        line + "\n{\"title\": \"t\", \"floorArea\": -3}\n\n" + line + line + "\n" + line + "\n");
+    BatchApartmentLoader loader = BatchApartmentLoader.create();
+    JsonConvert.jsonLinesToApartments(path, loader);
+
+    assertEquals(List.of(apartment, apartment), loader.getApartments());
+    assertEquals(2, loader.getAcceptedCount());
+    assertEquals(2, loader.getRejectedCount());
+    assertEquals(
+        List.of("apartments.jsonl:2", "apartments.jsonl:4"),
+        List.copyOf(loader.getQuarantine().keySet()));
+    assertEquals(
+        List.of(
+            "The floor area should not be <= 0",
+            "The address of the apartment must be specified",
+            "The terrace must be specified",
+            "The presence of TV must be specified",
+            "The presence of wifi must be specified"),
+        loader.getQuarantine().get("apartments.jsonl:2"));
+    assertTrue(loader.getReport().startsWith("2 records accepted, 2 rejected\napartments.jsonl:2"));
+  }
+}
@@ -0,0 +1,94 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the streaming XML document of {@link ApartmentXmlReader} and {@link ApartmentXmlWriter}
+ * with one <code>Properties</code> XML file per apartment, read by {@link ReadApartmentsXMLFormat}
+ * and written by {@link XMLProperties}, for the default apartments held in memory. The logs of the
+ * apartment builder are turned off. It is not run by the tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.apartment.xml.ApartmentXmlBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Benchmark)
+public class ApartmentXmlBenchmark {
+
+  private List<Apartment> apartments;
+  private byte[] document;
+  private List<byte[]> files;
+
+  @Setup
+  public void setup() throws IOException {
+    apartments = JsonConvert.getDefaultApartments();
+    document = writeDocument();
+    files = writeFiles();
+  }
+
+  @Benchmark
+  public List<Apartment> readDocument() {
+    try (ApartmentXmlReader reader = ApartmentXmlReader.of(new ByteArrayInputStream(document))) {
+      return ImmutableList.copyOf(reader);
+    }
+  }
+
+  @Benchmark
+  public List<Apartment> readFiles() throws IOException {
+    List<Apartment> read = new ArrayList<>(files.size());
+    for (byte[] file : files) {
+      read.add(new ReadApartmentsXMLFormat().readApartment(new ByteArrayInputStream(file)));
+    }
+    return read;
+  }
+
+  @Benchmark
+  public byte[] writeDocument() {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ApartmentXmlWriter writer = ApartmentXmlWriter.of(output)) {
+      writer.writeAll(apartments);
+    }
+    return output.toByteArray();
+  }
+
+  @Benchmark
+  public List<byte[]> writeFiles() throws IOException {
+    List<byte[]> written = new ArrayList<>(apartments.size());
+    for (Apartment apartment : apartments) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      new XMLProperties().toXML(apartment, output);
+      written.add(output.toByteArray());
+    }
+    return written;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ApartmentXmlBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,121 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class ApartmentXmlReaderTests {
+
+  private static byte[] toXml(List<Apartment> apartments) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (ApartmentXmlWriter writer = ApartmentXmlWriter.of(output)) {
+      writer.writeAll(apartments);
+    }
+    return output.toByteArray();
+  }
+
+  private static ImmutableList<Apartment> read(byte[] xml) {
+    try (ApartmentXmlReader reader = ApartmentXmlReader.of(new ByteArrayInputStream(xml))) {
+      return ImmutableList.copyOf(reader);
+    }
+  }
+
+  /** The apartments written must be read back, also by several threads at once */
+  @Test
+  void testWriteAndRead() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    byte[] xml = toXml(apartments);
+    assertEquals(apartments, read(xml));
+    assertEquals(List.of(), read(toXml(List.of())));
+
+    List<ImmutableList<Apartment>> readConcurrently =
+        IntStream.range(0, 8)
+            .parallel()
+            .mapToObj(i -> read(toXml(apartments)))
+            .collect(Collectors.toList());
+    readConcurrently.forEach(read -> assertEquals(apartments, read));
+  }
+
+  /** A writer whose writing failed or was aborted must not end its document, hence be rejected */
+  @Test
+  void testFailedWrite() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    ByteArrayOutputStream failed = new ByteArrayOutputStream();
+    Iterable<Apartment> failing =
+        () ->
+            Stream.concat(
+                    apartments.stream().limit(2),
+                    Stream.generate(
+                        () -> {
+                          throw new IllegalStateException("The source failed");
+                        }))
+                .iterator();
+    assertThrows(
+        IllegalStateException.class,
+        () -> {
+          try (ApartmentXmlWriter writer = ApartmentXmlWriter.of(failed)) {
+            writer.writeAll(failing);
+          }
+        });
+    assertThrows(IllegalArgumentException.class, () -> read(failed.toByteArray()));
+
+    ByteArrayOutputStream aborted = new ByteArrayOutputStream();
+    try (ApartmentXmlWriter writer = ApartmentXmlWriter.of(aborted)) {
+      writer.write(apartments.get(0));
+      writer.abort();
+      assertThrows(IllegalStateException.class, () -> writer.write(apartments.get(1)));
+    }
+    assertThrows(IllegalArgumentException.class, () -> read(aborted.toByteArray()));
+  }
+
+  /** Unknown entries and elements must be skipped, invalid apartments rejected */
+  @Test
+  void testRead() {
+    String start =
+        "<?xml version=\"1.0\"?><apartments version=\"1\"><other><a/></other><apartment>";
+    String entries =
+        "<entry key=\"address\">1 rue &amp; place</entry><entry key=\"title\">T</entry>"
+            + "<entry key=\"floorArea\">12.5</entry><entry key=\"tele\">true</entry>"
+            + "<entry key=\"wifi\">false</entry><entry key=\"terrace\">false</entry>";
+    String end = "</apartment></apartments>";
+    Apartment apartment =
+        new Apartment.Builder()
+            .setAddress("1 rue & place")
+            .setTitle("T")
+            .setFloorArea(12.5)
+            .setTele(true)
+            .setWifi(false)
+            .setTerrace(false)
+            .build();
+    assertEquals(
+        List.of(apartment),
+        read((start + entries + "<entry key=\"color\">red</entry>" + end).getBytes(UTF_8)));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> read((start + entries.replace("12.5", "twelve") + end).getBytes(UTF_8)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> read((start + entries.replace("true", "yes") + end).getBytes(UTF_8)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> read((start + entries.replace("floorArea", "area") + end).getBytes(UTF_8)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> read((start + entries + "</apartment>").getBytes(UTF_8)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> read((start.replace("\"1\"", "\"2\"") + entries + end).getBytes(UTF_8)));
+  }
+}
@@ -0,0 +1,94 @@
+package io.github.oliviercailloux.y2018.apartments.apartment.xml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class XmlDirectoryCatalogueTests {
+
+  /**
+   * The apartments of a tree must be read in the order of their paths, whatever the number of
+   * threads, and the files in error reported without stopping the loading
+   */
+  @Test
+  void testLoad(@TempDir Path directory) throws Exception {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments().subList(0, 30);
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < apartments.size(); i++) {
+      Path file = directory.resolve("group" + i % 3).resolve(String.format("apartment%02d.xml", i));
+      Files.createDirectories(file.getParent());
+      try (OutputStream output = Files.newOutputStream(file)) {
+        new XMLProperties().toXML(apartments.get(i), output);
+      }
+      files.add(file);
+    }
+    Path invalid = directory.resolve("group1").resolve("invalid.xml");
+    Files.writeString(invalid, "<properties>", UTF_8);
+    Files.writeString(directory.resolve("notes.txt"), "Not an apartment", UTF_8);
+    files.sort(null);
+    List<Apartment> expected = new ArrayList<>();
+    for (Path file : files) {
+      expected.add(
+          apartments.get(Integer.parseInt(file.getFileName().toString().substring(9, 11))));
+    }
+
+    for (int parallelism : List.of(1, 4)) {
+      XmlDirectoryCatalogue catalogue = XmlDirectoryCatalogue.load(directory, parallelism);
+      assertEquals(expected, catalogue.getApartments());
+      assertEquals(files, catalogue.getFiles());
+      assertEquals(Set.of(invalid), catalogue.getErrors().keySet());
+      assertTrue(catalogue.getErrorSummary().startsWith("30 apartments read, 1 files in error"));
+      assertTrue(catalogue.getErrorSummary().contains(invalid.toString()));
+      assertEquals(
+          apartments.stream().map(Apartment::getAddress).distinct().count(),
+          catalogue.getStringPool().getAddressCount());
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> XmlDirectoryCatalogue.load(directory, 0));
+    assertThrows(IOException.class, () -> XmlDirectoryCatalogue.load(directory.resolve("missing")));
+  }
+
+  /** A directory that cannot be walked must be reported, and the rest of the tree loaded */
+  @Test
+  void testUnreadableDirectory(@TempDir Path directory) throws Exception {
+    Apartment apartment = JsonConvert.getDefaultApartments().get(0);
+    Path file = directory.resolve("readable").resolve("apartment.xml");
+    Path locked = directory.resolve("locked");
+    for (Path written : List.of(file, locked.resolve("apartment.xml"))) {
+      Files.createDirectories(written.getParent());
+      try (OutputStream output = Files.newOutputStream(written)) {
+        new XMLProperties().toXML(apartment, output);
+      }
+    }
+    assumeTrue(
+        Files.getFileStore(directory).supportsFileAttributeView(PosixFileAttributeView.class));
+    Files.setPosixFilePermissions(locked, Set.of());
+    try {
+      /* Some users, such as root, read any directory. */
+      assumeFalse(Files.isReadable(locked));
+      XmlDirectoryCatalogue catalogue = XmlDirectoryCatalogue.load(directory);
+      assertEquals(List.of(apartment), catalogue.getApartments());
+      assertEquals(List.of(file), catalogue.getFiles());
+      assertEquals(Set.of(locked), catalogue.getErrors().keySet());
+    } finally {
+      Files.setPosixFilePermissions(locked, PosixFilePermissions.fromString("rwx------"));
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.DiscreteValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ReversedLinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class CatalogueIndexTests {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CatalogueIndexTests.class);
+
+  private static final ApartmentBatch BATCH =
+      ApartmentBatch.copyOf(JsonConvert.getDefaultApartments());
+
+  private static final CatalogueIndex INDEX = CatalogueIndex.of(BATCH);
+
+  @Test
+  void testSortedRows() {
+    for (Criterion criterion : Criterion.values()) {
+      for (int rank = 1; rank < BATCH.size(); rank++) {
+        assertTrue(
+            BATCH.getValue(criterion, INDEX.getRow(criterion, rank - 1))
+                <= BATCH.getValue(criterion, INDEX.getRow(criterion, rank)));
+      }
+    }
+  }
+
+  /** The threshold algorithm must find the same rows and scores as a full scan */
+  @Test
+  void testThresholdTopKPerProfile() {
+    for (ProfileType type : ProfileType.values()) {
+      CompiledAVF avf = ProfileManager.getInstance().getProfile(type).getLinearAVF().compile();
+      for (int k : new int[] {0, 1, 10, 49, BATCH.size()}) {
+        BatchRanking expected = Ranker.topK(BATCH, avf, k);
+        BatchRanking ranking = INDEX.topK(avf, k);
+        assertEquals(expected.getRows(), ranking.getRows());
+        assertEquals(expected.getScores(), ranking.getScores());
+        LOGGER.info(
+            "Top {} for {}: {} rows scored out of {}.",
+            k,
+            type,
+            ranking.getRowsScored(),
+            BATCH.size());
+      }
+      assertTrue(INDEX.topK(avf, 10).getRowsScored() < BATCH.size());
+    }
+  }
+
+  /** A partial value function that is not monotone prevents any pruning */
+  @Test
+  void testNotMonotone() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setBooleanValueFunction(Criterion.TERRACE, new DiscreteValueFunction<>(true, false));
+    CompiledAVF compiled = avf.compile();
+    BatchRanking ranking = INDEX.topK(compiled, 10);
+    assertEquals(Ranker.topK(BATCH, compiled, 10).getRows(), ranking.getRows());
+    assertEquals(BATCH.size(), ranking.getRowsScored());
+  }
+
+  /** A negative weight makes the threshold useless: the ranking must still be the full scan one */
+  @Test
+  void testNegativeWeight() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(60d, 140d));
+    avf.setDoubleValueFunction(
+        Criterion.PRICE_PER_NIGHT, new ReversedLinearValueFunction(700d, 2100d));
+    avf.setWeightSubjectiveValue(Criterion.PRICE_PER_NIGHT, -0.5d);
+    CompiledAVF compiled = avf.compile();
+    for (int k : new int[] {1, 10, BATCH.size()}) {
+      BatchRanking expected = Ranker.topK(BATCH, compiled, k);
+      BatchRanking ranking = INDEX.topK(compiled, k);
+      assertEquals(expected.getRows(), ranking.getRows());
+      assertEquals(expected.getScores(), ranking.getScores());
+    }
+  }
+}
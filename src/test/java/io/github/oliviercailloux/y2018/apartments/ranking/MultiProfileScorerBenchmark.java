@@ -0,0 +1,105 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares scoring a catalogue against many sessions one value function after the other with
+ * scoring it as a matrix, on a single thread so that only the sharing of the subjective values is
+ * measured. Each session changes the weights of one of the profiles. It is not run by the tests;
+ * launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.ranking.MultiProfileScorerBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiProfileScorerBenchmark {
+
+  @Param({"3", "30", "300"})
+  private int sessions;
+
+  private ApartmentBatch batch;
+  private List<CompiledAVF> avfs;
+  private MultiProfileScorer scorer;
+  private ForkJoinPool pool;
+  private double[] scores;
+
+  @Setup
+  public void setup() {
+    List<Apartment> apartments = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      apartments.addAll(JsonConvert.getDefaultApartments());
+    }
+    batch = ApartmentBatch.copyOf(apartments);
+    Random random = new Random(0);
+    ProfileType[] types = ProfileType.values();
+    avfs = new ArrayList<>();
+    for (int i = 0; i < sessions; i++) {
+      LinearAVF linearAVF =
+          ProfileManager.getInstance().getProfile(types[i % types.length]).getLinearAVF();
+      for (Criterion criterion : Criterion.values()) {
+        linearAVF = linearAVF.withWeight(criterion, random.nextDouble());
+      }
+      avfs.add(linearAVF.compile());
+    }
+    scorer = MultiProfileScorer.of(avfs);
+    pool = new ForkJoinPool(1);
+    scores = new double[batch.size()];
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public void oneByOne(Blackhole blackhole) {
+    for (CompiledAVF avf : avfs) {
+      avf.score(batch, scores);
+      blackhole.consume(scores);
+    }
+  }
+
+  @Benchmark
+  public ScoreMatrix matrix() {
+    return scorer.score(batch, pool);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(MultiProfileScorerBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,85 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+class MultiProfileScorerTests {
+
+  private static final ApartmentBatch BATCH =
+      ApartmentBatch.copyOf(JsonConvert.getDefaultApartments());
+
+  /** One value function per profile, plus sessions that only change the weights of a profile */
+  private static List<CompiledAVF> getAVFs() {
+    List<CompiledAVF> avfs = new ArrayList<>();
+    for (ProfileType type : ProfileType.values()) {
+      LinearAVF linearAVF = ProfileManager.getInstance().getProfile(type).getLinearAVF();
+      avfs.add(linearAVF.compile());
+      avfs.add(linearAVF.withWeight(Criterion.PRICE_PER_NIGHT, 40d).compile());
+      avfs.add(linearAVF.withWeight(Criterion.WIFI, 0d).compile());
+    }
+    return avfs;
+  }
+
+  @Test
+  void testGroups() {
+    assertEquals(ProfileType.values().length, MultiProfileScorer.of(getAVFs()).getGroupCount());
+  }
+
+  /** The matrix must hold exactly the scores of each value function */
+  @Test
+  void testScoreMatrix() {
+    List<CompiledAVF> avfs = getAVFs();
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      ScoreMatrix matrix = MultiProfileScorer.of(avfs).score(BATCH, pool);
+      assertEquals(BATCH.size(), matrix.getRowCount());
+      assertEquals(avfs.size(), matrix.getColumnCount());
+      for (int column = 0; column < avfs.size(); column++) {
+        double[] expected = avfs.get(column).score(BATCH);
+        for (int row = 0; row < BATCH.size(); row++) {
+          assertEquals(expected[row], matrix.getScore(row, column));
+          assertEquals(avfs.get(column).score(BATCH, row), matrix.getScore(row, column));
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * The rankings must be those of each value function, on the common pool as on a given one, and
+   * must stay so when the workers reuse their buffers from one call to the next
+   */
+  @Test
+  void testTopK() {
+    List<CompiledAVF> avfs = getAVFs();
+    MultiProfileScorer scorer = MultiProfileScorer.of(avfs);
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      for (ImmutableList<BatchRanking> rankings :
+          List.of(
+              scorer.topK(BATCH, 10), scorer.topK(BATCH, 10, pool), scorer.topK(BATCH, 10, pool))) {
+        assertEquals(avfs.size(), rankings.size());
+        for (int column = 0; column < avfs.size(); column++) {
+          BatchRanking expected = Ranker.topK(BATCH, avfs.get(column), 10);
+          assertEquals(expected.getRows(), rankings.get(column).getRows());
+          assertEquals(expected.getScores(), rankings.get(column).getScores());
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
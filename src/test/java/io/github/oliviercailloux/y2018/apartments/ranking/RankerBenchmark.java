@@ -0,0 +1,83 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how the parallel ranking scales with the number of threads, over a large catalogue made
+ * of copies of the default apartments. It is not run by the tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.ranking.RankerBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankerBenchmark {
+
+  @Param({"1", "2", "4", "8", "16", "32"})
+  private int threads;
+
+  @Param({"1000"})
+  private int copies;
+
+  private List<Apartment> catalogue;
+  private CompiledAVF compiledAVF;
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setup() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    catalogue = new ArrayList<>(apartments.size() * copies);
+    for (int i = 0; i < copies; i++) {
+      catalogue.addAll(apartments);
+    }
+    compiledAVF =
+        ProfileManager.getInstance().getProfile(ProfileType.FAMILY).getLinearAVF().compile();
+    pool = new ForkJoinPool(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public List<RankedApartment> topK() {
+    return Ranker.topK(catalogue, compiledAVF, 10);
+  }
+
+  @Benchmark
+  public List<RankedApartment> parallelTopK() {
+    return Ranker.parallelTopK(catalogue, compiledAVF, 10, pool);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(RankerBenchmark.class.getSimpleName()).build()).run();
+  }
+}
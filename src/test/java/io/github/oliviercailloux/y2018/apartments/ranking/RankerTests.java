@@ -0,0 +1,107 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class RankerTests {
+
+  private static final List<Apartment> APARTMENTS = JsonConvert.getDefaultApartments();
+
+  /** The top k must be the first k apartments of a stable sort by decreasing subjective value */
+  @Test
+  void testTopKMatchesSort() {
+    for (ProfileType type : ProfileType.values()) {
+      LinearAVF linearAVF = ProfileManager.getInstance().getProfile(type).getLinearAVF();
+      List<Apartment> sorted = new ArrayList<>(APARTMENTS);
+      sorted.sort(
+          (Apartment c, Apartment d) ->
+              -Double.compare(linearAVF.getSubjectiveValue(c), linearAVF.getSubjectiveValue(d)));
+      for (int k : new int[] {0, 1, 10, 49, APARTMENTS.size(), APARTMENTS.size() + 10}) {
+        ImmutableList<RankedApartment> ranking = Ranker.topK(APARTMENTS, linearAVF, k);
+        assertEquals(Math.min(k, APARTMENTS.size()), ranking.size());
+        assertEquals(
+            sorted.subList(0, ranking.size()),
+            ranking.stream().map(RankedApartment::getApartment).collect(Collectors.toList()));
+        for (RankedApartment ranked : ranking) {
+          assertEquals(linearAVF.getSubjectiveValue(ranked.getApartment()), ranked.getScore());
+        }
+      }
+    }
+  }
+
+  /** Apartments with the same score keep the order of the catalogue */
+  @Test
+  void testTiesKeepCatalogueOrder() {
+    Apartment apartment = APARTMENTS.get(0);
+    Apartment same = copy(apartment, "Same");
+    Apartment other = copy(apartment, "Other");
+    LinearAVF linearAVF =
+        ProfileManager.getInstance().getProfile(ProfileType.STUDENT).getLinearAVF();
+    ImmutableList<RankedApartment> ranking =
+        Ranker.topK(ImmutableList.of(apartment, same, other), linearAVF, 2);
+    assertEquals(apartment, ranking.get(0).getApartment());
+    assertEquals(same, ranking.get(1).getApartment());
+    assertTrue(ranking.get(0).getScore() == ranking.get(1).getScore());
+  }
+
+  /** The parallel ranking must not depend on the number of threads, even with many ties */
+  @Test
+  void testParallelTopK() {
+    List<Apartment> catalogue = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      catalogue.addAll(APARTMENTS);
+    }
+    LinearAVF linearAVF =
+        ProfileManager.getInstance().getProfile(ProfileType.COUPLE).getLinearAVF();
+    for (int k : new int[] {0, 10, 49, catalogue.size()}) {
+      ImmutableList<RankedApartment> expected = Ranker.topK(catalogue, linearAVF, k);
+      assertEquals(expected, Ranker.parallelTopK(catalogue, linearAVF, k));
+      for (int threads : new int[] {1, 3}) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+          assertEquals(expected, Ranker.parallelTopK(catalogue, linearAVF.compile(), k, pool));
+        } finally {
+          pool.shutdown();
+        }
+      }
+    }
+  }
+
+  @Test
+  void testNegativeK() {
+    LinearAVF linearAVF =
+        ProfileManager.getInstance().getProfile(ProfileType.STUDENT).getLinearAVF();
+    assertThrows(IllegalArgumentException.class, () -> Ranker.topK(APARTMENTS, linearAVF, -1));
+  }
+
+  private static Apartment copy(Apartment apartment, String title) {
+    return new Apartment.Builder()
+        .setFloorArea(apartment.getFloorArea())
+        .setAddress(apartment.getAddress())
+        .setTitle(title)
+        .setNbBedrooms(apartment.getNbBedrooms())
+        .setNbSleeping(apartment.getNbSleeping())
+        .setNbBathrooms(apartment.getNbBathrooms())
+        .setFloorAreaTerrace(apartment.getFloorAreaTerrace())
+        .setPricePerNight(apartment.getPricePerNight())
+        .setNbMinNight(apartment.getNbMinNight())
+        .setTerrace(apartment.getTerrace())
+        .setTele(apartment.getTele())
+        .setWifi(apartment.getWifi())
+        .setDescription(apartment.getDescription())
+        .build();
+  }
+}
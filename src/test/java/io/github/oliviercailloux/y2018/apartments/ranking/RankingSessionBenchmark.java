@@ -0,0 +1,82 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures an elicitation round-trip, changing one weight and ranking again, over a million
+ * apartments made of copies of the default ones: with a ranking session, and by scoring the batch
+ * again. It is not run by the tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-Xmx2g -cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.ranking.RankingSessionBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class RankingSessionBenchmark {
+
+  private static final int SIZE = 1_000_000;
+
+  private ApartmentBatch batch;
+  private LinearAVF linearAVF;
+  private RankingSession session;
+  private int round;
+
+  @Setup
+  public void setup() {
+    List<Apartment> apartments = JsonConvert.getDefaultApartments();
+    ApartmentBatch.Builder builder = new ApartmentBatch.Builder(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      builder.add(apartments.get(i % apartments.size()));
+    }
+    batch = builder.build();
+    linearAVF = ProfileManager.getInstance().getProfile(ProfileType.FAMILY).getLinearAVF();
+    session = RankingSession.create(batch, linearAVF);
+  }
+
+  private double nextWeight() {
+    round++;
+    return 1d + round % 10;
+  }
+
+  @Benchmark
+  public BatchRanking session() {
+    session.setWeight(Criterion.PRICE_PER_NIGHT, nextWeight());
+    return session.topK(10);
+  }
+
+  @Benchmark
+  public BatchRanking rescore() {
+    linearAVF = linearAVF.withWeight(Criterion.PRICE_PER_NIGHT, nextWeight());
+    return Ranker.topK(batch, linearAVF.compile(), 10);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(RankingSessionBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
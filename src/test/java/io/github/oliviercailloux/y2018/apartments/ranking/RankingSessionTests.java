@@ -0,0 +1,104 @@
+package io.github.oliviercailloux.y2018.apartments.ranking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ApartmentValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.CompiledAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.Criterion;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVF;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.LinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.ReversedLinearValueFunction;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import org.junit.jupiter.api.Test;
+
+class RankingSessionTests {
+
+  private static final ApartmentBatch BATCH =
+      ApartmentBatch.copyOf(JsonConvert.getDefaultApartments());
+
+  private static void assertSameRanking(CompiledAVF expected, RankingSession session) {
+    for (int row = 0; row < BATCH.size(); row++) {
+      assertEquals(expected.score(BATCH, row), session.getScore(row), 1e-12);
+    }
+    BatchRanking expectedRanking = Ranker.topK(BATCH, expected, 10);
+    BatchRanking ranking = session.topK(10);
+    assertEquals(expectedRanking.size(), ranking.size());
+    for (int i = 0; i < ranking.size(); i++) {
+      assertEquals(expectedRanking.getScores().get(i), ranking.getScores().get(i), 1e-12);
+    }
+  }
+
+  /** Before any update, the scores are exactly those of the value function */
+  @Test
+  void testCreate() {
+    LinearAVF linearAVF =
+        ProfileManager.getInstance().getProfile(ProfileType.FAMILY).getLinearAVF();
+    RankingSession session = RankingSession.create(BATCH, linearAVF);
+    BatchRanking expected = Ranker.topK(BATCH, linearAVF.compile(), 49);
+    assertEquals(expected.getRows(), session.topK(49).getRows());
+    assertEquals(expected.getScores(), session.topK(49).getScores());
+  }
+
+  @Test
+  void testElicitation() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(20d, 120d));
+    avf.setDoubleValueFunction(
+        Criterion.PRICE_PER_NIGHT, new ReversedLinearValueFunction(100d, 1500d));
+    RankingSession session = RankingSession.create(BATCH, avf);
+    Criterion[] criteria = Criterion.values();
+    for (int i = 0; i < 100; i++) {
+      avf = avf.adaptWeight(criteria[i % criteria.length], criteria[(3 * i + 1) % criteria.length]);
+      session.update(avf);
+      assertSameRanking(avf.compile(), session);
+    }
+  }
+
+  /**
+   * A negative weight must be rejected by every update, whether it refreshes the sums or not, and
+   * must leave the session as it was
+   */
+  @Test
+  void testNegativeWeight() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(20d, 120d));
+    RankingSession session = RankingSession.create(BATCH, avf);
+    for (int i = 0; i < 100; i++) {
+      avf = avf.withSubjectiveValueWeight(Criterion.FLOOR_AREA, i + 1d);
+      session.update(avf);
+      CompiledAVF negative =
+          avf.withSubjectiveValueWeight(Criterion.WIFI, 2d)
+              .withSubjectiveValueWeight(Criterion.TELE, -1d)
+              .compile();
+      assertThrows(IllegalArgumentException.class, () -> session.update(negative));
+      assertEquals(0.1d, session.getWeight(Criterion.WIFI));
+      assertSameRanking(avf.compile(), session);
+    }
+  }
+
+  @Test
+  void testSetWeight() {
+    LinearAVF linearAVF =
+        ProfileManager.getInstance().getProfile(ProfileType.STUDENT).getLinearAVF();
+    RankingSession session = RankingSession.create(BATCH, linearAVF);
+    session.setWeight(Criterion.WIFI, 2d);
+    session.setWeight(Criterion.NB_BEDROOMS, 0d);
+    assertEquals(2d, session.getWeight(Criterion.WIFI));
+    assertSameRanking(
+        linearAVF.withWeight(Criterion.WIFI, 2d).withWeight(Criterion.NB_BEDROOMS, 0d).compile(),
+        session);
+  }
+
+  @Test
+  void testOtherValueFunctions() {
+    RankingSession session =
+        RankingSession.create(
+            BATCH, ProfileManager.getInstance().getProfile(ProfileType.STUDENT).getLinearAVF());
+    LinearAVF other = ProfileManager.getInstance().getProfile(ProfileType.COUPLE).getLinearAVF();
+    assertThrows(IllegalArgumentException.class, () -> session.update(other));
+  }
+}
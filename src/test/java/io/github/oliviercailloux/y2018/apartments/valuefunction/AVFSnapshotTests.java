@@ -0,0 +1,83 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AVFSnapshotTests {
+
+  private static final List<Apartment> APARTMENTS = JsonConvert.getDefaultApartments();
+
+  private static ApartmentValueFunction newValueFunction() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(20d, 120d));
+    avf.setDoubleValueFunction(
+        Criterion.PRICE_PER_NIGHT, new ReversedLinearValueFunction(100d, 1500d));
+    avf.setBooleanValueFunction(Criterion.WIFI, new BooleanValueFunction(true));
+    avf.setWeightSubjectiveValue(Criterion.FLOOR_AREA, 0.4d);
+    return avf;
+  }
+
+  /**
+   * A snapshot must score exactly as the value function it was taken from, and must not follow the
+   * later changes of that value function
+   */
+  @Test
+  void testSnapshot() {
+    ApartmentValueFunction avf = newValueFunction();
+    AVFSnapshot snapshot = avf.snapshot();
+    double[] expected = avf.getSubjectiveValues(ApartmentBatch.copyOf(APARTMENTS));
+    for (int i = 0; i < APARTMENTS.size(); i++) {
+      assertEquals(avf.getSubjectiveValue(APARTMENTS.get(i)), snapshot.score(APARTMENTS.get(i)));
+    }
+    assertArrayEquals(expected, snapshot.score(ApartmentBatch.copyOf(APARTMENTS)));
+
+    avf.setWeightSubjectiveValue(Criterion.FLOOR_AREA, 0.9d);
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(10d, 50d));
+    assertEquals(0.4d, snapshot.getWeight(Criterion.FLOOR_AREA));
+    assertEquals(0.4d, snapshot.getCompiled().getWeight(Criterion.FLOOR_AREA));
+    assertEquals(
+        120d,
+        ((LinearValueFunction) snapshot.getDoubleValueFunction(Criterion.FLOOR_AREA))
+            .getInterval()
+            .upperEndpoint());
+    assertArrayEquals(expected, snapshot.score(ApartmentBatch.copyOf(APARTMENTS)));
+    assertThrows(
+        IllegalArgumentException.class, () -> snapshot.getDoubleValueFunction(Criterion.WIFI));
+  }
+
+  /** Adapting a snapshot must give a new one, as adapting the value function would */
+  @Test
+  void testAdapt() {
+    ApartmentValueFunction avf = newValueFunction();
+    AVFSnapshot snapshot = avf.snapshot();
+    AVFSnapshot adapted = snapshot.adaptWeight(Criterion.PRICE_PER_NIGHT, Criterion.FLOOR_AREA);
+    ApartmentValueFunction expected =
+        avf.adaptWeight(Criterion.PRICE_PER_NIGHT, Criterion.FLOOR_AREA);
+    assertEquals(0.4d, snapshot.getWeight(Criterion.FLOOR_AREA));
+    for (Criterion criterion : Criterion.values()) {
+      assertEquals(expected.getWeightSubjectiveValue(criterion), adapted.getWeight(criterion));
+    }
+    for (Apartment apartment : APARTMENTS) {
+      assertEquals(expected.getSubjectiveValue(apartment), adapted.score(apartment));
+    }
+
+    AVFSnapshot bounded = snapshot.adaptBounds(Criterion.FLOOR_AREA, 60d, true);
+    assertEquals(
+        60d,
+        ((LinearValueFunction) bounded.getDoubleValueFunction(Criterion.FLOOR_AREA))
+            .getInterval()
+            .lowerEndpoint());
+    assertSame(
+        snapshot.getBooleanValueFunction(Criterion.WIFI),
+        bounded.getBooleanValueFunction(Criterion.WIFI));
+    assertEquals(0.7d, snapshot.withWeight(Criterion.WIFI, 0.7d).getWeight(Criterion.WIFI));
+  }
+}
@@ -0,0 +1,173 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CompiledAVFTests {
+
+  private static final List<Apartment> APARTMENTS = JsonConvert.getDefaultApartments();
+
+  /** The compiled LinearAVF must give exactly the same subjective values */
+  @Test
+  void testCompiledLinearAVF() {
+    for (ProfileType type : ProfileType.values()) {
+      LinearAVF linearAVF = ProfileManager.getInstance().getProfile(type).getLinearAVF();
+      CompiledAVF compiled = linearAVF.compile();
+      for (Apartment apartment : APARTMENTS) {
+        assertEquals(linearAVF.getSubjectiveValue(apartment), compiled.score(apartment));
+      }
+    }
+  }
+
+  @Test
+  void testMonotonicity() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(
+        Criterion.NB_SLEEPING,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 4.5d, 0.7d, 10d, 1d)));
+    avf.setDoubleValueFunction(Criterion.NB_BEDROOMS, ConstantValueFunction.ofDouble(0.5d));
+    avf.setDoubleValueFunction(Criterion.NB_MIN_NIGHT, new ConstantValueFunction<>(0.5d));
+    avf.setDoubleValueFunction(
+        Criterion.NB_BATHROOMS, new DiscreteValueFunction<>(ImmutableMap.of(1d, 1d, 2d, 0d)));
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(20d, 120d));
+    avf.setDoubleValueFunction(
+        Criterion.PRICE_PER_NIGHT, new ReversedLinearValueFunction(100d, 1500d));
+    avf.setBooleanValueFunction(Criterion.TERRACE, new BooleanValueFunction(false));
+    avf.setBooleanValueFunction(Criterion.WIFI, new BooleanValueFunction(true));
+    CompiledAVF compiled = avf.compile();
+    assertTrue(compiled.isNonDecreasing(Criterion.FLOOR_AREA));
+    assertTrue(compiled.isNonIncreasing(Criterion.PRICE_PER_NIGHT));
+    assertTrue(compiled.isNonDecreasing(Criterion.NB_SLEEPING));
+    assertTrue(compiled.isNonDecreasing(Criterion.NB_BEDROOMS));
+    assertTrue(compiled.isNonIncreasing(Criterion.NB_BEDROOMS));
+    assertTrue(compiled.isNonDecreasing(Criterion.NB_MIN_NIGHT));
+    assertTrue(compiled.isNonIncreasing(Criterion.NB_MIN_NIGHT));
+    assertFalse(compiled.isNonDecreasing(Criterion.NB_BATHROOMS));
+    assertFalse(compiled.isNonIncreasing(Criterion.NB_BATHROOMS));
+    assertTrue(compiled.isNonIncreasing(Criterion.TERRACE));
+    assertTrue(compiled.isNonDecreasing(Criterion.WIFI));
+    assertEquals(1d, compiled.getSubjectiveValue(Criterion.TERRACE, 0d));
+    assertEquals(0.35d, compiled.getSubjectiveValue(Criterion.NB_SLEEPING, 2.25d), 1e-12);
+  }
+
+  /** The compiled ApartmentValueFunction must give exactly the same subjective values */
+  @Test
+  void testCompiledApartmentValueFunction() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(20d, 120d));
+    avf.setDoubleValueFunction(
+        Criterion.PRICE_PER_NIGHT, new ReversedLinearValueFunction(100d, 1500d));
+    avf.setDoubleValueFunction(
+        Criterion.NB_MIN_NIGHT,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 30.5d, 0.5d, 700d, 1d)));
+    avf.setDoubleValueFunction(
+        Criterion.NB_SLEEPING,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 4.5d, 0.7d, 10d, 1d)));
+    avf.setBooleanValueFunction(Criterion.WIFI, new BooleanValueFunction(true));
+    avf.setBooleanValueFunction(Criterion.TELE, new BooleanValueFunction(false));
+    avf.setCriterionSubjectiveValueWeight(Criterion.FLOOR_AREA, 0.3d);
+    avf.setCriterionSubjectiveValueWeight(Criterion.WIFI, 0.05d);
+
+    CompiledAVF compiled = avf.compile();
+    for (Apartment apartment : APARTMENTS) {
+      assertEquals(avf.getSubjectiveValue(apartment), compiled.score(apartment));
+    }
+    assertEquals(0.3d, compiled.getWeight(Criterion.FLOOR_AREA));
+    assertEquals(1.15d, compiled.getWeightSum(), 1e-9);
+  }
+
+  /** Scoring a batch must give the same subjective values as scoring apartments one by one */
+  @Test
+  void testScoreBatch() {
+    ApartmentBatch batch = ApartmentBatch.copyOf(APARTMENTS);
+    for (ProfileType type : ProfileType.values()) {
+      LinearAVF linearAVF = ProfileManager.getInstance().getProfile(type).getLinearAVF();
+      double[] scores = linearAVF.getSubjectiveValues(batch);
+      assertEquals(APARTMENTS.size(), scores.length);
+      CompiledAVF compiled = linearAVF.compile();
+      for (int i = 0; i < APARTMENTS.size(); i++) {
+        assertEquals(linearAVF.getSubjectiveValue(APARTMENTS.get(i)), scores[i]);
+        assertEquals(scores[i], compiled.score(batch, i));
+      }
+    }
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(
+        Criterion.NB_SLEEPING,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 4.5d, 0.7d, 10d, 1d)));
+    avf.setBooleanValueFunction(Criterion.TERRACE, new BooleanValueFunction(false));
+    double[] scores = avf.getSubjectiveValues(batch);
+    for (int i = 0; i < APARTMENTS.size(); i++) {
+      assertEquals(avf.getSubjectiveValue(APARTMENTS.get(i)), scores[i]);
+    }
+  }
+
+  /** The compiled form must not follow the changes of the compiled object */
+  @Test
+  void testCompiledIsImmutable() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    CompiledAVF compiled = avf.compile();
+    avf.setCriterionSubjectiveValueWeight(Criterion.TELE, 5d);
+    assertEquals(0.1d, compiled.getWeight(Criterion.TELE));
+  }
+
+  /** The partial value functions which are not compiled must still be checked */
+  @Test
+  void testOutOfBoundsSubjectiveValue() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new ConstantValueFunction<>(2d));
+    CompiledAVF compiled = avf.compile();
+    assertThrows(IllegalStateException.class, () -> compiled.score(APARTMENTS.get(0)));
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, ConstantValueFunction.ofDouble(2d));
+    CompiledAVF batched = avf.compile();
+    assertThrows(
+        IllegalStateException.class, () -> batched.score(ApartmentBatch.copyOf(APARTMENTS)));
+  }
+
+  /**
+   * The fingerprint must change with the parameters of the functions that are not compiled, and be
+   * missing when they are unknown
+   */
+  @Test
+  void testFingerprint() {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(
+        Criterion.NB_SLEEPING,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 4.5d, 0.7d, 10d, 1d)));
+    avf.setDoubleValueFunction(
+        Criterion.NB_BATHROOMS, new DiscreteValueFunction<>(ImmutableMap.of(1d, 1d, 2d, 0d)));
+    long fingerprint = avf.compile().getFingerprint().getAsLong();
+
+    avf.setDoubleValueFunction(
+        Criterion.NB_BATHROOMS, new DiscreteValueFunction<>(ImmutableMap.of(2d, 0d, 1d, 1d)));
+    assertEquals(fingerprint, avf.compile().getFingerprint().getAsLong());
+    avf.setDoubleValueFunction(
+        Criterion.NB_SLEEPING,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 4.5d, 0.6d, 10d, 1d)));
+    long changed = avf.compile().getFingerprint().getAsLong();
+    assertNotEquals(fingerprint, changed);
+    avf.setDoubleValueFunction(
+        Criterion.NB_BATHROOMS, new DiscreteValueFunction<>(ImmutableMap.of(1d, 1d, 3d, 0d)));
+    assertNotEquals(changed, avf.compile().getFingerprint().getAsLong());
+    avf.setDoubleValueFunction(Criterion.NB_MIN_NIGHT, ConstantValueFunction.ofDouble(0.5d));
+    long constant = avf.compile().getFingerprint().getAsLong();
+    avf.setDoubleValueFunction(Criterion.NB_MIN_NIGHT, ConstantValueFunction.ofDouble(0.6d));
+    assertNotEquals(constant, avf.compile().getFingerprint().getAsLong());
+
+    avf.setDoubleValueFunction(
+        Criterion.NB_SLEEPING,
+        new PieceWiseLinearValueFunction(ImmutableMap.of(0d, 0d, 10d, 1d)) {});
+    assertTrue(avf.compile().getFingerprint().isEmpty());
+  }
+}
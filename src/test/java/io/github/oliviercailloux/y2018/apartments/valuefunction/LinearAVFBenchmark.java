@@ -0,0 +1,80 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.ApartmentBatch;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileManager;
+import io.github.oliviercailloux.y2018.apartments.valuefunction.profile.ProfileType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the subjective value computed by {@link LinearAVF} with the one computed by its compiled
+ * form, one apartment at a time and by batch, over the default apartments. It is not run by the
+ * tests; launch it with <code>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath
+ * io.github.oliviercailloux.y2018.apartments.valuefunction.LinearAVFBenchmark"</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LinearAVFBenchmark {
+
+  private List<Apartment> apartments;
+  private LinearAVF linearAVF;
+  private CompiledAVF compiledAVF;
+  private ApartmentBatch batch;
+  private double[] scores;
+
+  @Setup
+  public void setup() {
+    apartments = JsonConvert.getDefaultApartments();
+    linearAVF = ProfileManager.getInstance().getProfile(ProfileType.FAMILY).getLinearAVF();
+    compiledAVF = linearAVF.compile();
+    batch = ApartmentBatch.copyOf(apartments);
+    scores = new double[batch.size()];
+  }
+
+  @Benchmark
+  public void linearAVF(Blackhole blackhole) {
+    for (Apartment apartment : apartments) {
+      blackhole.consume(linearAVF.getSubjectiveValue(apartment));
+    }
+  }
+
+  @Benchmark
+  public void compiledAVF(Blackhole blackhole) {
+    for (Apartment apartment : apartments) {
+      blackhole.consume(compiledAVF.score(apartment));
+    }
+  }
+
+  @Benchmark
+  public double[] compiledAVFBatch() {
+    compiledAVF.score(batch, scores);
+    return scores;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(LinearAVFBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -1,7 +1,9 @@
 package io.github.oliviercailloux.y2018.apartments.valuefunction;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Random;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import org.junit.jupiter.api.Test;
@@ -33,6 +35,54 @@ public class PieceWiseLinearValueFunctionTests {
     assertEquals(0, p.getSubjectiveValue(-10d));
   }
 
+  /** A known value must give its grade, not a division by zero */
+  @Test
+  public void testGetUtilityOnKnownValue() throws Exception {
+
+    PieceWiseLinearValueFunction p = initializePieceWise();
+
+    assertEquals(0.5, p.getSubjectiveValue(10d));
+  }
+
+  @Test
+  public void testUniformGrid() throws Exception {
+
+    SortedMap<Double, Double> map = new ConcurrentSkipListMap<>();
+    Random random = new Random(0);
+    double value = 0d;
+    for (int i = 0; i < 500; i++) {
+      map.put(value, i / 499d);
+      value += random.nextDouble() * random.nextDouble() * 10d;
+    }
+    PieceWiseLinearValueFunction p = new PieceWiseLinearValueFunction(map);
+    PieceWiseLinearValueFunction grid = new PieceWiseLinearValueFunction(map, 100);
+
+    for (double key : map.keySet()) {
+      assertEquals(p.applyAsDouble(key), grid.applyAsDouble(key));
+      assertEquals(map.get(key), grid.applyAsDouble(key));
+    }
+    for (int i = 0; i < 10000; i++) {
+      double x = random.nextDouble() * (value + 20d) - 10d;
+      assertEquals(p.applyAsDouble(x), grid.applyAsDouble(x));
+    }
+  }
+
+  @Test
+  public void testApplySorted() throws Exception {
+
+    PieceWiseLinearValueFunction p = initializePieceWise();
+    double[] in = {-3d, 0d, 2.5d, 5d, 10d, 10d, 17d, 30d, 45d};
+    double[] out = new double[in.length];
+
+    p.applySorted(in, out, in.length);
+
+    for (int i = 0; i < in.length; i++) {
+      assertEquals(p.getSubjectiveValue(in[i]), out[i]);
+    }
+    assertThrows(
+        IllegalArgumentException.class, () -> p.applySorted(new double[] {5d, 4d}, out, 2));
+  }
+
   private static PieceWiseLinearValueFunction initializePieceWise() {
 
     SortedMap<Double, Double> map = new ConcurrentSkipListMap<>();
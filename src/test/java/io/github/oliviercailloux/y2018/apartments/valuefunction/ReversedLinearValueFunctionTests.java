@@ -31,6 +31,18 @@ class ReversedLinearValueFunctionTests {
     assertEquals(0.25, f.getSubjectiveValue(40.0));
   }
 
+  @Test
+  void testApplyBatch() {
+    ReversedLinearValueFunction f = new ReversedLinearValueFunction(10, 50);
+    double[] in = {-5d, 10d, 20d, 35.5d, 50d, 100d};
+    double[] out = new double[in.length];
+    f.applyBatch(in, out);
+    for (int i = 0; i < in.length; i++) {
+      assertEquals(f.getSubjectiveValue(in[i]), out[i]);
+      assertEquals(f.getSubjectiveValue(in[i]), f.applyAsDouble(in[i]));
+    }
+  }
+
   @Test
   void testExceptionIllegalArgEquals() {
     assertThrows(
@@ -0,0 +1,110 @@
+package io.github.oliviercailloux.y2018.apartments.valuefunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.oliviercailloux.y2018.apartments.apartment.Apartment;
+import io.github.oliviercailloux.y2018.apartments.apartment.json.JsonConvert;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class SharedAVFTests {
+
+  private static final Apartment APARTMENT = JsonConvert.getDefaultApartments().get(0);
+
+  /**
+   * While a session keeps adapting the shared value function, each ranker must see the weights and
+   * the scores of one of the snapshots set, never a mix of two
+   */
+  @Test
+  void testConcurrentReaders() throws Exception {
+    ApartmentValueFunction avf = new ApartmentValueFunction();
+    avf.setDoubleValueFunction(Criterion.FLOOR_AREA, new LinearValueFunction(20d, 120d));
+    avf.setDoubleValueFunction(
+        Criterion.PRICE_PER_NIGHT, new ReversedLinearValueFunction(100d, 1500d));
+    AVFSnapshot first = avf.snapshot().adaptWeight(Criterion.FLOOR_AREA, Criterion.PRICE_PER_NIGHT);
+    AVFSnapshot second = first.adaptWeight(Criterion.PRICE_PER_NIGHT, Criterion.FLOOR_AREA);
+    SharedAVF shared = SharedAVF.of(first);
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<Integer>> readers = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        readers.add(
+            executor.submit(
+                () -> {
+                  int reads = 0;
+                  do {
+                    AVFSnapshot snapshot = shared.get();
+                    AVFSnapshot expected =
+                        snapshot.getWeight(Criterion.FLOOR_AREA)
+                                == first.getWeight(Criterion.FLOOR_AREA)
+                            ? first
+                            : second;
+                    assertEquals(
+                        expected.getWeight(Criterion.PRICE_PER_NIGHT),
+                        snapshot.getWeight(Criterion.PRICE_PER_NIGHT));
+                    assertEquals(expected.score(APARTMENT), snapshot.score(APARTMENT));
+                    reads++;
+                  } while (running.get());
+                  return reads;
+                }));
+      }
+      Future<?> writer =
+          executor.submit(
+              () -> {
+                for (int i = 0; i < 10_000; i++) {
+                  shared.set(i % 2 == 0 ? second : first);
+                }
+              });
+      writer.get();
+      running.set(false);
+      for (Future<Integer> reader : readers) {
+        assertTrue(reader.get() > 0);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Concurrent adaptations must all be applied, and a stale one must not replace a newer one */
+  @Test
+  void testUpdate() throws Exception {
+    AVFSnapshot initial = new ApartmentValueFunction().snapshot();
+    SharedAVF shared = SharedAVF.of(initial);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> sessions = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        sessions.add(
+            executor.submit(
+                () -> {
+                  for (int j = 0; j < 250; j++) {
+                    shared.update(
+                        s -> s.withWeight(Criterion.WIFI, s.getWeight(Criterion.WIFI) + 1d));
+                  }
+                }));
+      }
+      for (Future<?> session : sessions) {
+        session.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    AVFSnapshot last = shared.get();
+    assertEquals(1000.1d, last.getWeight(Criterion.WIFI), 1e-9);
+
+    assertFalse(shared.compareAndSet(initial, initial.withWeight(Criterion.TELE, 2d)));
+    assertSame(last, shared.get());
+    assertTrue(shared.compareAndSet(last, initial));
+    assertSame(initial, shared.get());
+  }
+}